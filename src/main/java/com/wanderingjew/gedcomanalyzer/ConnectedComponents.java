@@ -0,0 +1,190 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Splits merged GEDCOM data into its connected components — the disconnected islands
+ * that {@link GedcomParser#parseMultipleFiles} can leave behind when exports don't
+ * actually share anyone.
+ *
+ * <p>Persons and families are both nodes of a union-find structure, and every FAMC/FAMS
+ * reference and HUSB/WIFE/CHIL link unions its two ends, so a component is always
+ * self-contained: every family a member points to is in the same component. The unions
+ * run on a parallel stream over a lock-free disjoint-set forest (an
+ * {@link AtomicIntegerArray} of parent indexes, linked with compare-and-set, the higher
+ * root always under the lower one so concurrent links can't form a cycle); writing the
+ * components out is parallel too.
+ */
+public class ConnectedComponents {
+
+    private final GedcomData data;
+    private final List<Component> components;
+    private final Map<String, Component> componentOfPerson = new HashMap<>();
+
+    public ConnectedComponents(GedcomData data) {
+        this.data = data;
+        this.components = compute();
+    }
+
+    private List<Component> compute() {
+        List<Person> persons = new ArrayList<>(data.getPersons().values());
+        List<Family> families = new ArrayList<>(data.getFamilies().values());
+        Map<String, Integer> personIndex = new HashMap<>();
+        for (int i = 0; i < persons.size(); i++) {
+            personIndex.put(persons.get(i).getId(), i);
+        }
+        Map<String, Integer> familyIndex = new HashMap<>();
+        for (int i = 0; i < families.size(); i++) {
+            familyIndex.put(families.get(i).getId(), persons.size() + i);
+        }
+
+        AtomicIntegerArray parent = new AtomicIntegerArray(persons.size() + families.size());
+        for (int i = 0; i < parent.length(); i++) {
+            parent.set(i, i);
+        }
+
+        IntStream.range(0, persons.size()).parallel().forEach(i -> {
+            Person person = persons.get(i);
+            for (String familyId : person.getFamilyIdsAsChild()) {
+                union(parent, i, familyIndex.get(familyId));
+            }
+            for (String familyId : person.getFamilyIdsAsSpouse()) {
+                union(parent, i, familyIndex.get(familyId));
+            }
+        });
+        IntStream.range(0, families.size()).parallel().forEach(i -> {
+            Family family = families.get(i);
+            int node = persons.size() + i;
+            union(parent, node, personIndex.get(family.getHusbandId()));
+            union(parent, node, personIndex.get(family.getWifeId()));
+            for (String childId : family.getChildrenIds()) {
+                union(parent, node, personIndex.get(childId));
+            }
+        });
+
+        // Gather members by root, in the data's own order so output is deterministic.
+        Map<Integer, Component> byRoot = new LinkedHashMap<>();
+        for (int i = 0; i < persons.size(); i++) {
+            Component component = byRoot.computeIfAbsent(find(parent, i), k -> new Component());
+            component.persons.put(persons.get(i).getId(), persons.get(i));
+            componentOfPerson.put(persons.get(i).getId(), component);
+        }
+        for (int i = 0; i < families.size(); i++) {
+            // A family with no known members at all has no component; drop it.
+            Component component = byRoot.get(find(parent, persons.size() + i));
+            if (component != null) {
+                component.families.put(families.get(i).getId(), families.get(i));
+            }
+        }
+
+        List<Component> result = new ArrayList<>(byRoot.values());
+        result.sort(Comparator.comparingInt(Component::getPersonCount).reversed());
+        for (int i = 0; i < result.size(); i++) {
+            result.get(i).rank = i + 1;
+        }
+        return result;
+    }
+
+    /** Root of a node's set, halving the path on the way up. */
+    private static int find(AtomicIntegerArray parent, int node) {
+        while (true) {
+            int p = parent.get(node);
+            if (p == node) {
+                return node;
+            }
+            int grandparent = parent.get(p);
+            // Best-effort path halving: harmless if another thread got there first.
+            parent.compareAndSet(node, p, grandparent);
+            node = grandparent;
+        }
+    }
+
+    private static void union(AtomicIntegerArray parent, int a, Integer b) {
+        if (b == null) {
+            return; // reference to a person/family that isn't in the data
+        }
+        while (true) {
+            int ra = find(parent, a);
+            int rb = find(parent, b);
+            if (ra == rb) {
+                return;
+            }
+            // Always hang the higher root under the lower one: a consistent order means
+            // two threads linking concurrently can never create a cycle.
+            int high = Math.max(ra, rb);
+            int low = Math.min(ra, rb);
+            if (parent.compareAndSet(high, high, low)) {
+                return;
+            }
+        }
+    }
+
+    /** All components, largest first. */
+    public List<Component> getComponents() {
+        return components;
+    }
+
+    /** The component containing the given person, or null if they aren't in the data. */
+    public Component componentOf(Person person) {
+        return person == null ? null : componentOfPerson.get(person.getId());
+    }
+
+    /**
+     * Write each of the {@code limit} largest components (all of them when limit is 0)
+     * to its own GEDCOM file in {@code outputDir}, named
+     * "{@code <prefix>-component-<rank>.ged}". Files are written in parallel. Returns the
+     * paths written, in rank order.
+     */
+    public List<Path> writeComponents(Path outputDir, String prefix, int limit) throws IOException {
+        int count = limit > 0 ? Math.min(limit, components.size()) : components.size();
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            paths.add(outputDir.resolve(prefix + "-component-" + (i + 1) + ".ged"));
+        }
+        try {
+            IntStream.range(0, count).parallel().forEach(i -> {
+                try {
+                    new GedcomWriter().write(components.get(i).toGedcomData(), paths.get(i).toString());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return paths;
+    }
+
+    /** One connected island of persons and the families linking them. */
+    public static class Component {
+        private final Map<String, Person> persons = new LinkedHashMap<>();
+        private final Map<String, Family> families = new LinkedHashMap<>();
+        private int rank;
+
+        /** 1 for the largest component, 2 for the next, and so on. */
+        public int getRank() { return rank; }
+        public int getPersonCount() { return persons.size(); }
+        public int getFamilyCount() { return families.size(); }
+        public Map<String, Person> getPersons() { return persons; }
+        public Map<String, Family> getFamilies() { return families; }
+
+        /**
+         * This component as its own {@link GedcomData}. The Person and Family objects
+         * (and their links) are shared with the full data set, which is safe: no link
+         * leaves the component.
+         */
+        public GedcomData toGedcomData() {
+            return new GedcomData(persons, families);
+        }
+    }
+}
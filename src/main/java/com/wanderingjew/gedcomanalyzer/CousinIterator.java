@@ -0,0 +1,126 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Lazily yields a person's cousins of one degree — the same people as
+ * {@link FamilyRelationshipAnalyzer#getCousins(Person, int)}, without building the set
+ * first. Works for any degree, not just 1-6.
+ *
+ * <p>Nth cousins are the generation-N descendants of the siblings of the person's
+ * generation-N ancestors, less the person, their siblings and any closer cousins. Rather
+ * than enumerating every closer degree up front to subtract it, each candidate is checked
+ * as it comes: they are a closer cousin exactly when one of their own generation-k
+ * ancestors (k < N) is a sibling of one of the person's generation-k ancestors. Those
+ * sibling sets are a few dozen people, so the check is cheap and the iterator only holds
+ * the walk's stack plus the candidates already seen.
+ */
+public class CousinIterator implements Iterator<Person> {
+
+    private final Person person;
+    private final int degree;
+    // siblingsOfAncestors.get(k) = siblings of the person's generation-k ancestors.
+    private final List<Set<Person>> siblingsOfAncestors = new ArrayList<>();
+    private final Iterator<Person> branches;
+    // Every candidate already judged (returned or rejected), so repeats are skipped.
+    private final Set<Person> seen = new HashSet<>();
+    // Depth-first walk down from the current branch: iterators over children per level.
+    private final Deque<Iterator<Person>> stack = new ArrayDeque<>();
+    private Person pending;
+
+    public CousinIterator(Person person, int degree) {
+        this.person = person;
+        this.degree = degree;
+        if (person == null || degree < 1) {
+            this.branches = Collections.emptyIterator();
+            return;
+        }
+        // Ancestors at each exact generation, by any line (so a collapsed ancestor counts
+        // at every generation they occur, as the nested loops in getCousins do).
+        Set<Person> generation = Collections.singleton(person);
+        siblingsOfAncestors.add(Collections.emptySet());
+        for (int k = 1; k <= degree; k++) {
+            generation = parentsOf(generation);
+            Set<Person> siblings = new LinkedHashSet<>();
+            for (Person ancestor : generation) {
+                siblings.addAll(ancestor.getSiblings());
+            }
+            siblingsOfAncestors.add(siblings);
+        }
+        this.branches = siblingsOfAncestors.get(degree).iterator();
+    }
+
+    private static Set<Person> parentsOf(Set<Person> people) {
+        Set<Person> parents = new LinkedHashSet<>();
+        for (Person p : people) {
+            parents.addAll(p.getParents());
+        }
+        return parents;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (pending == null) {
+            if (stack.isEmpty()) {
+                if (!branches.hasNext()) {
+                    return false;
+                }
+                stack.push(branches.next().getChildren().iterator());
+            }
+            Iterator<Person> level = stack.peek();
+            if (!level.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            Person child = level.next();
+            if (stack.size() < degree) {
+                stack.push(child.getChildren().iterator());
+            } else if (seen.add(child) && !isCloserRelative(child)) {
+                pending = child;
+            }
+        }
+        return true;
+    }
+
+    /** The person, one of their siblings, or a cousin of a lower degree. */
+    private boolean isCloserRelative(Person candidate) {
+        if (candidate.equals(person) || person.getSiblings().contains(candidate)) {
+            return true;
+        }
+        Set<Person> generation = Collections.singleton(candidate);
+        for (int k = 1; k < degree; k++) {
+            generation = parentsOf(generation);
+            for (Person ancestor : generation) {
+                if (siblingsOfAncestors.get(k).contains(ancestor)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Person next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Person next = pending;
+        pending = null;
+        return next;
+    }
+
+    /** A sequential, ordered stream over the remaining cousins. */
+    public Stream<Person> stream() {
+        return GenerationIterator.toStream(this);
+    }
+}
@@ -0,0 +1,73 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CLI that counts a person's cousins degree by degree out to deep degrees (12th cousins by
+ * default) using the parallel enumeration, and optionally writes them all to a
+ * tab-separated file.
+ */
+public class DeepCousins {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        String output = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--write".equals(args[i]) && i + 1 < args.length) {
+                output = args[++i];
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() < 2 || positional.size() > 3) {
+            System.out.println("Usage: DeepCousins <gedcom-files> <person-id-or-name> [max-degree] [--write cousins.tsv]");
+            System.out.println("  Counts 1st through max-degree cousins (default 12), in parallel.");
+            System.out.println("  --write: also write every cousin as: degree, id, name, life dates");
+            System.exit(1);
+        }
+        int maxDegree = positional.size() == 3 ? Integer.parseInt(positional.get(2)) : 12;
+
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(positional.get(0));
+        if (files.isEmpty()) {
+            System.out.println("Error: no GEDCOM (.ged) files found for '" + positional.get(0) + "'.");
+            System.exit(1);
+        }
+        GedcomParser parser = new GedcomParser();
+        GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+        Person person = NameIndex.resolvePerson(data, positional.get(1));
+        if (person == null) {
+            System.exit(1);
+        }
+
+        FamilyRelationshipAnalyzer analyzer = new FamilyRelationshipAnalyzer(data);
+        PrintWriter out = output == null
+                ? null : new PrintWriter(Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8));
+        try {
+            if (out != null) {
+                out.println("degree\tid\tname\tlife_dates");
+            }
+            System.out.println("Cousins of " + person + ":");
+            for (int degree = 1; degree <= maxDegree; degree++) {
+                long start = System.nanoTime();
+                List<Person> cousins = analyzer.getCousinsParallel(person, degree);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                System.out.printf("  %-14s %10d   (%d ms)%n", RelationshipNames.ordinal(degree) + " cousins", cousins.size(), millis);
+                if (out != null) {
+                    for (Person cousin : cousins) {
+                        out.println(degree + "\t" + cousin.getId() + "\t" + cousin.getDisplayName() + "\t" + cousin.getLifeDates());
+                    }
+                }
+            }
+        } finally {
+            if (out != null) {
+                out.close();
+                System.out.println("Written to: " + output);
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Counts the distinct descendants of every person in the data in a single bottom-up pass.
+ *
+ * <p>Walking down from each person separately costs O(n²) on a large tree, and in an
+ * endogamous one a naive walk counts the same descendant once per line. Instead, people
+ * are visited in reverse {@link TopologicalOrder} (children before parents) and each
+ * person's descendant set is the union of their children and their children's sets —
+ * so a descendant reached through several lines is still counted once.
+ *
+ * <p>Small sets are kept exact, as sorted arrays of topological indexes. Once a set
+ * grows past {@code exactThreshold} it is replaced by a HyperLogLog sketch, which merges
+ * with a register-wise max and estimates the union's size to within the configured
+ * relative error (standard error 1.04/√m for m registers). Children's sets are dropped as
+ * soon as their last parent has absorbed them, so memory follows the width of the tree
+ * rather than its size.
+ */
+public class DescendantCounter {
+
+    /** Sets larger than this switch from exact to a sketch. */
+    public static final int DEFAULT_EXACT_THRESHOLD = 4096;
+
+    /** Default relative standard error of sketched counts (2%: 4 KB per sketch). */
+    public static final double DEFAULT_RELATIVE_ERROR = 0.02;
+
+    private final TopologicalOrder order;
+    private final int exactThreshold;
+    private final int precision;
+    private final long[] counts;
+    private final boolean[] exact;
+
+    public DescendantCounter(GedcomData gedcomData) {
+        this(new TopologicalOrder(gedcomData), DEFAULT_EXACT_THRESHOLD, DEFAULT_RELATIVE_ERROR);
+    }
+
+    /**
+     * @param exactThreshold largest descendant set kept exactly (0 sketches everything)
+     * @param relativeError  target relative standard error for sketched counts, e.g. 0.01
+     *                       for 1%; smaller errors need more memory per sketch (2^p bytes)
+     */
+    public DescendantCounter(TopologicalOrder order, int exactThreshold, double relativeError) {
+        if (exactThreshold < 0) {
+            throw new IllegalArgumentException("exactThreshold must be >= 0, got " + exactThreshold);
+        }
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("relativeError must be between 0 and 1, got " + relativeError);
+        }
+        this.order = order;
+        this.exactThreshold = exactThreshold;
+        this.precision = precisionFor(relativeError);
+        this.counts = new long[order.size()];
+        this.exact = new boolean[order.size()];
+        compute();
+    }
+
+    /** Smallest HyperLogLog precision p whose error 1.04/√(2^p) is within the target. */
+    static int precisionFor(double relativeError) {
+        double registers = Math.pow(1.04 / relativeError, 2);
+        int p = (int) Math.ceil(Math.log(registers) / Math.log(2));
+        return Math.max(4, Math.min(18, p));
+    }
+
+    private void compute() {
+        int n = order.size();
+        Object[] sets = new Object[n];   // int[] (exact, sorted) or HyperLogLog
+        int[] unconsumed = new int[n];   // parents that haven't absorbed this set yet
+        for (int i = 0; i < n; i++) {
+            unconsumed[i] = order.getParentIndexes(i).length;
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            int[] children = order.getChildIndexes(i);
+            Object set = union(children, sets);
+            if (set instanceof int[]) {
+                counts[i] = ((int[]) set).length;
+                exact[i] = true;
+            } else {
+                counts[i] = ((HyperLogLog) set).estimate();
+            }
+            for (int child : children) {
+                if (--unconsumed[child] == 0) {
+                    sets[child] = null;
+                }
+            }
+            if (unconsumed[i] > 0) {
+                sets[i] = set;
+            }
+        }
+    }
+
+    /** Union of the given children and all their descendant sets. */
+    private Object union(int[] children, Object[] sets) {
+        if (children.length == 0) {
+            return new int[0];
+        }
+        HyperLogLog sketch = null;
+        int exactSize = children.length;
+        for (int child : children) {
+            if (sets[child] instanceof HyperLogLog) {
+                if (sketch == null) {
+                    sketch = new HyperLogLog(precision);
+                }
+                sketch.merge((HyperLogLog) sets[child]);
+            } else {
+                exactSize += ((int[]) sets[child]).length;
+            }
+        }
+
+        if (sketch == null) {
+            int[] merged = new int[exactSize];
+            int size = 0;
+            for (int child : children) {
+                merged[size++] = child;
+                int[] childSet = (int[]) sets[child];
+                System.arraycopy(childSet, 0, merged, size, childSet.length);
+                size += childSet.length;
+            }
+            Arrays.sort(merged);
+            int distinct = 0;
+            for (int k = 0; k < merged.length; k++) {
+                if (k == 0 || merged[k] != merged[k - 1]) {
+                    merged[distinct++] = merged[k];
+                }
+            }
+            if (distinct <= exactThreshold) {
+                return distinct == merged.length ? merged : Arrays.copyOf(merged, distinct);
+            }
+            sketch = new HyperLogLog(precision);
+            for (int k = 0; k < distinct; k++) {
+                sketch.add(merged[k]);
+            }
+            return sketch;
+        }
+
+        for (int child : children) {
+            sketch.add(child);
+            if (sets[child] instanceof int[]) {
+                for (int descendant : (int[]) sets[child]) {
+                    sketch.add(descendant);
+                }
+            }
+        }
+        return sketch;
+    }
+
+    /** Number of distinct descendants of a person (estimated when {@link #isExact} is false). */
+    public long getCount(Person person) {
+        Integer index = order.indexOf(person);
+        return index == null ? 0 : counts[index];
+    }
+
+    /** Whether a person's count is exact rather than a sketch estimate. */
+    public boolean isExact(Person person) {
+        Integer index = order.indexOf(person);
+        return index == null || exact[index];
+    }
+
+    /** The actual relative standard error of sketched counts, 1.04/√(2^p). */
+    public double getRelativeError() {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    /** Largest descendant set kept exactly. */
+    public int getExactThreshold() {
+        return exactThreshold;
+    }
+
+    /** The {@code limit} people with the most distinct descendants across the whole tree. */
+    public List<Person> getMostProlific(int limit) {
+        return rank(order.getPersons(), limit);
+    }
+
+    /**
+     * The given people ordered by distinct descendant count, most first (ties by ID),
+     * keeping at most {@code limit} (all when limit is 0) and dropping those with none.
+     */
+    public List<Person> rank(Iterable<Person> people, int limit) {
+        List<Person> ranked = new ArrayList<>();
+        for (Person person : people) {
+            if (getCount(person) > 0) {
+                ranked.add(person);
+            }
+        }
+        ranked.sort(Comparator.comparingLong(this::getCount).reversed().thenComparing(Person::getId));
+        return limit > 0 && ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    /**
+     * Minimal HyperLogLog over topological indexes: 2^p one-byte registers, each holding
+     * the longest run of leading zeros (plus one) seen among the hashes routed to it.
+     */
+    private static final class HyperLogLog {
+        private final int p;
+        private final byte[] registers;
+
+        HyperLogLog(int p) {
+            this.p = p;
+            this.registers = new byte[1 << p];
+        }
+
+        void add(int value) {
+            long hash = mix(value);
+            int register = (int) (hash >>> (64 - p));
+            // The sentinel bit caps the rank at 64 - p + 1 when the remaining bits are all 0.
+            int rank = Long.numberOfLeadingZeros((hash << p) | (1L << (p - 1))) + 1;
+            if (rank > registers[register]) {
+                registers[register] = (byte) rank;
+            }
+        }
+
+        void merge(HyperLogLog other) {
+            for (int i = 0; i < registers.length; i++) {
+                if (other.registers[i] > registers[i]) {
+                    registers[i] = other.registers[i];
+                }
+            }
+        }
+
+        long estimate() {
+            int m = registers.length;
+            double sum = 0;
+            int zeros = 0;
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+            double alpha = 0.7213 / (1 + 1.079 / m);
+            double estimate = alpha * m * m / sum;
+            if (estimate <= 2.5 * m && zeros > 0) {
+                // Small-range correction: linear counting is more accurate here.
+                estimate = m * Math.log((double) m / zeros);
+            }
+            return Math.round(estimate);
+        }
+
+        /** SplitMix64 finalizer: spreads consecutive indexes over all 64 bits. */
+        private static long mix(int value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
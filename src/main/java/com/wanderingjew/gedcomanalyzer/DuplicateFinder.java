@@ -0,0 +1,501 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import org.apache.commons.codec.language.DaitchMokotoffSoundex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Finds people who are probably the same person entered twice under different IDs — the
+ * usual result of merging exports from several sources, which
+ * {@link GedcomParser#parseMultipleFiles} only dedupes when the IDs are identical. Left
+ * alone, such duplicates split one ancestor's descendants into two lines and hide
+ * cousins.
+ *
+ * <p>Comparing every pair is out of the question on large data, so people are first put
+ * into blocks by cheap keys, and only pairs sharing a block are scored. Two blocking
+ * passes are used, each keyed on the surname's Daitch–Mokotoff code and a five-year
+ * birth bucket:
+ * <ul>
+ *   <li>plus the first part of the birth place ("vilna"), and</li>
+ *   <li>plus the given name's Daitch–Mokotoff code, which catches the same person recorded
+ *       with differently written places, or with a place in one source only.</li>
+ * </ul>
+ * Everyone is filed under both buckets within two years of their birth year, so a year's
+ * disagreement across a bucket boundary doesn't separate them. Blocks larger than
+ * {@link #MAX_BLOCK_SIZE} (a very common name with no distinguishing place) are skipped
+ * and counted rather than scored quadratically.
+ *
+ * <p>People missing a key part still need comparing, above all with the fuller record of
+ * themselves. So there are fallback blocks with that part left out — surname and place or
+ * given name, any year; given name, sex and birth bucket, any surname; given name and sex
+ * alone — which everyone with the remaining parts joins, but in which only pairs with at
+ * least one member missing the part are scored. A fallback block is skipped and counted
+ * when that would mean more pairs than a full {@link #MAX_BLOCK_SIZE} block.
+ *
+ * <p>Candidate pairs are scored in parallel on given name and surname (exact,
+ * sound-alike or initial/prefix), birth and death years, birth and death places, and
+ * parents' names. Features one side doesn't record count as neutral. A sex mismatch,
+ * given names with nothing alike, or birth years more than {@link #MAX_YEAR_GAP} apart
+ * rule a pair out, as do spouses, and parents and children of each other. Scores run from
+ * 0 to 1; a pair agreeing on everything both sides record, with a few gaps, scores
+ * around 0.8.
+ */
+public class DuplicateFinder {
+
+    /** Blocks bigger than this are skipped rather than compared pairwise. */
+    public static final int MAX_BLOCK_SIZE = 300;
+
+    /** Birth (or death) years further apart than this rule a pair out. */
+    public static final int MAX_YEAR_GAP = 5;
+
+    // Fallback blocks, by the part their incomplete members lack (see blockingKeys).
+    private static final String NO_YEAR = "y";
+    private static final String NO_SURNAME = "s";
+    private static final String NO_SURNAME_OR_YEAR = "b";
+    private static final long MAX_BLOCK_PAIRS = (long) MAX_BLOCK_SIZE * (MAX_BLOCK_SIZE - 1) / 2;
+
+    private static final int YEAR_BUCKET = 5;
+    private static final int YEAR_SLACK = 2;
+
+    private static final double NAME_WEIGHT = 0.35;
+    private static final double BIRTH_WEIGHT = 0.20;
+    private static final double DEATH_WEIGHT = 0.10;
+    private static final double PLACE_WEIGHT = 0.15;
+    private static final double PARENT_WEIGHT = 0.20;
+    // Score for a feature only one side records: slightly favourable, since a pair only
+    // gets scored after agreeing on surname sound and birth period.
+    private static final double NEUTRAL = 0.6;
+
+    private final Person[] persons;
+    private final Profile[] profiles;
+    private final Map<Person, Integer> ordinals = new HashMap<>();
+    private final DaitchMokotoffSoundex soundex = new DaitchMokotoffSoundex();
+    // Shared by the parallel scorers.
+    private final Map<String, List<String>> codeCache = new ConcurrentHashMap<>();
+    private int skippedBlocks;
+    private long comparedPairs;
+
+    public DuplicateFinder(GedcomData gedcomData) {
+        this.persons = gedcomData.getPersons().values().toArray(new Person[0]);
+        this.profiles = new Profile[persons.length];
+        for (int i = 0; i < persons.length; i++) {
+            profiles[i] = new Profile(persons[i]);
+            ordinals.put(persons[i], i);
+        }
+    }
+
+    /** Candidate pairs scoring at least {@code minScore}, best first. */
+    public List<Candidate> findCandidates(double minScore) {
+        long[] pairs = candidatePairs();
+        comparedPairs = pairs.length;
+        List<Candidate> candidates = Arrays.stream(pairs).parallel()
+                .mapToObj(pair -> {
+                    int a = (int) (pair >>> 32);
+                    int b = (int) pair;
+                    double score = score(profiles[a], profiles[b]);
+                    return score >= minScore ? new Candidate(persons[a], persons[b], score) : null;
+                })
+                .filter(c -> c != null)
+                .collect(Collectors.toList());
+        candidates.sort(Comparator.comparingDouble(Candidate::getScore).reversed()
+                .thenComparing(c -> c.getFirst().getId())
+                .thenComparing(c -> c.getSecond().getId()));
+        return candidates;
+    }
+
+    /** Blocks skipped by the last {@link #findCandidates} for exceeding {@link #MAX_BLOCK_SIZE}. */
+    public int getSkippedBlocks() {
+        return skippedBlocks;
+    }
+
+    /** Distinct pairs scored by the last {@link #findCandidates}. */
+    public long getComparedPairs() {
+        return comparedPairs;
+    }
+
+    /** Distinct pairs sharing at least one block, as (lower ordinal << 32 | higher ordinal). */
+    private long[] candidatePairs() {
+        Map<String, List<Integer>> blocks = new HashMap<>();
+        for (int i = 0; i < persons.length; i++) {
+            for (String key : blockingKeys(profiles[i])) {
+                blocks.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        skippedBlocks = 0;
+        Set<Long> pairs = new HashSet<>();
+        for (Map.Entry<String, List<Integer>> entry : blocks.entrySet()) {
+            List<Integer> block = entry.getValue();
+            String kind = entry.getKey().substring(0, 1);
+            if (kind.equals("p") || kind.equals("g")) {
+                if (block.size() > MAX_BLOCK_SIZE) {
+                    skippedBlocks++;
+                    continue;
+                }
+                for (int x = 0; x < block.size(); x++) {
+                    for (int y = x + 1; y < block.size(); y++) {
+                        addPair(pairs, block.get(x), block.get(y));
+                    }
+                }
+                continue;
+            }
+            List<Integer> incomplete = new ArrayList<>();
+            for (int i : block) {
+                if (lacks(profiles[i], kind)) {
+                    incomplete.add(i);
+                }
+            }
+            if (incomplete.isEmpty()) {
+                continue;
+            }
+            if ((long) incomplete.size() * (block.size() - 1) > MAX_BLOCK_PAIRS) {
+                skippedBlocks++;
+                continue;
+            }
+            for (int x : incomplete) {
+                for (int y : block) {
+                    if (x != y) {
+                        addPair(pairs, x, y);
+                    }
+                }
+            }
+        }
+        return pairs.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static void addPair(Set<Long> pairs, int x, int y) {
+        pairs.add(((long) Math.min(x, y) << 32) | Math.max(x, y));
+    }
+
+    /** Whether {@code p} lacks the part a fallback block of this kind leaves out. */
+    private static boolean lacks(Profile p, String kind) {
+        switch (kind) {
+            case NO_YEAR: return p.birthYear == null;
+            case NO_SURNAME: return p.surnames.isEmpty();
+            default: return p.birthYear == null && p.surnames.isEmpty();
+        }
+    }
+
+    private Set<String> blockingKeys(Profile p) {
+        Set<String> keys = new LinkedHashSet<>();
+        Set<String> buckets = new LinkedHashSet<>();
+        if (p.birthYear != null) {
+            buckets.add(String.valueOf(Math.floorDiv(p.birthYear - YEAR_SLACK, YEAR_BUCKET)));
+            buckets.add(String.valueOf(Math.floorDiv(p.birthYear + YEAR_SLACK, YEAR_BUCKET)));
+        }
+        Set<String> givenCodes = new LinkedHashSet<>();
+        for (String word : p.given) {
+            givenCodes.addAll(codes(word));
+        }
+        for (String surname : p.surnames) {
+            for (String code : codes(surname)) {
+                for (String bucket : buckets) {
+                    if (p.birthPlace != null) {
+                        keys.add("p|" + code + "|" + bucket + "|" + p.birthPlace);
+                    }
+                    for (String given : givenCodes) {
+                        keys.add("g|" + code + "|" + bucket + "|" + given);
+                    }
+                }
+                // Any year, for comparing against people whose birth year is unknown.
+                if (p.birthPlace != null) {
+                    keys.add(NO_YEAR + "|" + code + "|p|" + p.birthPlace);
+                }
+                for (String given : givenCodes) {
+                    keys.add(NO_YEAR + "|" + code + "|g|" + given);
+                }
+            }
+        }
+        // Any surname, for comparing against people recorded without one. Sex stands in
+        // for the surname in narrowing the block; unknown sex joins both.
+        List<String> sexes = p.person.isMale() ? Arrays.asList("M")
+                : p.person.isFemale() ? Arrays.asList("F") : Arrays.asList("M", "F");
+        for (String sex : sexes) {
+            for (String given : givenCodes) {
+                for (String bucket : buckets) {
+                    keys.add(NO_SURNAME + "|" + sex + "|" + bucket + "|" + given);
+                }
+                keys.add(NO_SURNAME_OR_YEAR + "|" + sex + "|" + given);
+            }
+        }
+        return keys;
+    }
+
+    private List<String> codes(String word) {
+        return codeCache.computeIfAbsent(word, w -> {
+            List<String> codes = new ArrayList<>();
+            for (String code : soundex.soundex(w).split("\\|")) {
+                if (!code.isEmpty() && !code.equals("000000")) {
+                    codes.add(code);
+                }
+            }
+            if (codes.isEmpty()) {
+                codes.add(w); // non-Latin: block on the word itself
+            }
+            return codes;
+        });
+    }
+
+    /** Likelihood in [0, 1] that two people are the same person. */
+    private double score(Profile a, Profile b) {
+        Person pa = a.person;
+        Person pb = b.person;
+        if ((pa.isMale() && pb.isFemale()) || (pa.isFemale() && pb.isMale())) {
+            return 0;
+        }
+        if (pa.getSpouses().contains(pb) || pa.getParents().contains(pb) || pb.getParents().contains(pa)) {
+            return 0;
+        }
+        if (yearGap(a.birthYear, b.birthYear) > MAX_YEAR_GAP || yearGap(a.deathYear, b.deathYear) > MAX_YEAR_GAP) {
+            return 0;
+        }
+        double given = wordsSimilarity(a.given, b.given);
+        if (given == 0) {
+            return 0; // both have given names, and nothing alike
+        }
+        double surname = wordsSimilarity(a.surnames, b.surnames);
+        double name = (given + surname) / 2;
+        double places = average(placeSimilarity(a.birthPlace, b.birthPlace),
+                placeSimilarity(a.deathPlace, b.deathPlace));
+        return NAME_WEIGHT * name
+                + BIRTH_WEIGHT * yearSimilarity(a.birthYear, b.birthYear)
+                + DEATH_WEIGHT * yearSimilarity(a.deathYear, b.deathYear)
+                + PLACE_WEIGHT * places
+                + PARENT_WEIGHT * parentSimilarity(pa, pb);
+    }
+
+    private static int yearGap(Integer a, Integer b) {
+        return a == null || b == null ? 0 : Math.abs(a - b);
+    }
+
+    private static double yearSimilarity(Integer a, Integer b) {
+        if (a == null || b == null) {
+            return NEUTRAL;
+        }
+        return Math.max(0, 1 - Math.abs(a - b) * 0.2);
+    }
+
+    private static double placeSimilarity(String a, String b) {
+        if (a == null || b == null) {
+            return NEUTRAL;
+        }
+        return a.equals(b) ? 1 : 0;
+    }
+
+    private static double average(double a, double b) {
+        return (a + b) / 2;
+    }
+
+    /** Best match of each word on the shorter side against the other side, averaged. */
+    private double wordsSimilarity(List<String> a, List<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return NEUTRAL;
+        }
+        List<String> shorter = a.size() <= b.size() ? a : b;
+        List<String> longer = shorter == a ? b : a;
+        double sum = 0;
+        for (String x : shorter) {
+            double best = 0;
+            for (String y : longer) {
+                best = Math.max(best, wordSimilarity(x, y));
+            }
+            sum += best;
+        }
+        return sum / shorter.size();
+    }
+
+    /** 1 for the same word, 0.8 for sound-alikes, 0.6 for an initial or prefix, else 0. */
+    private double wordSimilarity(String x, String y) {
+        if (x.equals(y)) {
+            return 1;
+        }
+        for (String code : codes(x)) {
+            if (codes(y).contains(code)) {
+                return 0.8;
+            }
+        }
+        if (x.startsWith(y) || y.startsWith(x)) {
+            return 0.6;
+        }
+        return 0;
+    }
+
+    /** The same parents count fully; otherwise each parent's best name match, averaged. */
+    private double parentSimilarity(Person a, Person b) {
+        List<Person> pa = a.getParents();
+        List<Person> pb = b.getParents();
+        if (pa.isEmpty() || pb.isEmpty()) {
+            return NEUTRAL;
+        }
+        List<Person> shorter = pa.size() <= pb.size() ? pa : pb;
+        List<Person> longer = shorter == pa ? pb : pa;
+        double sum = 0;
+        for (Person x : shorter) {
+            double best = 0;
+            for (Person y : longer) {
+                if (x.equals(y)) {
+                    best = 1;
+                    break;
+                }
+                if ((x.isMale() && y.isFemale()) || (x.isFemale() && y.isMale())) {
+                    continue;
+                }
+                Profile px = profileOf(x);
+                Profile py = profileOf(y);
+                best = Math.max(best, (wordsSimilarity(px.given, py.given) + wordsSimilarity(px.surnames, py.surnames)) / 2);
+            }
+            sum += best;
+        }
+        return sum / shorter.size();
+    }
+
+    private Profile profileOf(Person person) {
+        Integer ordinal = ordinals.get(person);
+        return ordinal != null ? profiles[ordinal] : new Profile(person);
+    }
+
+    /**
+     * Group pairs scoring at least {@code minScore} into clusters of the same person
+     * (transitively: if A matches B and B matches C, all three are one), and pick who to
+     * keep in each: whoever has the most recorded — dates, places, parents, children,
+     * spouses — then the lowest ID. Each returned entry maps a person to merge away to the
+     * one to keep.
+     */
+    public List<MergeStep> mergePlan(List<Candidate> candidates, double minScore) {
+        Map<Person, Person> parent = new HashMap<>();
+        for (Candidate c : candidates) {
+            if (c.getScore() >= minScore) {
+                Person ra = root(parent, c.getFirst());
+                Person rb = root(parent, c.getSecond());
+                if (!ra.equals(rb)) {
+                    parent.put(ra, rb);
+                }
+            }
+        }
+        Map<Person, List<Person>> clusters = new LinkedHashMap<>();
+        for (Person p : parent.keySet()) {
+            clusters.computeIfAbsent(root(parent, p), r -> new ArrayList<>()).add(p);
+        }
+        Map<String, Double> bestScore = new HashMap<>();
+        for (Candidate c : candidates) {
+            bestScore.merge(c.getFirst().getId(), c.getScore(), Math::max);
+            bestScore.merge(c.getSecond().getId(), c.getScore(), Math::max);
+        }
+        List<MergeStep> plan = new ArrayList<>();
+        for (Map.Entry<Person, List<Person>> cluster : clusters.entrySet()) {
+            List<Person> members = new ArrayList<>(cluster.getValue());
+            members.add(cluster.getKey());
+            members.sort(Comparator.comparingInt(DuplicateFinder::completeness).reversed()
+                    .thenComparing(Person::getId));
+            Person keep = members.get(0);
+            for (Person drop : members.subList(1, members.size())) {
+                plan.add(new MergeStep(keep, drop, bestScore.getOrDefault(drop.getId(), 0.0)));
+            }
+        }
+        plan.sort(Comparator.comparing((MergeStep s) -> s.getKeep().getId()).thenComparing(s -> s.getMerge().getId()));
+        return plan;
+    }
+
+    private static Person root(Map<Person, Person> parent, Person p) {
+        Person r = p;
+        while (parent.containsKey(r)) {
+            r = parent.get(r);
+        }
+        return r;
+    }
+
+    private static int completeness(Person p) {
+        int n = 0;
+        for (String field : new String[]{p.getGivenName(), p.getSurname(), p.getBirthDate(), p.getBirthPlace(),
+                p.getDeathDate(), p.getDeathPlace(), p.getSex()}) {
+            if (field != null && !field.trim().isEmpty()) {
+                n++;
+            }
+        }
+        return n + p.getParents().size() + p.getChildren().size() + p.getSpouses().size();
+    }
+
+    /** Folded name words, years and place tokens of one person, computed once. */
+    private static final class Profile {
+        final Person person;
+        final List<String> given;
+        final List<String> surnames;
+        final Integer birthYear;
+        final Integer deathYear;
+        final String birthPlace;
+        final String deathPlace;
+
+        Profile(Person person) {
+            this.person = person;
+            this.given = new ArrayList<>(person.getGivenName() == null
+                    ? Set.of() : NameIndex.fold(person.getGivenName()));
+            Set<String> surnames = new LinkedHashSet<>();
+            if (person.getSurname() != null && !person.getSurname().trim().equalsIgnoreCase("NN")) {
+                surnames.addAll(NameIndex.fold(person.getSurname()));
+            }
+            if (person.getMarriedName() != null) {
+                surnames.addAll(NameIndex.fold(person.getMarriedName()));
+            }
+            this.surnames = new ArrayList<>(surnames);
+            this.birthYear = person.getBirthYear();
+            this.deathYear = person.getDeathYear();
+            this.birthPlace = placeToken(person.getBirthPlace());
+            this.deathPlace = placeToken(person.getDeathPlace());
+        }
+
+        /** The first comma-separated part of a place, folded: "Vilna, Lithuania" -> "vilna". */
+        private static String placeToken(String place) {
+            if (place == null) {
+                return null;
+            }
+            String first = place.split(",", 2)[0];
+            String token = String.join(" ", NameIndex.fold(first));
+            return token.isEmpty() ? null : token;
+        }
+    }
+
+    /** Two people who may be the same, and how likely. */
+    public static class Candidate {
+        private final Person first;
+        private final Person second;
+        private final double score;
+
+        Candidate(Person first, Person second, double score) {
+            this.first = first;
+            this.second = second;
+            this.score = score;
+        }
+
+        public Person getFirst() { return first; }
+        public Person getSecond() { return second; }
+        public double getScore() { return score; }
+    }
+
+    /** One step of a merge plan: fold {@code merge} into {@code keep}. */
+    public static class MergeStep {
+        private final Person keep;
+        private final Person merge;
+        private final double score;
+
+        MergeStep(Person keep, Person merge, double score) {
+            this.keep = keep;
+            this.merge = merge;
+            this.score = score;
+        }
+
+        public Person getKeep() { return keep; }
+        public Person getMerge() { return merge; }
+        /** The best score linking {@code merge} to anyone in its cluster. */
+        public double getScore() { return score; }
+    }
+}
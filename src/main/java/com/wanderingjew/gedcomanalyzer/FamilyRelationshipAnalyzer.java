@@ -1,16 +1,95 @@
 package com.wanderingjew.gedcomanalyzer;
 
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Analyzes family relationships in GEDCOM data.
  */
 public class FamilyRelationshipAnalyzer {
     private GedcomData gedcomData;
+    // Built on first use: computing the topological order costs a pass over everyone.
+    private TopologicalOrder topologicalOrder;
+    private KinshipCalculator kinshipCalculator;
+    private DescendantCounter descendantCounter;
     
     public FamilyRelationshipAnalyzer(GedcomData gedcomData) {
         this.gedcomData = gedcomData;
     }
+
+    /**
+     * The parents-before-children order of this data, shared by the analyses built on it.
+     */
+    public synchronized TopologicalOrder getTopologicalOrder() {
+        if (topologicalOrder == null) {
+            topologicalOrder = new TopologicalOrder(gedcomData);
+        }
+        return topologicalOrder;
+    }
+
+    /**
+     * The shared kinship calculator for this data, so its memo is reused across queries.
+     */
+    public synchronized KinshipCalculator getKinshipCalculator() {
+        if (kinshipCalculator == null) {
+            kinshipCalculator = new KinshipCalculator(getTopologicalOrder());
+        }
+        return kinshipCalculator;
+    }
+
+    /**
+     * Distinct descendant counts for everyone, computed in one pass on first use with the
+     * default exact threshold and error bound — see {@link DescendantCounter}.
+     */
+    public synchronized DescendantCounter getDescendantCounter() {
+        if (descendantCounter == null) {
+            FlightEvents.Query event = FlightEvents.Query.start("descendant counts", null);
+            descendantCounter = new DescendantCounter(getTopologicalOrder(),
+                    DescendantCounter.DEFAULT_EXACT_THRESHOLD, DescendantCounter.DEFAULT_RELATIVE_ERROR);
+            event.finish(gedcomData.getPersonCount());
+        }
+        return descendantCounter;
+    }
+
+    /**
+     * Get the number of distinct descendants of a person; a descendant reached through
+     * several lines counts once. Estimated for very large descendancies.
+     */
+    public long getDistinctDescendantCount(Person person) {
+        return getDescendantCounter().getCount(person);
+    }
+
+    /**
+     * Get the kinship coefficient (φ) between two people — see {@link KinshipCalculator}.
+     */
+    public double getKinshipCoefficient(Person person1, Person person2) {
+        FlightEvents.Query event = FlightEvents.Query.start("kinship", person1);
+        double kinship = getKinshipCalculator().kinship(person1, person2);
+        event.finish(-1);
+        return kinship;
+    }
+
+    /**
+     * Get the inbreeding coefficient (F) of a person — the kinship of their parents.
+     */
+    public double getInbreedingCoefficient(Person person) {
+        FlightEvents.Query event = FlightEvents.Query.start("inbreeding", person);
+        double inbreeding = getKinshipCalculator().inbreeding(person);
+        event.finish(-1);
+        return inbreeding;
+    }
+
+    /**
+     * The inbreeding coefficient (F) of everyone in the data, computed in parallel through
+     * the shared kinship calculator — see {@link KinshipCalculator#inbreedingForAll()}.
+     */
+    public Map<Person, Double> getInbreedingForAll() {
+        FlightEvents.Query event = FlightEvents.Query.start("inbreeding for all", null);
+        Map<Person, Double> inbreeding = getKinshipCalculator().inbreedingForAll();
+        event.finish(inbreeding.size());
+        return inbreeding;
+    }
     
     /**
      * Get all ancestors of a person (parents, grandparents, etc.).
@@ -25,8 +104,10 @@ public class FamilyRelationshipAnalyzer {
      * Get ancestors up to a specific generation.
      */
     public List<Person> getAncestors(Person person, int maxGenerations) {
+        FlightEvents.Query event = FlightEvents.Query.start("ancestors", person);
         Set<Person> ancestors = new HashSet<>();
         getAncestorsRecursive(person, ancestors, maxGenerations);
+        event.finish(ancestors.size());
         return new ArrayList<>(ancestors);
     }
     
@@ -59,8 +140,10 @@ public class FamilyRelationshipAnalyzer {
      * Get descendants up to a specific generation.
      */
     public List<Person> getDescendants(Person person, int maxGenerations) {
+        FlightEvents.Query event = FlightEvents.Query.start("descendants", person);
         Set<Person> descendants = new HashSet<>();
         getDescendantsRecursive(person, descendants, maxGenerations);
+        event.finish(descendants.size());
         return new ArrayList<>(descendants);
     }
     
@@ -80,6 +163,32 @@ public class FamilyRelationshipAnalyzer {
         }
     }
     
+    /**
+     * Stream a person's ancestors lazily, parents first, each once at their shallowest
+     * generation. Nothing beyond what the caller consumes is visited, so
+     * {@code streamAncestors(p, 0).limit(50)} is cheap and {@code .count()} doesn't build
+     * a list. {@code maxGenerations} of 0 means no limit.
+     */
+    public Stream<Person> streamAncestors(Person person, int maxGenerations) {
+        return GenerationIterator.ancestors(person, maxGenerations).stream();
+    }
+
+    /**
+     * Stream a person's descendants lazily, children first — see {@link #streamAncestors}.
+     */
+    public Stream<Person> streamDescendants(Person person, int maxGenerations) {
+        return GenerationIterator.descendants(person, maxGenerations).stream();
+    }
+
+    /**
+     * Stream a person's cousins of a given degree lazily; the same people as
+     * {@link #getCousins(Person, int)}, but for any degree, and without building the full
+     * set before returning the first one. See {@link CousinIterator}.
+     */
+    public Stream<Person> streamCousins(Person person, int degree) {
+        return new CousinIterator(person, degree).stream();
+    }
+
     /**
      * Get siblings of a person.
      */
@@ -277,9 +386,18 @@ public class FamilyRelationshipAnalyzer {
     }
     
     /**
-     * Get cousins of a specific degree (1-6).
+     * Get cousins of a specific degree. Degrees 1-6 use the nested loops above; deeper
+     * degrees go to {@link #getCousinsParallel}.
      */
     public List<Person> getCousins(Person person, int degree) {
+        FlightEvents.Query event = FlightEvents.Query.start("cousins", person);
+        event.degree = degree;
+        List<Person> cousins = findCousins(person, degree);
+        event.finish(cousins.size());
+        return cousins;
+    }
+
+    private List<Person> findCousins(Person person, int degree) {
         switch (degree) {
             case 1: return getFirstCousins(person);
             case 2: return getSecondCousins(person);
@@ -287,9 +405,18 @@ public class FamilyRelationshipAnalyzer {
             case 4: return getFourthCousins(person);
             case 5: return getFifthCousins(person);
             case 6: return getSixthCousins(person);
-            default: return new ArrayList<>();
+            default: return degree > 6 ? getCousinsParallel(person, degree) : new ArrayList<>();
         }
     }
+
+    /**
+     * Get cousins of any degree with a parallel fork/join walk — meant for the deep
+     * degrees (7th-12th cousins) that run to hundreds of thousands of people. Sorted by
+     * ID, so the result doesn't depend on thread scheduling. See {@link ParallelCousinFinder}.
+     */
+    public List<Person> getCousinsParallel(Person person, int degree) {
+        return new ParallelCousinFinder().findCousins(person, degree);
+    }
     
     /**
      * Get all cousins up to a specific degree.
@@ -309,8 +436,20 @@ public class FamilyRelationshipAnalyzer {
      * Returns a map where the key is the parent family ID and the value is a list of cousins from that family.
      */
     public Map<String, List<Person>> getCousinsGroupedByFamily(Person person, int degree) {
-        Map<String, List<Person>> groupedCousins = new HashMap<>();
-        
+        FlightEvents.Query event = FlightEvents.Query.start("cousins by family", person);
+        event.degree = degree;
+        Map<String, List<Person>> grouped = findCousinsGroupedByFamily(person, degree);
+        if (event.shouldCommit()) {
+            int count = 0;
+            for (List<Person> cousins : grouped.values()) {
+                count += cousins.size();
+            }
+            event.finish(count);
+        }
+        return grouped;
+    }
+
+    private Map<String, List<Person>> findCousinsGroupedByFamily(Person person, int degree) {
         switch (degree) {
             case 1:
                 return getFirstCousinsGroupedByFamily(person);
@@ -619,6 +758,52 @@ public class FamilyRelationshipAnalyzer {
         return -1; // No relationship found
     }
     
+    /**
+     * Find the shortest connecting path between two people over parent, child and spouse
+     * links (so in-laws are found too), with spouse hops costing {@code spouseCost}
+     * relative to a parent/child hop. Returns null if they aren't connected.
+     */
+    public RelationshipPathFinder.RelationshipPath findRelationshipPath(Person person1, Person person2, int spouseCost) {
+        FlightEvents.Query event = FlightEvents.Query.start("relationship path", person1);
+        RelationshipPathFinder finder = new RelationshipPathFinder();
+        finder.setSpouseCost(spouseCost);
+        RelationshipPathFinder.RelationshipPath path = finder.findPath(person1, person2);
+        event.finish(-1);
+        return path;
+    }
+
+    /**
+     * Get pedigree completeness and collapse for a person — ahnentafel slot counts per
+     * generation and each ancestor's slots. See {@link PedigreeAnalysis}.
+     */
+    public PedigreeAnalysis getPedigreeAnalysis(Person person) {
+        FlightEvents.Query event = FlightEvents.Query.start("pedigree", person);
+        PedigreeAnalysis pedigree = new PedigreeAnalysis(person);
+        event.finish(pedigree.getAncestors().size());
+        return pedigree;
+    }
+
+    /**
+     * Label everyone connected to a root person with their relationship to them, in one
+     * traversal of the whole tree — see {@link RelationshipLabeller}.
+     */
+    public RelationshipLabeller getRelationshipLabeller(Person root) {
+        return new RelationshipLabeller(gedcomData, root);
+    }
+
+    /**
+     * Get a person's k nearest blood relatives of any kind, nearest first, counting only
+     * those the filter accepts (e.g. {@link Person#isPresumedLiving()}) — see
+     * {@link NearestRelativeFinder}.
+     */
+    public List<NearestRelativeFinder.Relative> getNearestRelatives(Person person, int k,
+                                                                     Predicate<Person> filter) {
+        FlightEvents.Query event = FlightEvents.Query.start("nearest relatives", person);
+        List<NearestRelativeFinder.Relative> relatives = new NearestRelativeFinder(person).find(k, filter);
+        event.finish(relatives.size());
+        return relatives;
+    }
+
     /**
      * Get ancestors grouped by generation.
      * Returns a map where the key is the generation number (1 = parents, 2 = grandparents, etc.)
@@ -637,6 +822,29 @@ public class FamilyRelationshipAnalyzer {
         return groupByGeneration(person, false);
     }
 
+    /**
+     * Walk the ancestors once, feeding each (person, generation) to every visitor — for
+     * callers that need several things from the same ancestors (lists, map points,
+     * statistics) without walking the graph once per thing. See {@link GenerationWalk}.
+     */
+    public void walkAncestors(Person person, GenerationWalk.Visitor... visitors) {
+        run("ancestor walk", person, GenerationWalk.ancestors(person), visitors);
+    }
+
+    /** Walk the descendants once, feeding every visitor; see {@link #walkAncestors}. */
+    public void walkDescendants(Person person, GenerationWalk.Visitor... visitors) {
+        run("descendant walk", person, GenerationWalk.descendants(person), visitors);
+    }
+
+    private static void run(String query, Person person, GenerationWalk walk, GenerationWalk.Visitor... visitors) {
+        FlightEvents.Query event = FlightEvents.Query.start(query, person);
+        for (GenerationWalk.Visitor visitor : visitors) {
+            walk.with(visitor);
+        }
+        walk.run();
+        event.finish(-1);
+    }
+
     /**
      * Group ancestors (or descendants) by generation using breadth-first search, so each
      * person is first reached at their SHALLOWEST generation — their closest relationship.
@@ -646,30 +854,12 @@ public class FamilyRelationshipAnalyzer {
      * relationship (a DFS with a global visited set gets this wrong).
      */
     private Map<Integer, List<Person>> groupByGeneration(Person person, boolean ancestors) {
-        Map<Integer, List<Person>> result = new HashMap<>();
-        if (person == null) {
-            return result;
-        }
-        Set<Person> expanded = new HashSet<>();
-        expanded.add(person);
-        List<Person> frontier = new ArrayList<>();
-        frontier.add(person);
-
-        int generation = 0;
-        while (!frontier.isEmpty()) {
-            List<Person> next = new ArrayList<>();
-            for (Person p : frontier) {
-                List<Person> step = ancestors ? p.getParents() : p.getChildren();
-                for (Person relative : step) {
-                    result.computeIfAbsent(generation + 1, k -> new ArrayList<>()).add(relative);
-                    if (expanded.add(relative)) {
-                        next.add(relative);
-                    }
-                }
-            }
-            frontier = next;
-            generation++;
+        GenerationWalk.ByGeneration byGeneration = new GenerationWalk.ByGeneration();
+        if (ancestors) {
+            walkAncestors(person, byGeneration);
+        } else {
+            walkDescendants(person, byGeneration);
         }
-        return result;
+        return byGeneration.getByGeneration();
     }
 } 
\ No newline at end of file
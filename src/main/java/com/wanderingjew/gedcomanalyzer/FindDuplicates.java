@@ -0,0 +1,93 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CLI that lists people who are probably duplicates of each other — the same person under
+ * different IDs, typically from merging exports of several sources — ranked by likelihood,
+ * and optionally writes a merge plan saying which ID to keep for each cluster of
+ * duplicates.
+ */
+public class FindDuplicates {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        double minScore = 0.6;
+        double mergeScore = 0.8;
+        String planFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--min-score".equals(args[i]) && i + 1 < args.length) {
+                minScore = Double.parseDouble(args[++i]);
+            } else if ("--merge-plan".equals(args[i]) && i + 1 < args.length) {
+                planFile = args[++i];
+            } else if ("--merge-score".equals(args[i]) && i + 1 < args.length) {
+                mergeScore = Double.parseDouble(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.isEmpty() || positional.size() > 2) {
+            System.out.println("Usage: FindDuplicates <gedcom-files> [output.tsv] [--min-score 0.6] [--merge-plan plan.tsv] [--merge-score 0.8]");
+            System.out.println("  Lists likely duplicate persons (same person, different IDs), best first.");
+            System.out.println("  output.tsv:    where to write the candidate pairs (default: print them)");
+            System.out.println("  --min-score:   only pairs scoring at least this (0-1, default 0.6)");
+            System.out.println("  --merge-plan:  also write which ID to keep and which to merge into it, for");
+            System.out.println("                 pairs scoring at least --merge-score (default 0.8)");
+            System.exit(1);
+        }
+
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(positional.get(0));
+        if (files.isEmpty()) {
+            System.out.println("Error: no GEDCOM (.ged) files found for '" + positional.get(0) + "'.");
+            System.exit(1);
+        }
+        GedcomParser parser = new GedcomParser();
+        GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+
+        long start = System.nanoTime();
+        DuplicateFinder finder = new DuplicateFinder(data);
+        List<DuplicateFinder.Candidate> candidates = finder.findCandidates(minScore);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        String output = positional.size() == 2 ? positional.get(1) : null;
+        PrintWriter out = output != null
+                ? new PrintWriter(Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8))
+                : new PrintWriter(System.out);
+        try {
+            out.println("score\tid_1\tname_1\tlife_dates_1\tid_2\tname_2\tlife_dates_2");
+            for (DuplicateFinder.Candidate c : candidates) {
+                Person a = c.getFirst();
+                Person b = c.getSecond();
+                out.printf("%.3f\t%s\t%s\t%s\t%s\t%s\t%s%n", c.getScore(),
+                        a.getId(), a.getDisplayName(), a.getLifeDates(),
+                        b.getId(), b.getDisplayName(), b.getLifeDates());
+            }
+        } finally {
+            out.flush();
+            if (output != null) {
+                out.close();
+            }
+        }
+        System.out.println(candidates.size() + " candidate pairs among " + data.getPersonCount() + " persons ("
+                + finder.getComparedPairs() + " pairs compared, " + finder.getSkippedBlocks()
+                + " oversized blocks skipped) in " + millis + " ms"
+                + (output != null ? "; written to " + output : ""));
+
+        if (planFile != null) {
+            List<DuplicateFinder.MergeStep> plan = finder.mergePlan(candidates, mergeScore);
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(planFile), StandardCharsets.UTF_8))) {
+                writer.println("keep_id\tkeep_name\tmerge_id\tmerge_name\tscore");
+                for (DuplicateFinder.MergeStep step : plan) {
+                    writer.printf("%s\t%s\t%s\t%s\t%.3f%n", step.getKeep().getId(), step.getKeep().getDisplayName(),
+                            step.getMerge().getId(), step.getMerge().getDisplayName(), step.getScore());
+                }
+            }
+            System.out.println("Merge plan (" + plan.size() + " merges) written to: " + planFile);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CLI that looks people up by name — whole words, prefixes or Daitch–Mokotoff sound-alikes
+ * ("Szwarc" finds Schwartz) — optionally within a range of birth years, and lists their
+ * IDs for use with the other tools.
+ */
+public class FindPerson {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        Integer bornFrom = null;
+        Integer bornTo = null;
+        int limit = 50;
+        for (int i = 0; i < args.length; i++) {
+            if ("--born".equals(args[i]) && i + 1 < args.length) {
+                String[] range = args[++i].split("-", 2);
+                bornFrom = Integer.valueOf(range[0].trim());
+                bornTo = range.length == 2 ? Integer.valueOf(range[1].trim()) : bornFrom;
+            } else if ("--limit".equals(args[i]) && i + 1 < args.length) {
+                limit = Integer.parseInt(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() < 2) {
+            System.out.println("Usage: FindPerson <gedcom-files> <name...> [--born YEAR|FROM-TO] [--limit N]");
+            System.out.println("  Lists people whose names match every word given, by exact word, prefix or");
+            System.out.println("  Daitch-Mokotoff sound (so Szwarc finds Schwartz), best matches first.");
+            System.out.println("  --born:  only people born in that year or range of years");
+            System.out.println("  --limit: at most N matches (default 50)");
+            System.exit(1);
+        }
+        String name = String.join(" ", positional.subList(1, positional.size()));
+
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(positional.get(0));
+        if (files.isEmpty()) {
+            System.out.println("Error: no GEDCOM (.ged) files found for '" + positional.get(0) + "'.");
+            System.exit(1);
+        }
+        GedcomParser parser = new GedcomParser();
+        GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+
+        long start = System.nanoTime();
+        NameIndex index = new NameIndex(data);
+        long built = System.nanoTime();
+        List<NameIndex.Match> matches = index.search(name, bornFrom, bornTo, limit);
+        long searched = System.nanoTime();
+
+        for (NameIndex.Match match : matches) {
+            Person p = match.getPerson();
+            System.out.println(p.getId() + "\t" + p.getDisplayName() + "\t" + p.getLifeDates());
+        }
+        System.out.printf("%d match%s for '%s' (index of %d persons built in %d ms, searched in %.1f ms)%n",
+                matches.size(), matches.size() == 1 ? "" : "es", name, index.size(),
+                (built - start) / 1_000_000, (searched - built) / 1e6);
+    }
+}
@@ -0,0 +1,58 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CLI that answers "how is X connected to Y?": finds the shortest path between two
+ * people over parent, child and spouse links, and prints the relationship name plus a
+ * step-by-step explanation.
+ */
+public class FindRelationship {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        int spouseCost = 1;
+        for (int i = 0; i < args.length; i++) {
+            if ("--spouse-cost".equals(args[i]) && i + 1 < args.length) {
+                spouseCost = Integer.parseInt(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() != 3) {
+            System.out.println("Usage: FindRelationship <gedcom-files> <person-1> <person-2> [--spouse-cost N]");
+            System.out.println("  gedcom-files: a directory (uses every *.ged inside it), a single file,");
+            System.out.println("                or a comma-separated list of files");
+            System.out.println("  person-1/2:   a person ID, or a name (optionally with a birth year)");
+            System.out.println("  --spouse-cost: cost of a marriage link relative to a parent/child link");
+            System.out.println("                 (default 1; higher prefers blood connections)");
+            System.exit(1);
+        }
+
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(positional.get(0));
+        if (files.isEmpty()) {
+            System.out.println("Error: no GEDCOM (.ged) files found for '" + positional.get(0) + "'.");
+            System.exit(1);
+        }
+        GedcomParser parser = new GedcomParser();
+        GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+
+        Person from = NameIndex.resolvePerson(data, positional.get(1));
+        Person to = from == null ? null : NameIndex.resolvePerson(data, positional.get(2));
+        if (from == null || to == null) {
+            System.exit(1);
+        }
+
+        FamilyRelationshipAnalyzer analyzer = new FamilyRelationshipAnalyzer(data);
+        RelationshipPathFinder.RelationshipPath path = analyzer.findRelationshipPath(from, to, spouseCost);
+        if (path == null) {
+            System.out.println(to + " is not connected to " + from + " by any parent, child or spouse link.");
+            return;
+        }
+        System.out.println(to + " is the " + path.describe() + " of " + from
+                + " (" + path.getSteps().size() + (path.getSteps().size() == 1 ? " link" : " links")
+                + ", cost " + path.getCost() + "):");
+        System.out.println(path.explain());
+    }
+}
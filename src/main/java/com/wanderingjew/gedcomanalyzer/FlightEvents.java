@@ -0,0 +1,215 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * Java Flight Recorder events for the application's own operations — parsing, linking,
+ * analysis queries, Geni requests, rate-limit waits, cache reads and writes, GEDCOM
+ * writes — so a JFR recording of a slow run shows them on the timeline next to GC,
+ * I/O and CPU samples. They appear under "GEDCOM Analyzer" in JDK Mission Control.
+ *
+ * <p>Events cost next to nothing while no recording is running, so they are always
+ * emitted. Record with {@code --jfr <file>} on the CLIs (see {@link #fromArgs}) or with
+ * the JVM's own {@code -XX:StartFlightRecording}; either way enable the
+ * {@code gedcom.*} events.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    private static final String CATEGORY = "GEDCOM Analyzer";
+
+    @Name("gedcom.Parse")
+    @Label("GEDCOM Parse")
+    @Description("One GEDCOM file read and parsed")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Parse extends Event {
+        @Label("File")
+        public String file;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+        @Label("Lines")
+        public int lines;
+        @Label("Persons")
+        @Description("Persons known after this file, including earlier files of the same parse")
+        public int persons;
+        @Label("Families")
+        public int families;
+    }
+
+    @Name("gedcom.Link")
+    @Label("Link Relationships")
+    @Description("Linking persons to their parents, spouses and children after parsing")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Link extends Event {
+        @Label("Persons")
+        public int persons;
+        @Label("Families")
+        public int families;
+    }
+
+    @Name("gedcom.Query")
+    @Label("Analysis Query")
+    @Description("One FamilyRelationshipAnalyzer query")
+    @Category(CATEGORY)
+    public static class Query extends Event {
+        @Label("Query")
+        public String query;
+        @Label("Person")
+        public String personId;
+        @Label("Degree")
+        @Description("Cousin degree, for cousin queries; 0 otherwise")
+        public int degree;
+        @Label("Results")
+        @Description("Number of people returned, or -1 when the result isn't a list")
+        public int results = -1;
+
+        /** Start timing a query about {@code person}. */
+        public static Query start(String query, Person person) {
+            Query event = new Query();
+            if (event.isEnabled()) {
+                event.query = query;
+                event.personId = person == null ? null : person.getId();
+            }
+            event.begin();
+            return event;
+        }
+
+        /** Commit, with the number of people the query found. */
+        public void finish(int results) {
+            this.results = results;
+            commit();
+        }
+    }
+
+    @Name("gedcom.GeniRequest")
+    @Label("Geni Request")
+    @Description("One HTTP request to the Geni API")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class GeniRequest extends Event {
+        @Label("API Path")
+        public String apiPath;
+        @Label("Status")
+        public int status;
+        @Label("Response Size")
+        @DataAmount
+        public long bytes;
+        @Label("Attempt")
+        public int attempt;
+    }
+
+    @Name("gedcom.RateLimitWait")
+    @Label("Geni Rate-Limit Wait")
+    @Description("Sleeping to stay under, or recover from, the Geni API rate limit")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class RateLimitWait extends Event {
+        @Label("Reason")
+        @Description("spacing, window (rate window spent) or throttled (HTTP 429/503)")
+        public String reason;
+        @Label("Planned Wait")
+        @Timespan(Timespan.MILLISECONDS)
+        public long waitMillis;
+        @Label("Status")
+        @Description("The throttling HTTP status, or 0")
+        public int status;
+    }
+
+    @Name("gedcom.CacheAccess")
+    @Label("Geni Cache Access")
+    @Description("Reading or writing a cached Geni profile")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class CacheAccess extends Event {
+        @Label("Profile")
+        public String profileId;
+        @Label("Operation")
+        @Description("read or write")
+        public String operation;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+        @Label("Hit")
+        @Description("For reads: whether a usable cached copy was found")
+        public boolean hit;
+        @Label("Denied")
+        @Description("The entry records a privacy-restricted profile")
+        public boolean denied;
+    }
+
+    @Name("gedcom.Write")
+    @Label("GEDCOM Write")
+    @Description("One GEDCOM file written")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Write extends Event {
+        @Label("File")
+        public String file;
+        @Label("Persons")
+        public int persons;
+        @Label("Families")
+        public int families;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * Start a recording if {@code args} asks for one: {@code --jfr <file>} records with the
+     * JDK's "profile" settings (CPU samples, allocation, GC, I/O, locks) plus every event
+     * here, and writes {@code file} when the JVM exits. The flag is removed from
+     * {@code args}.
+     */
+    public static void fromArgs(List<String> args) {
+        int at = args.indexOf("--jfr");
+        if (at < 0 || at + 1 >= args.size()) {
+            return;
+        }
+        Path file = Paths.get(args.remove(at + 1));
+        args.remove(at);
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration("profile"));
+        } catch (IOException | ParseException e) {
+            System.err.println("Could not load the JFR \"profile\" settings (" + e.getMessage()
+                    + "); recording only the application's events.");
+            recording = new Recording();
+        }
+        for (Class<? extends Event> type : List.of(Parse.class, Link.class, Query.class, GeniRequest.class,
+                RateLimitWait.class, CacheAccess.class, Write.class)) {
+            recording.enable(type).withoutThreshold();
+        }
+        recording.setName("gedcom-analyzer");
+        recording.setToDisk(true);
+        try {
+            recording.setDestination(file);
+        } catch (IOException e) {
+            System.err.println("Cannot write a JFR recording to " + file + ": " + e.getMessage());
+            recording.close();
+            return;
+        }
+        // JFR's own exit hook stops the recording and writes it to the destination.
+        recording.setDumpOnExit(true);
+        recording.start();
+    }
+}
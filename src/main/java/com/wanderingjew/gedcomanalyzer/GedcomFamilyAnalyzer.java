@@ -1,315 +1,852 @@
 package com.wanderingjew.gedcomanalyzer;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 /**
  * Main class for GEDCOM Family Relationship Analyzer.
  * Analyzes family relationships in GEDCOM files.
  */
 public class GedcomFamilyAnalyzer {
-    
+
+    /** How many ancestors the MOST PROLIFIC ANCESTORS section lists. */
+    private static final int PROLIFIC_ANCESTOR_LIMIT = 25;
+    // Reports for big families run to tens of megabytes; write them in large chunks.
+    private static final int REPORT_BUFFER_SIZE = 1 << 16;
+
+    private boolean pagedReport;
+    private Reporter reporter = Reporter.shared();
+
     public static void main(String[] args) {
-        if (args.length < 2 || args.length > 3) {
-            System.out.println("Usage: java -jar gedcom-family-analyzer.jar <gedcom-files> <person-id> [html-output-file]");
-            System.out.println("  gedcom-files: a directory (uses every *.ged inside it), a single file,");
-            System.out.println("                or a comma-separated list of files");
-            System.out.println("  person-id: ID of the person to analyze (with or without @ symbols)");
-            System.out.println("  html-output-file: Optional path to HTML output file");
-            System.out.println();
-            System.out.println("Examples:");
-            System.out.println("  Directory:      java -jar gedcom-family-analyzer.jar \"path/to/gedcoms\" I1 output.html");
-            System.out.println("  Single file:    java -jar gedcom-family-analyzer.jar family1.ged I1");
-            System.out.println("  Multiple files: java -jar gedcom-family-analyzer.jar \"family1.ged,family2.ged\" I1");
+        GedcomFamilyAnalyzer analyzer = new GedcomFamilyAnalyzer();
+        List<String> argList = new ArrayList<>(java.util.Arrays.asList(args));
+        analyzer.setPagedReport(argList.remove("--paged"));
+        boolean watch = argList.remove("--watch");
+        try {
+            analyzer.setReporter(Reporter.fromArgs(argList));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            printUsage();
+            System.exit(1);
+        }
+        Timings.fromArgs(argList);
+        FlightEvents.fromArgs(argList);
+        String format = "text";
+        int formatAt = argList.indexOf("--format");
+        if (formatAt >= 0) {
+            // A trailing --format with no value is a usage error, not an output file name.
+            format = formatAt + 1 < argList.size() ? argList.remove(formatAt + 1).toLowerCase() : "";
+            argList.remove(formatAt);
+        }
+        args = argList.toArray(new String[0]);
+        if (args.length == 4 && "--batch".equals(args[1]) && !watch) {
+            analyzer.analyzeBatch(args[0], args[2], args[3]);
+            analyzer.reporter.flush();
+            return;
+        }
+        if (args.length < 2 || args.length > 3 || !(format.equals("text") || format.equals("json") || format.equals("ndjson"))
+                || (watch && !format.equals("text"))) {
+            printUsage();
             System.exit(1);
         }
         
         String gedcomFiles = args[0];
         String personId = args[1];
         String htmlOutputFile = args.length > 2 ? args[2] : null;
-        
-        GedcomFamilyAnalyzer analyzer = new GedcomFamilyAnalyzer();
+
+        if (!format.equals("text")) {
+            analyzer.writeRelativeRecords(gedcomFiles, personId, htmlOutputFile, format.equals("ndjson"));
+            return;
+        }
+        if (watch) {
+            try {
+                new ReportWatcher(analyzer, analyzer.reporter, gedcomFiles, personId, htmlOutputFile).run();
+            } catch (IOException | InterruptedException e) {
+                analyzer.reporter.warn("Error: " + e.getMessage());
+            }
+            analyzer.reporter.flush();
+            return;
+        }
         analyzer.analyzeFamily(gedcomFiles, personId, htmlOutputFile);
+        analyzer.reporter.flush();
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java -jar gedcom-family-analyzer.jar <gedcom-files> <person-id> [html-output-file] [--watch] [--paged] [--quiet | --log-json] [--timings] [--jfr <file>]");
+        System.out.println("       java -jar gedcom-family-analyzer.jar <gedcom-files> <person-id> [output-file] --format json|ndjson");
+        System.out.println("       java -jar gedcom-family-analyzer.jar <gedcom-files> --batch <person-ids> <output-dir> [--paged] [--quiet | --log-json]");
+        System.out.println("  gedcom-files: a directory (uses every *.ged inside it), a single file,");
+        System.out.println("                or a comma-separated list of files");
+        System.out.println("  person-id: ID of the person to analyze (with or without @ symbols), or their");
+        System.out.println("             name, optionally with a birth year (\"Moshe Katz 1854\"); if several");
+        System.out.println("             people match, their IDs are listed");
+        System.out.println("  html-output-file: Optional path to HTML output file");
+        System.out.println("  --format: json or ndjson writes one record per relative (ancestors, descendants,");
+        System.out.println("            siblings, 1st-6th cousins) for other tools, to output-file or stdout");
+        System.out.println("  --batch: write an HTML report for each person into output-dir (as <id>.html),");
+        System.out.println("           parsing once and rendering in parallel; person-ids is a comma-separated");
+        System.out.println("           list or a file with one ID per line");
+        System.out.println("  --watch: keep running and rewrite the report whenever the GEDCOM files change,");
+        System.out.println("           re-reading only the files that changed");
+        System.out.println("  --paged: embed the ancestor, descendant and cousin lists as data, shown a page");
+        System.out.println("           at a time with a search box, for families too large for one page");
+        System.out.println("  --quiet: print only errors (with an html-output-file, or in batch mode)");
+        System.out.println("  --log-json: print progress and console output as JSON lines (time, level, message);");
+        System.out.println("              this is the run's log, whereas --format json writes the relatives");
+        System.out.println("  --timings: at exit, print wall time, allocation and peak heap per phase (parse,");
+        System.out.println("             analysis, each report section) to stderr; --timings-json <file> writes JSON");
+        System.out.println("  --jfr: record a Java Flight Recorder file of the run, including the analyzer's own");
+        System.out.println("         parse, link, query and write events, for JDK Mission Control");
+        System.out.println();
+        System.out.println("Examples:");
+        System.out.println("  Directory:      java -jar gedcom-family-analyzer.jar \"path/to/gedcoms\" I1 output.html");
+        System.out.println("  Single file:    java -jar gedcom-family-analyzer.jar family1.ged I1");
+        System.out.println("  Multiple files: java -jar gedcom-family-analyzer.jar \"family1.ged,family2.ged\" I1");
+        System.out.println("  Watch:          java -jar gedcom-family-analyzer.jar \"path/to/gedcoms\" I1 output.html --watch");
+        System.out.println("  Batch:          java -jar gedcom-family-analyzer.jar \"path/to/gedcoms\" --batch members.txt reports");
+    }
+
+    /**
+     * Render the ancestor, descendant and cousin lists of HTML reports as embedded data,
+     * paged and searchable in the browser (see {@link PagedListWriter}), instead of as one
+     * element per person. For families with tens of thousands of relatives, whose full
+     * reports are too large for a browser to lay out.
+     */
+    public void setPagedReport(boolean pagedReport) {
+        this.pagedReport = pagedReport;
+    }
+
+    /**
+     * Where progress and the console listing go; by default {@link Reporter#shared()}.
+     */
+    public void setReporter(Reporter reporter) {
+        this.reporter = reporter;
     }
     
     public void analyzeFamily(String gedcomFiles, String personId, String htmlOutputFile) {
         try {
-            System.out.println("==========================================");
-            System.out.println("GEDCOM Family Relationship Analyzer");
-            System.out.println("==========================================");
-            System.out.println("GEDCOM Files: " + gedcomFiles);
-            System.out.println("Person ID: " + personId);
-            System.out.println();
+            reporter.info("==========================================");
+            reporter.info("GEDCOM Family Relationship Analyzer");
+            reporter.info("==========================================");
+            reporter.info("GEDCOM Files: " + gedcomFiles);
+            reporter.info("Person ID: " + personId);
+            reporter.info("");
             
             // Parse GEDCOM file(s)
-            System.out.println("Parsing GEDCOM file(s)...");
+            reporter.info("Parsing GEDCOM file(s)...");
             GedcomParser parser = new GedcomParser();
+            parser.setReporter(reporter);
 
             List<String> fileList = resolveGedcomFiles(gedcomFiles);
             if (fileList.isEmpty()) {
-                System.out.println("Error: no GEDCOM (.ged) files found for '" + gedcomFiles + "'.");
+                reporter.warn("Error: no GEDCOM (.ged) files found for '" + gedcomFiles + "'.");
+                reporter.flush();
                 System.exit(1);
             }
-            System.out.println("GEDCOM files (" + fileList.size() + "):");
+            reporter.info("GEDCOM files (" + fileList.size() + "):");
             for (String f : fileList) {
-                System.out.println("  " + f);
+                reporter.info("  " + f);
             }
 
+            reporter.flush();
             GedcomData gedcomData = fileList.size() == 1
                     ? parser.parseFile(fileList.get(0))
                     : parser.parseMultipleFiles(fileList);
 
-            System.out.println("Found " + gedcomData.getPersonCount() + " persons and " + gedcomData.getFamilyCount() + " families.");
-            System.out.println();
+            reporter.info("Found " + gedcomData.getPersonCount() + " persons and " + gedcomData.getFamilyCount() + " families.");
+            reporter.info("");
             
             // Find target person
-            String cleanPersonId = personId.replaceAll("@", "");
-            Person targetPerson = gedcomData.getPerson(cleanPersonId);
+            reporter.flush();
+            Person targetPerson = NameIndex.resolvePerson(gedcomData, personId, reporter);
             if (targetPerson == null) {
-                System.out.println("Error: Person with ID '" + personId + "' not found.");
                 System.exit(1);
             }
             
-            System.out.println("Target Person: " + targetPerson.getDisplayName());
+            reporter.info("Target Person: " + targetPerson.getDisplayName());
             if (!targetPerson.getLifeDates().isEmpty()) {
-                System.out.println("Life Dates: " + targetPerson.getLifeDates());
+                reporter.info("Life Dates: " + targetPerson.getLifeDates());
             }
-            System.out.println();
+            reporter.info("");
             
-            // Analyze relationships
-            FamilyRelationshipAnalyzer analyzer = new FamilyRelationshipAnalyzer(gedcomData);
+            writeReport(gedcomData, targetPerson, gedcomFiles, htmlOutputFile);
             
-            // Generate output
-            if (htmlOutputFile != null) {
-                // Ensure output directory exists
-                ensureOutputDirectoryExists(htmlOutputFile);
-                generateHtmlOutput(analyzer, targetPerson, gedcomFiles, personId, htmlOutputFile, gedcomData);
-                System.out.println("HTML output written to: " + htmlOutputFile);
-            } else {
+        } catch (Exception e) {
+            reporter.warn("Error: " + e.getMessage());
+            reporter.flush();
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Analyze {@code targetPerson} and write the HTML report (and cousin map) to
+     * {@code htmlOutputFile}, or list the results on the console when it is null.
+     */
+    @SuppressWarnings("try")
+    void writeReport(GedcomData gedcomData, Person targetPerson, String gedcomFiles, String htmlOutputFile) throws IOException {
+        // Analyze relationships
+        FamilyRelationshipAnalyzer analyzer = new FamilyRelationshipAnalyzer(gedcomData);
+        
+        // Generate output
+        if (htmlOutputFile != null) {
+            // Ensure output directory exists
+            ensureOutputDirectoryExists(htmlOutputFile);
+            String cousinMapPath = generateHtmlOutput(analyzer, targetPerson, gedcomFiles, targetPerson.getId(), htmlOutputFile, gedcomData);
+            if (cousinMapPath != null) {
+                reporter.info("Cousin map written to: " + cousinMapPath);
+            }
+            reporter.info("HTML output written to: " + htmlOutputFile);
+        } else {
+            try (Timings.Phase ignored = Timings.phase("console")) {
                 displayConsoleOutput(analyzer, targetPerson, gedcomData);
             }
-            
+        }
+    }
+    
+    /**
+     * Machine-readable mode: write the person's relatives as JSON or NDJSON records (see
+     * {@link RelativeRecordWriter}) to {@code outputFile}, or to stdout when null. Only the
+     * records go to stdout; progress, name-resolution messages and errors go to stderr.
+     */
+    @SuppressWarnings("try")
+    public void writeRelativeRecords(String gedcomFiles, String personId, String outputFile, boolean ndjson) {
+        try {
+            List<String> fileList = resolveGedcomFiles(gedcomFiles);
+            if (fileList.isEmpty()) {
+                System.err.println("Error: no GEDCOM (.ged) files found for '" + gedcomFiles + "'.");
+                System.exit(1);
+            }
+            // Without an output file the records go to stdout; keep everything else off it.
+            Reporter log = outputFile == null && !(reporter instanceof Reporter.Quiet)
+                    ? Reporter.direct(System.err) : reporter;
+            GedcomParser parser = new GedcomParser();
+            parser.setReporter(log);
+            GedcomData gedcomData = fileList.size() == 1
+                    ? parser.parseFile(fileList.get(0))
+                    : parser.parseMultipleFiles(fileList);
+            Person targetPerson = NameIndex.resolvePerson(gedcomData, personId, log);
+            log.flush();
+            if (targetPerson == null) {
+                System.exit(1);
+            }
+            FamilyRelationshipAnalyzer analyzer = new FamilyRelationshipAnalyzer(gedcomData);
+            RelativeRecordWriter records = new RelativeRecordWriter(gedcomData, analyzer, 6);
+            if (outputFile != null) {
+                ensureOutputDirectoryExists(outputFile);
+            }
+            try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(outputFile != null
+                    ? new FileOutputStream(outputFile) : System.out, StandardCharsets.UTF_8), REPORT_BUFFER_SIZE)) {
+                try (Timings.Phase ignored = Timings.phase("write records")) {
+                    records.write(targetPerson, out, ndjson);
+                }
+            }
         } catch (Exception e) {
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
         }
     }
-    
+
+    /**
+     * Batch mode: parse once, then write an HTML report for each listed person into
+     * {@code outputDir} as {@code <id>.html} (plus {@code <id>-cousins-map.html} when there
+     * is a cousin map). Reports render concurrently on a pool with one thread per core, all
+     * sharing the parsed graph and one analyzer, so its whole-tree analyses are built once.
+     * Ends with a summary of per-report timings.
+     */
+    public void analyzeBatch(String gedcomFiles, String personIds, String outputDir) {
+        try {
+            reporter.info("==========================================");
+            reporter.info("GEDCOM Family Relationship Analyzer (batch)");
+            reporter.info("==========================================");
+            List<String> ids = readPersonIds(personIds);
+            if (ids.isEmpty()) {
+                reporter.warn("Error: no person IDs given in '" + personIds + "'.");
+                reporter.flush();
+                System.exit(1);
+            }
+            List<String> fileList = resolveGedcomFiles(gedcomFiles);
+            if (fileList.isEmpty()) {
+                reporter.warn("Error: no GEDCOM (.ged) files found for '" + gedcomFiles + "'.");
+                reporter.flush();
+                System.exit(1);
+            }
+            reporter.info("Parsing " + fileList.size() + " GEDCOM file(s)...");
+            GedcomParser parser = new GedcomParser();
+            parser.setReporter(reporter);
+            reporter.flush();
+            GedcomData gedcomData = fileList.size() == 1
+                    ? parser.parseFile(fileList.get(0))
+                    : parser.parseMultipleFiles(fileList);
+            reporter.info("Found " + gedcomData.getPersonCount() + " persons and " + gedcomData.getFamilyCount() + " families.");
+
+            FamilyRelationshipAnalyzer analyzer = new FamilyRelationshipAnalyzer(gedcomData);
+            // Every report uses the descendant counts; build them once before fanning out.
+            analyzer.getDescendantCounter();
+            new File(outputDir).mkdirs();
+
+            int threads = Math.min(Runtime.getRuntime().availableProcessors(), ids.size());
+            reporter.info("Writing reports for " + ids.size() + " person ID(s) to " + outputDir + " on " + threads + " thread(s)...");
+            reporter.info("");
+
+            long start = System.nanoTime();
+            List<BatchResult> results = new ArrayList<>();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CompletionService<BatchResult> completion = new ExecutorCompletionService<>(pool);
+            int submitted = 0;
+            for (String id : ids) {
+                Person person = gedcomData.getPerson(id);
+                if (person == null) {
+                    results.add(new BatchResult(id, null, 0, "Person not found"));
+                    continue;
+                }
+                String htmlOutputFile = new File(outputDir, id.replaceAll("[^A-Za-z0-9_-]", "_") + ".html").getPath();
+                completion.submit(() -> renderBatchReport(analyzer, person, gedcomFiles, htmlOutputFile, gedcomData));
+                submitted++;
+            }
+            for (int done = 1; done <= submitted; done++) {
+                BatchResult result = completion.take().get();
+                results.add(result);
+                reporter.info("[" + done + "/" + submitted + "] " + result.id + " " + result.name
+                        + (result.error == null ? " (" + result.millis + " ms)" : " FAILED: " + result.error));
+            }
+            pool.shutdown();
+            printBatchSummary(results, (System.nanoTime() - start) / 1_000_000, threads);
+        } catch (Exception e) {
+            reporter.warn("Error: " + e.getMessage());
+            reporter.flush();
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private BatchResult renderBatchReport(FamilyRelationshipAnalyzer analyzer, Person person, String gedcomFiles,
+                                          String htmlOutputFile, GedcomData gedcomData) {
+        long start = System.nanoTime();
+        try {
+            generateHtmlOutput(analyzer, person, gedcomFiles, person.getId(), htmlOutputFile, gedcomData);
+            return new BatchResult(person.getId(), person.getDisplayName(),
+                    (System.nanoTime() - start) / 1_000_000, null);
+        } catch (Exception e) {
+            return new BatchResult(person.getId(), person.getDisplayName(),
+                    (System.nanoTime() - start) / 1_000_000, e.toString());
+        }
+    }
+
+    /**
+     * Person IDs for batch mode: a file with one ID per line (blank lines and lines
+     * starting with # are skipped), or a comma-separated list. @ symbols are stripped and
+     * duplicates dropped.
+     */
+    static List<String> readPersonIds(String input) throws IOException {
+        String cleaned = stripQuotes(input.trim());
+        List<String> tokens = new ArrayList<>();
+        File file = new File(cleaned);
+        if (file.isFile()) {
+            for (String line : java.nio.file.Files.readAllLines(file.toPath())) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    tokens.add(trimmed);
+                }
+            }
+        } else {
+            tokens.addAll(java.util.Arrays.asList(cleaned.split(",")));
+        }
+        java.util.LinkedHashSet<String> ids = new java.util.LinkedHashSet<>();
+        for (String token : tokens) {
+            String id = token.trim().replaceAll("@", "");
+            if (!id.isEmpty()) {
+                ids.add(id);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private void printBatchSummary(List<BatchResult> results, long wallMillis, int threads) {
+        List<BatchResult> written = new ArrayList<>();
+        List<BatchResult> failed = new ArrayList<>();
+        for (BatchResult result : results) {
+            (result.error == null ? written : failed).add(result);
+        }
+        written.sort(java.util.Comparator.comparingLong((BatchResult r) -> r.millis).reversed());
+
+        reporter.info("");
+        reporter.info("==========================================");
+        reporter.info("Batch summary: " + written.size() + " report(s) written, " + failed.size()
+                + " failed, in " + formatMillis(wallMillis) + " (" + threads + " thread(s))");
+        if (!written.isEmpty()) {
+            long total = 0;
+            for (BatchResult result : written) {
+                total += result.millis;
+            }
+            int n = written.size();
+            // written is slowest-first, so percentile p sits at index (100 - p)% of the way in.
+            reporter.info("Per report: min " + formatMillis(written.get(n - 1).millis)
+                    + ", median " + formatMillis(written.get(n / 2).millis)
+                    + ", p90 " + formatMillis(written.get((int) ((n - 1) * 0.1)).millis)
+                    + ", max " + formatMillis(written.get(0).millis)
+                    + "; total " + formatMillis(total)
+                    + String.format(" (%.1fx parallel speedup)", total / (double) Math.max(1, wallMillis)));
+            reporter.info("Slowest:");
+            for (BatchResult result : written.subList(0, Math.min(5, n))) {
+                reporter.info("  " + formatMillis(result.millis) + "  " + result.id + " " + result.name);
+            }
+        }
+        if (!failed.isEmpty()) {
+            reporter.info("Failed:");
+            for (BatchResult result : failed) {
+                reporter.info("  " + result.id + ": " + result.error);
+            }
+        }
+    }
+
+    private static String formatMillis(long millis) {
+        return millis < 1000 ? millis + " ms" : String.format("%.1f s", millis / 1000.0);
+    }
+
+    /** Outcome of one batch report. */
+    private static class BatchResult {
+        final String id;
+        final String name;
+        final long millis;
+        final String error;
+
+        BatchResult(String id, String name, long millis, String error) {
+            this.id = id;
+            this.name = name;
+            this.millis = millis;
+            this.error = error;
+        }
+    }
+
     /**
      * Resolve the first argument into a list of GEDCOM file paths. Accepts a directory
      * (all *.ged files inside it, sorted), a comma-separated list, or a single file.
      * Surrounding quotes are stripped so shell-quoted arguments work too.
      */
-    private List<String> resolveGedcomFiles(String input) {
-        String cleaned = stripQuotes(input.trim());
-        List<String> files = new ArrayList<>();
-
-        File asDir = new File(cleaned);
-        if (asDir.isDirectory()) {
-            File[] geds = asDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".ged"));
-            if (geds != null) {
-                java.util.Arrays.sort(geds);
-                for (File f : geds) {
-                    files.add(f.getPath());
+    @SuppressWarnings("try")
+    static List<String> resolveGedcomFiles(String input) {
+        try (Timings.Phase ignored = Timings.phase("resolve files")) {
+            String cleaned = stripQuotes(input.trim());
+            List<String> files = new ArrayList<>();
+
+            File asDir = new File(cleaned);
+            if (asDir.isDirectory()) {
+                File[] geds = asDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".ged"));
+                if (geds != null) {
+                    java.util.Arrays.sort(geds);
+                    for (File f : geds) {
+                        files.add(f.getPath());
+                    }
                 }
+                return files;
             }
-            return files;
-        }
 
-        for (String part : cleaned.split(",")) {
-            String path = stripQuotes(part.trim());
-            if (!path.isEmpty()) {
-                files.add(path);
+            for (String part : cleaned.split(",")) {
+                String path = stripQuotes(part.trim());
+                if (!path.isEmpty()) {
+                    files.add(path);
+                }
             }
+            return files;
         }
-        return files;
     }
 
-    private String stripQuotes(String s) {
+    private static String stripQuotes(String s) {
         if (s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"")) {
             return s.substring(1, s.length() - 1);
         }
         return s;
     }
 
+    @SuppressWarnings("try")
     private void displayConsoleOutput(FamilyRelationshipAnalyzer analyzer, Person targetPerson, GedcomData gedcomData) {
-        displayAncestors(analyzer, targetPerson);
-        displayDescendants(analyzer, targetPerson);
-        displaySiblings(analyzer, targetPerson);
-        displayCousins(analyzer, targetPerson, gedcomData);
+        try (Timings.Phase ignored = Timings.phase("inbreeding")) {
+            double inbreeding = analyzer.getInbreedingCoefficient(targetPerson);
+            if (inbreeding > 0) {
+                reporter.info("Inbreeding Coefficient (F): " + formatCoefficient(inbreeding));
+                reporter.info("");
+            }
+        }
+        try (Timings.Phase ignored = Timings.phase("ancestors")) {
+            displayAncestors(analyzer, targetPerson);
+        }
+        try (Timings.Phase ignored = Timings.phase("descendants")) {
+            displayDescendants(analyzer, targetPerson);
+        }
+        try (Timings.Phase ignored = Timings.phase("siblings")) {
+            displaySiblings(analyzer, targetPerson);
+        }
+        try (Timings.Phase ignored = Timings.phase("cousins")) {
+            displayCousins(analyzer, targetPerson, gedcomData);
+        }
     }
     
-    private void generateHtmlOutput(FamilyRelationshipAnalyzer analyzer, Person targetPerson, String gedcomFile, String personId, String htmlOutputFile, GedcomData gedcomData) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(htmlOutputFile))) {
-            writer.println("<!DOCTYPE html>");
-            writer.println("<html lang=\"en\">");
-            writer.println("<head>");
-            writer.println("    <meta charset=\"UTF-8\">");
-            writer.println("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">");
-            writer.println("    <title>" + targetPerson.getDisplayName() + " Family Relationship Analysis</title>");
-            writer.println("    <style>");
-            writer.println("        body { font-family: Arial, sans-serif; margin: 20px; line-height: 1.6; }");
-            writer.println("        h1 { color: #2c3e50; font-size: 28px; border-bottom: 3px solid #3498db; padding-bottom: 10px; }");
-            writer.println("        h2 { color: #34495e; font-size: 24px; margin-top: 30px; margin-bottom: 15px; border-left: 4px solid #3498db; padding-left: 15px; }");
-            writer.println("        h3 { color: #2980b9; font-size: 20px; margin-top: 20px; margin-bottom: 10px; }");
-            writer.println("        .person { margin: 8px 0; padding: 5px 0; }");
-            writer.println("        .person-name { font-weight: bold; color: #2c3e50; }");
-            writer.println("        .person-id { color: #7f8c8d; font-family: monospace; }");
-            writer.println("        .dup-count { color: #c0392b; font-weight: bold; }");
-            writer.println("        .cross-ref { color: #8e44ad; font-style: italic; font-size: 13px; }");
-            writer.println("        .life-dates { color: #27ae60; font-style: italic; margin-left: 20px; }");
-            writer.println("        .section { margin-bottom: 30px; }");
-            writer.println("        .info { background-color: #ecf0f1; padding: 15px; border-radius: 5px; margin-bottom: 20px; }");
-            writer.println("        .generation { margin-bottom: 20px; }");
-            writer.println("    </style>");
-            writer.println(AncestorMapWriter.leafletHead());
-            writer.println("</head>");
-            writer.println("<body>");
-            
-            writer.println("    <h1>" + targetPerson.getDisplayName() + " Family Relationship Analysis</h1>");
-            writer.println("    <div class=\"info\">");
-            writer.println("        <strong>Target Person:</strong> " + targetPerson.getDisplayName() + "<br>");
-            if (!targetPerson.getLifeDates().isEmpty()) {
-                writer.println("        <strong>Life Dates:</strong> " + targetPerson.getLifeDates() + "<br>");
-            }
-            writer.println("        <strong>Person ID:</strong> " + personId + "<br>");
-            writer.println("        <strong>GEDCOM File:</strong> " + gedcomFile);
-            writer.println("    </div>");
-
-            // Ancestor map (only rendered when the data carries coordinates)
-            String mapHtml = buildAncestorMapHtml(analyzer, targetPerson);
-            if (!mapHtml.isEmpty()) {
-                writer.println("    <div class=\"section\">");
-                writer.println("        <h2>ANCESTOR MAP</h2>");
-                writer.print(mapHtml);
-                writer.println("    </div>");
-            }
-
-            // Ancestors
-            writer.println("    <div class=\"section\">");
-            writer.println("        <h2>ANCESTORS</h2>");
-            writeAncestorsHtml(analyzer, targetPerson, writer);
-            writer.println("    </div>");
-            
-            // Descendant map (only rendered when the data carries coordinates). Unlike the
-            // ancestor map, this prefers current residence over death/birth location —
-            // most descendants, especially recent generations, are still alive.
-            String descendantMapHtml = buildDescendantMapHtml(analyzer, targetPerson);
-            if (!descendantMapHtml.isEmpty()) {
-                writer.println("    <div class=\"section\">");
-                writer.println("        <h2>DESCENDANT MAP</h2>");
-                writer.print(descendantMapHtml);
-                writer.println("    </div>");
-            }
-
-            // Descendants
-            writer.println("    <div class=\"section\">");
-            writer.println("        <h2>DESCENDANTS</h2>");
-            writeDescendantsHtml(analyzer, targetPerson, writer, gedcomData);
-            writer.println("    </div>");
-            
-            // Siblings
-            writer.println("    <div class=\"section\">");
-            writer.println("        <h2>SIBLINGS</h2>");
-            writeSiblingsHtml(analyzer, targetPerson, writer);
-            writer.println("    </div>");
-
-            // Cousin map (siblings + 1st-5th cousins, coloured by degree; only rendered
-            // when the data carries coordinates). Also written as a standalone file.
-            List<GeniAncestorFetcher.MapPoint> cousinPoints = buildCousinMapPoints(analyzer, targetPerson);
-            if (!cousinPoints.isEmpty()) {
-                writer.println("    <div class=\"section\">");
-                writer.println("        <h2>COUSIN MAP</h2>");
-                writer.print(new CousinMapWriter().mapSection(cousinPoints, "cousin-map", "500px"));
-                writer.println("    </div>");
-
+    /**
+     * Write the HTML report to a file, plus the standalone cousin map next to it when there
+     * is one. Returns the cousin map's path, or null if none was written.
+     */
+    @SuppressWarnings("try")
+    private String generateHtmlOutput(FamilyRelationshipAnalyzer analyzer, Person targetPerson, String gedcomFile, String personId, String htmlOutputFile, GedcomData gedcomData) throws IOException {
+        // Everything is analysed up front; the cousin map points (siblings + 1st-5th
+        // cousins) go both into the report and into a standalone map file next to it.
+        try (Timings.Phase report = Timings.phase("report")) {
+            ReportModel model = buildReportModel(analyzer, targetPerson);
+            // The standalone cousin map needs nothing from the report; write it alongside.
+            ForkJoinTask<String> cousinMap = model.cousinPoints.isEmpty() ? null : ForkJoinPool.commonPool().submit(() -> {
                 String cousinMapPath = cousinMapOutputPath(htmlOutputFile);
                 ensureOutputDirectoryExists(cousinMapPath);
-                new CousinMapWriter().write(cousinPoints, cousinMapPath,
-                        targetPerson.getDisplayName() + " Cousin Map");
-                System.out.println("Cousin map written to: " + cousinMapPath);
+                try (Timings.Phase ignored = Timings.phase(report, "cousin map file")) {
+                    new CousinMapWriter().write(model.cousinPoints, cousinMapPath,
+                            targetPerson.getDisplayName() + " Cousin Map");
+                }
+                return cousinMapPath;
+            });
+            try (Timings.Phase ignored = Timings.phase("render");
+                 PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(htmlOutputFile), StandardCharsets.UTF_8), REPORT_BUFFER_SIZE))) {
+                writeHtmlReport(writer, model, gedcomFile, personId, gedcomData);
+            }
+            if (cousinMap == null) {
+                return null;
+            }
+            try {
+                return cousinMap.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted writing the cousin map", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
             }
-
-            // Cousins
-            writer.println("    <div class=\"section\">");
-            writer.println("        <h2>COUSINS</h2>");
-            writeCousinsHtml(analyzer, targetPerson, writer, gedcomData);
-            writer.println("    </div>");
-            
-            writer.println("</body>");
-            writer.println("</html>");
         }
     }
-    
+
     /**
-     * Build the embeddable ancestor-map HTML (target at generation 0, then ancestors by
-     * generation, deduped). Returns an empty string when no one has coordinates, so the
-     * map section is simply omitted for coordinate-less GEDCOMs.
+     * Render the full HTML report for one person to any writer (used by the query server
+     * as well as for the report file). Writes nothing else to disk.
      */
-    private String buildAncestorMapHtml(FamilyRelationshipAnalyzer analyzer, Person targetPerson) throws IOException {
-        List<GeniAncestorFetcher.MapPoint> points = new ArrayList<>();
-        java.util.Set<String> seen = new java.util.HashSet<>();
+    void writeHtmlReport(PrintWriter writer, FamilyRelationshipAnalyzer analyzer, Person targetPerson, String gedcomFile, String personId, GedcomData gedcomData) throws IOException {
+        writeHtmlReport(writer, buildReportModel(analyzer, targetPerson), gedcomFile, personId, gedcomData);
+    }
 
-        seen.add(targetPerson.getId());
-        GeniAncestorFetcher.MapPoint self = GeniAncestorFetcher.MapPoint.fromPerson(targetPerson, 0);
-        if (self != null) {
-            points.add(self);
+    /**
+     * Everything the HTML report shows about one person, computed once: each direction is
+     * walked once (see {@link GenerationWalk}) and each cousin degree grouped once, and the
+     * sections and maps that need the same relatives share them. Rendering then only
+     * formats what is here.
+     */
+    private static class ReportModel {
+        Person target;
+        double inbreeding;
+        Map<Integer, List<Person>> ancestorsByGen;
+        List<GeniAncestorFetcher.MapPoint> ancestorPoints;
+        PedigreeAnalysis pedigree;
+        DescendantCounter descendantCounter;
+        List<Person> prolificAncestors;
+        Map<Integer, List<Person>> descendantsByGen;
+        List<GeniAncestorFetcher.MapPoint> descendantPoints;
+        List<Person> siblings;
+        /** Degree (1-6) to cousins grouped by parent family, for degrees with any cousins. */
+        Map<Integer, Map<String, List<Person>>> cousinsByDegree;
+        List<GeniAncestorFetcher.MapPoint> cousinPoints;
+    }
+
+    @SuppressWarnings("try")
+    private ReportModel buildReportModel(FamilyRelationshipAnalyzer analyzer, Person targetPerson) {
+        ReportModel model = new ReportModel();
+        model.target = targetPerson;
+        try (Timings.Phase analyze = Timings.phase("analyze")) {
+            try (Timings.Phase ignored = Timings.phase("inbreeding")) {
+                model.inbreeding = analyzer.getInbreedingCoefficient(targetPerson);
+            }
+
+            try (Timings.Phase ignored = Timings.phase("ancestors")) {
+                GenerationWalk.ByGeneration ancestors = new GenerationWalk.ByGeneration();
+                MapPoints ancestorPoints = new MapPoints(GeniAncestorFetcher.MapPoint::fromPerson);
+                analyzer.walkAncestors(targetPerson, ancestors, ancestorPoints);
+                model.ancestorsByGen = ancestors.getByGeneration();
+                model.ancestorPoints = ancestorPoints.getPoints();
+            }
+            try (Timings.Phase ignored = Timings.phase("pedigree")) {
+                model.pedigree = analyzer.getPedigreeAnalysis(targetPerson);
+            }
+            try (Timings.Phase ignored = Timings.phase("prolific ancestors")) {
+                model.descendantCounter = analyzer.getDescendantCounter();
+                model.prolificAncestors = model.descendantCounter.rank(model.pedigree.getAncestors().keySet(),
+                        PROLIFIC_ANCESTOR_LIMIT);
+            }
+
+            try (Timings.Phase ignored = Timings.phase("descendants")) {
+                GenerationWalk.ByGeneration descendants = new GenerationWalk.ByGeneration();
+                MapPoints descendantPoints = new MapPoints(GeniAncestorFetcher.MapPoint::fromPersonPreferCurrent);
+                analyzer.walkDescendants(targetPerson, descendants, descendantPoints);
+                model.descendantsByGen = descendants.getByGeneration();
+                model.descendantPoints = descendantPoints.getPoints();
+            }
+
+            try (Timings.Phase ignored = Timings.phase("siblings")) {
+                model.siblings = analyzer.getSiblings(targetPerson);
+            }
+            try (Timings.Phase ignored = Timings.phase("cousins")) {
+                model.cousinsByDegree = new LinkedHashMap<>();
+                for (int degree = 1; degree <= 6; degree++) {
+                    Map<String, List<Person>> grouped = analyzer.getCousinsGroupedByFamily(targetPerson, degree);
+                    if (!grouped.isEmpty()) {
+                        model.cousinsByDegree.put(degree, grouped);
+                    }
+                }
+            }
+            try (Timings.Phase ignored = Timings.phase("cousin map points")) {
+                model.cousinPoints = buildCousinMapPoints(model);
+            }
         }
+        return model;
+    }
 
-        Map<Integer, List<Person>> byGen = analyzer.getAncestorsByGeneration(targetPerson);
-        int maxGen = byGen.keySet().stream().max(Integer::compareTo).orElse(0);
-        for (int gen = 1; gen <= maxGen; gen++) {
-            for (Person ancestor : byGen.getOrDefault(gen, new ArrayList<>())) {
-                if (!seen.add(ancestor.getId())) {
-                    continue;
+    @SuppressWarnings("try")
+    private void writeHtmlReport(PrintWriter writer, ReportModel model, String gedcomFile, String personId, GedcomData gedcomData) throws IOException {
+        Person targetPerson = model.target;
+        writer.println("<!DOCTYPE html>");
+        writer.println("<html lang=\"en\">");
+        writer.println("<head>");
+        writer.println("    <meta charset=\"UTF-8\">");
+        writer.println("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">");
+        writer.println("    <title>" + targetPerson.getDisplayName() + " Family Relationship Analysis</title>");
+        writer.println("    <style>");
+        writer.println("        body { font-family: Arial, sans-serif; margin: 20px; line-height: 1.6; }");
+        writer.println("        h1 { color: #2c3e50; font-size: 28px; border-bottom: 3px solid #3498db; padding-bottom: 10px; }");
+        writer.println("        h2 { color: #34495e; font-size: 24px; margin-top: 30px; margin-bottom: 15px; border-left: 4px solid #3498db; padding-left: 15px; }");
+        writer.println("        h3 { color: #2980b9; font-size: 20px; margin-top: 20px; margin-bottom: 10px; }");
+        writer.println("        .person { margin: 8px 0; padding: 5px 0; }");
+        writer.println("        .person-name { font-weight: bold; color: #2c3e50; }");
+        writer.println("        .person-id { color: #7f8c8d; font-family: monospace; }");
+        writer.println("        .dup-count { color: #c0392b; font-weight: bold; }");
+        writer.println("        .cross-ref { color: #8e44ad; font-style: italic; font-size: 13px; }");
+        writer.println("        .life-dates { color: #27ae60; font-style: italic; margin-left: 20px; }");
+        writer.println("        .section { margin-bottom: 30px; }");
+        writer.println("        .info { background-color: #ecf0f1; padding: 15px; border-radius: 5px; margin-bottom: 20px; }");
+        writer.println("        .generation { margin-bottom: 20px; }");
+        writer.println("        .ahnentafel { color: #7f8c8d; font-size: 13px; margin-left: 20px; }");
+        writer.println("        table.pedigree { border-collapse: collapse; margin-bottom: 20px; }");
+        writer.println("        table.pedigree th, table.pedigree td { border: 1px solid #bdc3c7; padding: 4px 10px; text-align: right; }");
+        writer.println("        table.pedigree th { background-color: #ecf0f1; }");
+        writer.println("    </style>");
+        writer.println(AncestorMapWriter.leafletHead());
+        if (pagedReport) {
+            writer.println(PagedListWriter.head());
+        }
+        writer.println("</head>");
+        writer.println("<body>");
+        
+        writer.println("    <h1>" + targetPerson.getDisplayName() + " Family Relationship Analysis</h1>");
+        writer.println("    <div class=\"info\">");
+        writer.println("        <strong>Target Person:</strong> " + targetPerson.getDisplayName() + "<br>");
+        if (!targetPerson.getLifeDates().isEmpty()) {
+            writer.println("        <strong>Life Dates:</strong> " + targetPerson.getLifeDates() + "<br>");
+        }
+        if (model.inbreeding > 0) {
+            writer.println("        <strong>Inbreeding Coefficient (F):</strong> " + formatCoefficient(model.inbreeding) + "<br>");
+        }
+        writer.println("        <strong>Person ID:</strong> " + personId + "<br>");
+        writer.println("        <strong>GEDCOM File:</strong> " + gedcomFile);
+        writer.println("    </div>");
+
+        // The sections only read the model, so they render concurrently (see writeSections).
+        Timings.Phase render = Timings.current();
+        List<Section> sections = new ArrayList<>();
+
+        // Ancestor map (only rendered when the data carries coordinates)
+        sections.add(out -> {
+            try (Timings.Phase ignored = Timings.phase(render, "ancestor map")) {
+                String mapHtml = new AncestorMapWriter().mapSection(model.ancestorPoints, "ancestor-map", "500px");
+                if (!mapHtml.isEmpty()) {
+                    out.println("    <div class=\"section\">");
+                    out.println("        <h2>ANCESTOR MAP</h2>");
+                    out.print(mapHtml);
+                    out.println("    </div>");
                 }
-                GeniAncestorFetcher.MapPoint point = GeniAncestorFetcher.MapPoint.fromPerson(ancestor, gen);
-                if (point != null) {
-                    points.add(point);
+            }
+        });
+
+        // Ancestors
+        sections.add(out -> {
+            out.println("    <div class=\"section\">");
+            out.println("        <h2>ANCESTORS</h2>");
+            try (Timings.Phase ignored = Timings.phase(render, "ancestors")) {
+                if (pagedReport) {
+                    writeAncestorsPaged(model.ancestorsByGen, model.pedigree, out);
+                } else {
+                    writeAncestorsHtml(model.ancestorsByGen, model.pedigree, out);
                 }
             }
+            out.println("    </div>");
+        });
+
+        // Most prolific ancestors (omitted when the target has no known ancestors)
+        if (!model.pedigree.getAncestors().isEmpty()) {
+            sections.add(out -> {
+                out.println("    <div class=\"section\">");
+                out.println("        <h2>MOST PROLIFIC ANCESTORS</h2>");
+                try (Timings.Phase ignored = Timings.phase(render, "prolific ancestors")) {
+                    writeProlificAncestorsHtml(model, out);
+                }
+                out.println("    </div>");
+            });
         }
-        return new AncestorMapWriter().mapSection(points, "ancestor-map", "500px");
+        
+        // Descendant map (only rendered when the data carries coordinates). Unlike the
+        // ancestor map, this prefers current residence over death/birth location —
+        // most descendants, especially recent generations, are still alive.
+        // The colour scale is capped at 8 generations: descendant trees are realistically
+        // only a handful of generations deep.
+        sections.add(out -> {
+            try (Timings.Phase ignored = Timings.phase(render, "descendant map")) {
+                String descendantMapHtml = new AncestorMapWriter().mapSection(model.descendantPoints,
+                        "descendant-map", "500px", 8);
+                if (!descendantMapHtml.isEmpty()) {
+                    out.println("    <div class=\"section\">");
+                    out.println("        <h2>DESCENDANT MAP</h2>");
+                    out.print(descendantMapHtml);
+                    out.println("    </div>");
+                }
+            }
+        });
+
+        // Descendants
+        sections.add(out -> {
+            out.println("    <div class=\"section\">");
+            out.println("        <h2>DESCENDANTS</h2>");
+            try (Timings.Phase ignored = Timings.phase(render, "descendants")) {
+                if (pagedReport) {
+                    writeDescendantsPaged(model.descendantsByGen, out, gedcomData);
+                } else {
+                    writeDescendantsHtml(model.descendantsByGen, out, gedcomData);
+                }
+            }
+            out.println("    </div>");
+        });
+        
+        // Siblings
+        sections.add(out -> {
+            out.println("    <div class=\"section\">");
+            out.println("        <h2>SIBLINGS</h2>");
+            try (Timings.Phase ignored = Timings.phase(render, "siblings")) {
+                writeSiblingsHtml(model.siblings, out);
+            }
+            out.println("    </div>");
+        });
+
+        // Cousin map (siblings + 1st-5th cousins, coloured by degree; only rendered
+        // when the data carries coordinates).
+        if (!model.cousinPoints.isEmpty()) {
+            sections.add(out -> {
+                out.println("    <div class=\"section\">");
+                out.println("        <h2>COUSIN MAP</h2>");
+                try (Timings.Phase ignored = Timings.phase(render, "cousin map")) {
+                    out.print(new CousinMapWriter().mapSection(model.cousinPoints, "cousin-map", "500px"));
+                }
+                out.println("    </div>");
+            });
+        }
+
+        // Cousins
+        sections.add(out -> {
+            out.println("    <div class=\"section\">");
+            out.println("        <h2>COUSINS</h2>");
+            try (Timings.Phase ignored = Timings.phase(render, "cousins")) {
+                if (pagedReport) {
+                    writeCousinsPaged(model.cousinsByDegree, out, gedcomData);
+                } else {
+                    writeCousinsHtml(model.cousinsByDegree, out, gedcomData);
+                }
+            }
+            out.println("    </div>");
+        });
+
+        writeSections(writer, sections);
+        
+        writer.println("</body>");
+        writer.println("</html>");
+    }
+
+    /** One part of the HTML report, written on its own so the parts can render concurrently. */
+    private interface Section {
+        void write(PrintWriter out) throws IOException;
     }
 
     /**
-     * Build the embeddable descendant-map HTML (target at generation 0, then descendants
-     * by generation, deduped). Unlike the ancestor map, points prefer current residence
-     * over death/birth location — most descendants are still alive — and the generation
-     * color scale uses a much smaller cap, since descendant trees are realistically only
-     * a handful of generations deep. Returns an empty string when no one has coordinates.
+     * Render the sections concurrently (on the common fork/join pool, alongside the calling
+     * thread), each into its own buffer, then write the buffers out in order — so a report
+     * takes about as long as its slowest section rather than the sum of them all.
      */
-    private String buildDescendantMapHtml(FamilyRelationshipAnalyzer analyzer, Person targetPerson) throws IOException {
-        List<GeniAncestorFetcher.MapPoint> points = new ArrayList<>();
-        java.util.Set<String> seen = new java.util.HashSet<>();
+    private void writeSections(PrintWriter writer, List<Section> sections) throws IOException {
+        List<String> rendered;
+        try {
+            rendered = sections.parallelStream().map(section -> {
+                StringWriter buffer = new StringWriter();
+                try (PrintWriter out = new PrintWriter(buffer)) {
+                    section.write(out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return buffer.toString();
+            }).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (String html : rendered) {
+            writer.print(html);
+        }
+    }
+    
+    /**
+     * Collects map points during a generation walk: the target at generation 0, then each
+     * relative once, at their shallowest generation. People without coordinates are left
+     * out, so a coordinate-less GEDCOM yields no points and the map section is omitted.
+     */
+    private static class MapPoints implements GenerationWalk.Visitor {
+        private final BiFunction<Person, Integer, GeniAncestorFetcher.MapPoint> toPoint;
+        private final List<GeniAncestorFetcher.MapPoint> points = new ArrayList<>();
 
-        seen.add(targetPerson.getId());
-        GeniAncestorFetcher.MapPoint self = GeniAncestorFetcher.MapPoint.fromPersonPreferCurrent(targetPerson, 0);
-        if (self != null) {
-            points.add(self);
+        MapPoints(BiFunction<Person, Integer, GeniAncestorFetcher.MapPoint> toPoint) {
+            this.toPoint = toPoint;
         }
 
-        Map<Integer, List<Person>> byGen = analyzer.getDescendantsByGeneration(targetPerson);
-        int maxGen = byGen.keySet().stream().max(Integer::compareTo).orElse(0);
-        for (int gen = 1; gen <= maxGen; gen++) {
-            for (Person descendant : byGen.getOrDefault(gen, new ArrayList<>())) {
-                if (!seen.add(descendant.getId())) {
-                    continue;
-                }
-                GeniAncestorFetcher.MapPoint point = GeniAncestorFetcher.MapPoint.fromPersonPreferCurrent(descendant, gen);
+        @Override
+        public void visit(Person person, int generation, boolean first) {
+            if (first) {
+                GeniAncestorFetcher.MapPoint point = toPoint.apply(person, generation);
                 if (point != null) {
                     points.add(point);
                 }
             }
         }
-        return new AncestorMapWriter().mapSection(points, "descendant-map", "500px", 8);
+
+        List<GeniAncestorFetcher.MapPoint> getPoints() {
+            return points;
+        }
     }
 
     /**
@@ -319,11 +856,11 @@ public class GedcomFamilyAnalyzer {
      * already excludes closer relatives from each degree's results, so no further
      * cross-degree dedup is needed beyond guarding duplicate entries within one degree.
      */
-    private List<GeniAncestorFetcher.MapPoint> buildCousinMapPoints(FamilyRelationshipAnalyzer analyzer, Person targetPerson) {
+    private List<GeniAncestorFetcher.MapPoint> buildCousinMapPoints(ReportModel model) {
         List<GeniAncestorFetcher.MapPoint> points = new ArrayList<>();
         java.util.Set<String> seen = new java.util.HashSet<>();
 
-        for (Person sibling : analyzer.getSiblings(targetPerson)) {
+        for (Person sibling : model.siblings) {
             if (!seen.add(sibling.getId())) {
                 continue;
             }
@@ -334,7 +871,7 @@ public class GedcomFamilyAnalyzer {
         }
 
         for (int degree = 1; degree <= 5; degree++) {
-            Map<String, List<Person>> groupedCousins = analyzer.getCousinsGroupedByFamily(targetPerson, degree);
+            Map<String, List<Person>> groupedCousins = model.cousinsByDegree.getOrDefault(degree, Collections.emptyMap());
             for (List<Person> cousins : groupedCousins.values()) {
                 for (Person cousin : cousins) {
                     if (!seen.add(cousin.getId())) {
@@ -358,22 +895,14 @@ public class GedcomFamilyAnalyzer {
         return htmlOutputFile + "-cousins-map.html";
     }
 
-    private void writeAncestorsHtml(FamilyRelationshipAnalyzer analyzer, Person targetPerson, PrintWriter writer) {
-        Map<Integer, List<Person>> ancestorsByGen = analyzer.getAncestorsByGeneration(targetPerson);
-        
+    private void writeAncestorsHtml(Map<Integer, List<Person>> ancestorsByGen, PedigreeAnalysis pedigree, PrintWriter writer) {
         if (ancestorsByGen.isEmpty()) {
             writer.println("        <p>No ancestors found.</p>");
         } else {
             int maxGen = ancestorsByGen.keySet().stream().max(Integer::compareTo).orElse(1);
+            writePedigreeCompletenessHtml(pedigree, writer);
 
-            // Which generations each ancestor appears in — a person reached via lines of
-            // different lengths (pedigree collapse) shows up in more than one.
-            Map<String, java.util.TreeSet<Integer>> personGens = new java.util.HashMap<>();
-            for (int gen = 1; gen <= maxGen; gen++) {
-                for (Person p : ancestorsByGen.getOrDefault(gen, new ArrayList<>())) {
-                    personGens.computeIfAbsent(p.getId(), k -> new java.util.TreeSet<>()).add(gen);
-                }
-            }
+            Map<String, java.util.TreeSet<Integer>> personGens = generationsByPerson(ancestorsByGen, maxGen);
 
             for (int gen = 1; gen <= maxGen; gen++) {
                 List<Person> genList = ancestorsByGen.getOrDefault(gen, new ArrayList<>());
@@ -384,13 +913,131 @@ public class GedcomFamilyAnalyzer {
                 writer.println("            <h3>" + ancestorGenLabelPlural(gen) + " (" + collapsed.size() + ")</h3>");
                 for (Map.Entry<Person, Integer> entry : collapsed.entrySet()) {
                     String crossRef = ancestorCrossReference(gen, personGens.get(entry.getKey().getId()));
-                    writePersonEntry(writer, entry.getKey(), entry.getValue(), crossRef);
+                    writePersonEntry(writer, entry.getKey(), entry.getValue(), crossRef,
+                            ahnentafelText(pedigree.getSlots(entry.getKey())));
                 }
                 writer.println("        </div>");
             }
         }
     }
 
+    /** The ANCESTORS lists for the paged report: as above, with the lists as paged data. */
+    private void writeAncestorsPaged(Map<Integer, List<Person>> ancestorsByGen, PedigreeAnalysis pedigree, PrintWriter writer) throws IOException {
+        if (ancestorsByGen.isEmpty()) {
+            writer.println("        <p>No ancestors found.</p>");
+            return;
+        }
+        int maxGen = ancestorsByGen.keySet().stream().max(Integer::compareTo).orElse(1);
+        writePedigreeCompletenessHtml(pedigree, writer);
+        Map<String, java.util.TreeSet<Integer>> personGens = generationsByPerson(ancestorsByGen, maxGen);
+        PagedListWriter.PagedList list = new PagedListWriter.PagedList();
+        for (int gen = 1; gen <= maxGen; gen++) {
+            List<Person> genList = ancestorsByGen.getOrDefault(gen, new ArrayList<>());
+            if (genList.isEmpty()) continue;
+
+            LinkedHashMap<Person, Integer> collapsed = collapseByPerson(genList);
+            list.heading(ancestorGenLabelPlural(gen) + " (" + collapsed.size() + ")");
+            for (Map.Entry<Person, Integer> entry : collapsed.entrySet()) {
+                list.add(entry.getKey(), entry.getValue(),
+                        ancestorCrossReference(gen, personGens.get(entry.getKey().getId())),
+                        ahnentafelText(pedigree.getSlots(entry.getKey())));
+            }
+        }
+        new PagedListWriter().writeSection(writer, list, "ancestor-list");
+    }
+
+    /**
+     * Which generations each ancestor appears in — a person reached via lines of
+     * different lengths (pedigree collapse) shows up in more than one.
+     */
+    private Map<String, java.util.TreeSet<Integer>> generationsByPerson(Map<Integer, List<Person>> ancestorsByGen, int maxGen) {
+        Map<String, java.util.TreeSet<Integer>> personGens = new java.util.HashMap<>();
+        for (int gen = 1; gen <= maxGen; gen++) {
+            for (Person p : ancestorsByGen.getOrDefault(gen, new ArrayList<>())) {
+                personGens.computeIfAbsent(p.getId(), k -> new java.util.TreeSet<>()).add(gen);
+            }
+        }
+        return personGens;
+    }
+
+    /**
+     * Write the pedigree completeness table: per generation, the ahnentafel slots
+     * (2^g), how many are filled by a known ancestor, and how many distinct people
+     * fill them — the gap between the last two is the pedigree collapse.
+     */
+    private void writePedigreeCompletenessHtml(PedigreeAnalysis pedigree, PrintWriter writer) {
+        List<PedigreeAnalysis.GenerationStats> generations = pedigree.getGenerations();
+        if (generations.isEmpty()) {
+            return;
+        }
+        int deepest = generations.get(generations.size() - 1).getGeneration();
+        writer.println("        <div class=\"generation\">");
+        writer.println("            <h3>Pedigree Completeness</h3>");
+        writer.println("            <table class=\"pedigree\">");
+        writer.println("                <tr><th>Generation</th><th>Slots</th><th>Filled</th><th>Empty</th>"
+                + "<th>Distinct</th><th>Complete</th></tr>");
+        for (PedigreeAnalysis.GenerationStats stats : generations) {
+            writer.println("                <tr><td>" + stats.getGeneration() + "</td><td>" + stats.getSlots()
+                    + "</td><td>" + stats.getFilled() + "</td><td>" + stats.getEmpty()
+                    + "</td><td>" + stats.getDistinct() + "</td><td>"
+                    + String.format("%.2f%%", stats.getCompleteness()) + "</td></tr>");
+        }
+        writer.println("            </table>");
+        writer.println("            <p>Overall completeness through generation " + deepest + ": "
+                + String.format("%.4f%%", pedigree.getCompleteness(deepest)) + "; "
+                + pedigree.getCollapsedAncestors().size() + " ancestors fill more than one slot.</p>");
+        writer.println("        </div>");
+    }
+
+    /**
+     * Write the target's ancestors ranked by how many distinct descendants they have in
+     * the data (each descendant counted once however many lines lead to them), with the
+     * generations at which each one is the target's ancestor.
+     */
+    private void writeProlificAncestorsHtml(ReportModel model, PrintWriter writer) {
+        PedigreeAnalysis pedigree = model.pedigree;
+        DescendantCounter counter = model.descendantCounter;
+        List<Person> ranked = model.prolificAncestors;
+        writer.println("        <div class=\"generation\">");
+        writer.println("            <p>Top " + ranked.size() + " of " + pedigree.getAncestors().size()
+                + " ancestors by distinct descendants in this data. Counts above "
+                + counter.getExactThreshold() + " are estimates (&plusmn;"
+                + String.format("%.1f%%", counter.getRelativeError() * 100) + ").</p>");
+        for (Person ancestor : ranked) {
+            StringBuilder position = new StringBuilder();
+            for (int gen : pedigree.getSlots(ancestor).getGenerations()) {
+                if (position.length() > 0) position.append(", ");
+                position.append(ancestorGenLabelSingular(gen));
+            }
+            long count = counter.getCount(ancestor);
+            String detail = (counter.isExact(ancestor) ? "" : "~") + count
+                    + (count == 1 ? " distinct descendant" : " distinct descendants");
+            writePersonEntry(writer, ancestor, 1, position.toString(), detail);
+        }
+        writer.println("        </div>");
+    }
+
+    /** "Ahnentafel #4, #22 (2 slots)" for an ancestor, or "" when unknown. */
+    private String ahnentafelText(PedigreeAnalysis.AncestorSlots slots) {
+        if (slots == null || slots.getNumbers().isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("Ahnentafel ");
+        List<java.math.BigInteger> numbers = slots.getNumbers();
+        for (int i = 0; i < numbers.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append('#').append(numbers.get(i));
+        }
+        java.math.BigInteger multiplicity = slots.getMultiplicity();
+        if (multiplicity.compareTo(java.math.BigInteger.valueOf(numbers.size())) > 0) {
+            sb.append(", ...");
+        }
+        if (multiplicity.compareTo(java.math.BigInteger.ONE) > 0) {
+            sb.append(" (").append(multiplicity).append(" slots)");
+        }
+        return sb.toString();
+    }
+
     /** Section heading for an ancestor generation (e.g. 1 -> "Parents", 12 -> "Great 10 Grandparents"). */
     private String ancestorGenLabelPlural(int gen) {
         if (gen == 1) return "Parents";
@@ -440,8 +1087,7 @@ public class GedcomFamilyAnalyzer {
         return n + suffix;
     }
     
-    private void writeDescendantsHtml(FamilyRelationshipAnalyzer analyzer, Person targetPerson, PrintWriter writer, GedcomData gedcomData) {
-        Map<Integer, List<Person>> descendantsByGen = analyzer.getDescendantsByGeneration(targetPerson);
+    private void writeDescendantsHtml(Map<Integer, List<Person>> descendantsByGen, PrintWriter writer, GedcomData gedcomData) {
 
         if (descendantsByGen.isEmpty()) {
             writer.println("        <p>No descendants found.</p>");
@@ -451,14 +1097,9 @@ public class GedcomFamilyAnalyzer {
                 List<Person> genList = descendantsByGen.getOrDefault(gen, new ArrayList<>());
                 if (genList.isEmpty()) continue;
 
-                String heading;
-                if (gen == 1) heading = "Children";
-                else if (gen == 2) heading = "Grandchildren";
-                else heading = "Great " + (gen - 2) + " Grandchildren";
-
                 LinkedHashMap<Person, Integer> collapsed = collapseByPerson(genList);
                 writer.println("        <div class=\"generation\">");
-                writer.println("            <h3>" + heading + " (" + collapsed.size() + ")</h3>");
+                writer.println("            <h3>" + descendantGenLabel(gen) + " (" + collapsed.size() + ")</h3>");
                 if (gen == 1) {
                     // Children all share the target's own family (already named in the
                     // info header above) — a per-family sub-heading would be redundant.
@@ -480,6 +1121,60 @@ public class GedcomFamilyAnalyzer {
      * different children's families, where a flat list no longer makes clear who's whose.
      */
     private void writeDescendantsGroupedByParentFamily(LinkedHashMap<Person, Integer> people, PrintWriter writer, GedcomData gedcomData) {
+        for (Map.Entry<String, LinkedHashMap<Person, Integer>> familyEntry : groupByParentFamily(people).entrySet()) {
+            LinkedHashMap<Person, Integer> members = familyEntry.getValue();
+            String familyDisplayName = descendantFamilyName(familyEntry.getKey(), gedcomData);
+
+            writer.println("        <div style=\"margin-left: 20px; margin-bottom: 10px;\">");
+            writer.println("            <strong style=\"color: #8e44ad; font-size: 16px;\">Children of "
+                    + familyDisplayName + " (" + members.size() + "):</strong>");
+            for (Map.Entry<Person, Integer> memberEntry : members.entrySet()) {
+                writePersonEntry(writer, memberEntry.getKey(), memberEntry.getValue());
+            }
+            writer.println("        </div>");
+        }
+    }
+    
+    /** The DESCENDANTS lists for the paged report: as above, with the lists as paged data. */
+    private void writeDescendantsPaged(Map<Integer, List<Person>> descendantsByGen, PrintWriter writer, GedcomData gedcomData) throws IOException {
+        if (descendantsByGen.isEmpty()) {
+            writer.println("        <p>No descendants found.</p>");
+            return;
+        }
+        int maxGen = descendantsByGen.keySet().stream().max(Integer::compareTo).orElse(1);
+        PagedListWriter.PagedList list = new PagedListWriter.PagedList();
+        for (int gen = 1; gen <= maxGen; gen++) {
+            List<Person> genList = descendantsByGen.getOrDefault(gen, new ArrayList<>());
+            if (genList.isEmpty()) continue;
+
+            LinkedHashMap<Person, Integer> collapsed = collapseByPerson(genList);
+            list.heading(descendantGenLabel(gen) + " (" + collapsed.size() + ")");
+            if (gen == 1) {
+                for (Map.Entry<Person, Integer> entry : collapsed.entrySet()) {
+                    list.add(entry.getKey(), entry.getValue(), "", "");
+                }
+                continue;
+            }
+            for (Map.Entry<String, LinkedHashMap<Person, Integer>> familyEntry : groupByParentFamily(collapsed).entrySet()) {
+                LinkedHashMap<Person, Integer> members = familyEntry.getValue();
+                list.subheading("Children of " + descendantFamilyName(familyEntry.getKey(), gedcomData)
+                        + " (" + members.size() + "):");
+                for (Map.Entry<Person, Integer> memberEntry : members.entrySet()) {
+                    list.add(memberEntry.getKey(), memberEntry.getValue(), "", "");
+                }
+            }
+        }
+        new PagedListWriter().writeSection(writer, list, "descendant-list");
+    }
+
+    private String descendantGenLabel(int gen) {
+        if (gen == 1) return "Children";
+        if (gen == 2) return "Grandchildren";
+        return "Great " + (gen - 2) + " Grandchildren";
+    }
+
+    /** Group people by the family they are a child of ("" for none), in first-seen order. */
+    private LinkedHashMap<String, LinkedHashMap<Person, Integer>> groupByParentFamily(LinkedHashMap<Person, Integer> people) {
         LinkedHashMap<String, LinkedHashMap<Person, Integer>> byFamily = new LinkedHashMap<>();
         for (Map.Entry<Person, Integer> entry : people.entrySet()) {
             Person person = entry.getKey();
@@ -492,29 +1187,17 @@ public class GedcomFamilyAnalyzer {
                 }
             }
         }
+        return byFamily;
+    }
 
-        for (Map.Entry<String, LinkedHashMap<Person, Integer>> familyEntry : byFamily.entrySet()) {
-            String familyId = familyEntry.getKey();
-            LinkedHashMap<Person, Integer> members = familyEntry.getValue();
-
-            String familyDisplayName = familyId.isEmpty() ? "Unknown Family" : "Family " + familyId;
-            if (!familyId.isEmpty() && gedcomData.getFamily(familyId) != null) {
-                familyDisplayName = gedcomData.getFamily(familyId).getDisplayName();
-            }
-
-            writer.println("        <div style=\"margin-left: 20px; margin-bottom: 10px;\">");
-            writer.println("            <strong style=\"color: #8e44ad; font-size: 16px;\">Children of "
-                    + familyDisplayName + " (" + members.size() + "):</strong>");
-            for (Map.Entry<Person, Integer> memberEntry : members.entrySet()) {
-                writePersonEntry(writer, memberEntry.getKey(), memberEntry.getValue());
-            }
-            writer.println("        </div>");
+    private String descendantFamilyName(String familyId, GedcomData gedcomData) {
+        if (familyId.isEmpty()) {
+            return "Unknown Family";
         }
+        return gedcomData.getFamily(familyId) != null ? gedcomData.getFamily(familyId).getDisplayName() : "Family " + familyId;
     }
-    
-    private void writeSiblingsHtml(FamilyRelationshipAnalyzer analyzer, Person targetPerson, PrintWriter writer) {
-        List<Person> siblings = analyzer.getSiblings(targetPerson);
-        
+
+    private void writeSiblingsHtml(List<Person> siblings, PrintWriter writer) {
         if (siblings.isEmpty()) {
             writer.println("        <p>No siblings found.</p>");
         } else {
@@ -553,76 +1236,132 @@ public class GedcomFamilyAnalyzer {
      * cross-reference note (e.g. "also 19th great-grandparent") for collapsed ancestors.
      */
     private void writePersonEntry(PrintWriter writer, Person person, int count, String crossRef) {
-        String dupMarker = count > 1 ? " <span class=\"dup-count\">(" + count + "x)</span>" : "";
-        String crossRefSpan = (crossRef != null && !crossRef.isEmpty())
-                ? " <span class=\"cross-ref\">— " + crossRef + "</span>" : "";
+        writePersonEntry(writer, person, count, crossRef, "");
+    }
+
+    /**
+     * Write a single person entry as above, plus an optional detail line beneath the
+     * life dates (e.g. an ancestor's ahnentafel numbers).
+     */
+    private void writePersonEntry(PrintWriter writer, Person person, int count, String crossRef, String detail) {
+        // Called once per listed relative — tens of thousands of times for a big family — so
+        // the pieces go straight to the (buffered) writer rather than being concatenated.
         writer.println("            <div class=\"person\">");
-        writer.println("                <span class=\"person-name\">" + person.getDisplayName() + "</span>"
-                + dupMarker + crossRefSpan);
-        writer.println("                <span class=\"person-id\"> (" + person.getId() + ")</span>");
-        if (!person.getLifeDates().isEmpty()) {
-            writer.println("                <div class=\"life-dates\">" + person.getLifeDates() + "</div>");
+        writer.print("                <span class=\"person-name\">");
+        writer.print(person.getDisplayName());
+        writer.print("</span>");
+        if (count > 1) {
+            writer.print(" <span class=\"dup-count\">(");
+            writer.print(count);
+            writer.print("x)</span>");
+        }
+        if (crossRef != null && !crossRef.isEmpty()) {
+            writer.print(" <span class=\"cross-ref\">— ");
+            writer.print(crossRef);
+            writer.print("</span>");
+        }
+        writer.println();
+        writer.print("                <span class=\"person-id\"> (");
+        writer.print(person.getId());
+        writer.println(")</span>");
+        String lifeDates = person.getLifeDates();
+        if (!lifeDates.isEmpty()) {
+            writer.print("                <div class=\"life-dates\">");
+            writer.print(lifeDates);
+            writer.println("</div>");
+        }
+        if (detail != null && !detail.isEmpty()) {
+            writer.print("                <div class=\"ahnentafel\">");
+            writer.print(detail);
+            writer.println("</div>");
         }
         writer.println("            </div>");
     }
 
-    private void writeCousinsHtml(FamilyRelationshipAnalyzer analyzer, Person targetPerson, PrintWriter writer, GedcomData gedcomData) {
-        boolean foundAnyCousins = false;
-        for (int degree = 1; degree <= 6; degree++) {
-            Map<String, List<Person>> groupedCousins = analyzer.getCousinsGroupedByFamily(targetPerson, degree);
-            if (!groupedCousins.isEmpty()) {
-                foundAnyCousins = true;
-                String degreeText = degree == 1 ? "1st" : degree == 2 ? "2nd" : degree == 3 ? "3rd" : degree + "th";
-                
-                // Collapse duplicates within each family group, then count unique cousins.
-                Map<String, LinkedHashMap<Person, Integer>> collapsedGroups = new LinkedHashMap<>();
-                int totalCount = 0;
-                for (Map.Entry<String, List<Person>> entry : groupedCousins.entrySet()) {
-                    LinkedHashMap<Person, Integer> collapsed = collapseByPerson(entry.getValue());
-                    collapsedGroups.put(entry.getKey(), collapsed);
-                    totalCount += collapsed.size();
-                }
-
-                writer.println("        <h3>" + degreeText + " Cousins (" + totalCount + ")</h3>");
+    private void writeCousinsHtml(Map<Integer, Map<String, List<Person>>> cousinsByDegree, PrintWriter writer, GedcomData gedcomData) {
+        for (Map.Entry<Integer, Map<String, List<Person>>> degreeEntry : cousinsByDegree.entrySet()) {
+            int degree = degreeEntry.getKey();
+            Map<String, List<Person>> groupedCousins = degreeEntry.getValue();
+            Map<String, LinkedHashMap<Person, Integer>> collapsedGroups = collapseCousinGroups(groupedCousins);
+            writer.println("        <h3>" + cousinHeading(degree, collapsedGroups) + "</h3>");
 
-                for (Map.Entry<String, LinkedHashMap<Person, Integer>> entry : collapsedGroups.entrySet()) {
-                    String familyId = entry.getKey();
-                    LinkedHashMap<Person, Integer> cousins = entry.getValue();
+            for (Map.Entry<String, LinkedHashMap<Person, Integer>> entry : collapsedGroups.entrySet()) {
+                LinkedHashMap<Person, Integer> cousins = entry.getValue();
+                String familyDisplayName = cousinFamilyName(entry.getKey(), gedcomData);
 
-                    // Get family display name
-                    String familyDisplayName = "Family " + familyId;
-                    if (gedcomData.getFamily(familyId) != null) {
-                        familyDisplayName = gedcomData.getFamily(familyId).getDisplayName();
-                    }
-
-                    if (cousins.size() > 1) {
-                        writer.println("        <div style=\"margin-left: 20px; margin-bottom: 10px;\">");
-                        writer.println("            <strong style=\"color: #8e44ad; font-size: 16px;\">Children of " + familyDisplayName + " (" + cousins.size() + " cousins):</strong>");
-                    } else {
-                        writer.println("        <div style=\"margin-left: 20px; margin-bottom: 10px;\">");
-                        writer.println("            <strong style=\"color: #8e44ad; font-size: 16px;\">Children of " + familyDisplayName + ":</strong>");
-                    }
+                if (cousins.size() > 1) {
+                    writer.println("        <div style=\"margin-left: 20px; margin-bottom: 10px;\">");
+                    writer.println("            <strong style=\"color: #8e44ad; font-size: 16px;\">Children of " + familyDisplayName + " (" + cousins.size() + " cousins):</strong>");
+                } else {
+                    writer.println("        <div style=\"margin-left: 20px; margin-bottom: 10px;\">");
+                    writer.println("            <strong style=\"color: #8e44ad; font-size: 16px;\">Children of " + familyDisplayName + ":</strong>");
+                }
 
-                    for (Map.Entry<Person, Integer> cousinEntry : cousins.entrySet()) {
-                        writePersonEntry(writer, cousinEntry.getKey(), cousinEntry.getValue());
-                    }
-                    writer.println("        </div>");
+                for (Map.Entry<Person, Integer> cousinEntry : cousins.entrySet()) {
+                    writePersonEntry(writer, cousinEntry.getKey(), cousinEntry.getValue());
                 }
+                writer.println("        </div>");
             }
         }
         
-        if (!foundAnyCousins) {
+        if (cousinsByDegree.isEmpty()) {
             writer.println("        <p>No cousins found.</p>");
         }
     }
 
+    /** The COUSINS lists for the paged report: as above, with the lists as paged data. */
+    private void writeCousinsPaged(Map<Integer, Map<String, List<Person>>> cousinsByDegree, PrintWriter writer, GedcomData gedcomData) throws IOException {
+        if (cousinsByDegree.isEmpty()) {
+            writer.println("        <p>No cousins found.</p>");
+            return;
+        }
+        PagedListWriter.PagedList list = new PagedListWriter.PagedList();
+        for (Map.Entry<Integer, Map<String, List<Person>>> degreeEntry : cousinsByDegree.entrySet()) {
+            Map<String, LinkedHashMap<Person, Integer>> collapsedGroups = collapseCousinGroups(degreeEntry.getValue());
+            list.heading(cousinHeading(degreeEntry.getKey(), collapsedGroups));
+            for (Map.Entry<String, LinkedHashMap<Person, Integer>> entry : collapsedGroups.entrySet()) {
+                LinkedHashMap<Person, Integer> cousins = entry.getValue();
+                String familyDisplayName = cousinFamilyName(entry.getKey(), gedcomData);
+                list.subheading("Children of " + familyDisplayName
+                        + (cousins.size() > 1 ? " (" + cousins.size() + " cousins):" : ":"));
+                for (Map.Entry<Person, Integer> cousinEntry : cousins.entrySet()) {
+                    list.add(cousinEntry.getKey(), cousinEntry.getValue(), "", "");
+                }
+            }
+        }
+        new PagedListWriter().writeSection(writer, list, "cousin-list");
+    }
+
+    /** Collapse duplicates within each family group of one cousin degree. */
+    private Map<String, LinkedHashMap<Person, Integer>> collapseCousinGroups(Map<String, List<Person>> groupedCousins) {
+        Map<String, LinkedHashMap<Person, Integer>> collapsedGroups = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Person>> entry : groupedCousins.entrySet()) {
+            collapsedGroups.put(entry.getKey(), collapseByPerson(entry.getValue()));
+        }
+        return collapsedGroups;
+    }
+
+    /** "2nd Cousins (40)", counting unique cousins across the degree's family groups. */
+    private String cousinHeading(int degree, Map<String, LinkedHashMap<Person, Integer>> collapsedGroups) {
+        String degreeText = degree == 1 ? "1st" : degree == 2 ? "2nd" : degree == 3 ? "3rd" : degree + "th";
+        int totalCount = 0;
+        for (LinkedHashMap<Person, Integer> collapsed : collapsedGroups.values()) {
+            totalCount += collapsed.size();
+        }
+        return degreeText + " Cousins (" + totalCount + ")";
+    }
+
+    private String cousinFamilyName(String familyId, GedcomData gedcomData) {
+        return gedcomData.getFamily(familyId) != null ? gedcomData.getFamily(familyId).getDisplayName() : "Family " + familyId;
+    }
+
     private void displayAncestors(FamilyRelationshipAnalyzer analyzer, Person targetPerson) {
-        System.out.println("ANCESTORS:");
-        System.out.println("----------");
+        reporter.info("ANCESTORS:");
+        reporter.info("----------");
         Map<Integer, List<Person>> ancestorsByGen = analyzer.getAncestorsByGeneration(targetPerson);
         
         if (ancestorsByGen.isEmpty()) {
-            System.out.println("No ancestors found.");
+            reporter.info("No ancestors found.");
         } else {
             int maxGen = ancestorsByGen.keySet().stream().max(Integer::compareTo).orElse(1);
             for (int gen = 1; gen <= maxGen; gen++) {
@@ -632,28 +1371,28 @@ public class GedcomFamilyAnalyzer {
                 if (gen == 1) heading = "Parents:";
                 else if (gen == 2) heading = "Grandparents:";
                 else heading = "Great_" + (gen - 2) + "_Grandparents:";
-                System.out.println(heading);
+                reporter.info(heading);
                 for (Person ancestor : genList) {
-                    System.out.println("  " + ancestor.getDisplayName() + " (" + ancestor.getId() + ")");
+                    reporter.info("  " + ancestor.getDisplayName() + " (" + ancestor.getId() + ")");
                     if (!ancestor.getLifeDates().isEmpty()) {
-                        System.out.println("    " + ancestor.getLifeDates());
+                        reporter.info("    " + ancestor.getLifeDates());
                     }
                 }
             }
         }
-        System.out.println();
+        reporter.info("");
     }
     
     /**
      * Display descendants of the target person.
      */
     private void displayDescendants(FamilyRelationshipAnalyzer analyzer, Person targetPerson) {
-        System.out.println("DESCENDANTS:");
-        System.out.println("------------");
+        reporter.info("DESCENDANTS:");
+        reporter.info("------------");
         Map<Integer, List<Person>> descendantsByGen = analyzer.getDescendantsByGeneration(targetPerson);
         
         if (descendantsByGen.isEmpty()) {
-            System.out.println("No descendants found.");
+            reporter.info("No descendants found.");
         } else {
             int maxGen = descendantsByGen.keySet().stream().max(Integer::compareTo).orElse(1);
             for (int gen = 1; gen <= maxGen; gen++) {
@@ -663,45 +1402,45 @@ public class GedcomFamilyAnalyzer {
                 if (gen == 1) heading = "Children:";
                 else if (gen == 2) heading = "Grandchildren:";
                 else heading = "Great_" + (gen - 2) + "_Grandchildren:";
-                System.out.println(heading);
+                reporter.info(heading);
                 for (Person descendant : genList) {
-                    System.out.println("  " + descendant.getDisplayName() + " (" + descendant.getId() + ")");
+                    reporter.info("  " + descendant.getDisplayName() + " (" + descendant.getId() + ")");
                     if (!descendant.getLifeDates().isEmpty()) {
-                        System.out.println("    " + descendant.getLifeDates());
+                        reporter.info("    " + descendant.getLifeDates());
                     }
                 }
             }
         }
-        System.out.println();
+        reporter.info("");
     }
     
     /**
      * Display siblings of the target person.
      */
     private void displaySiblings(FamilyRelationshipAnalyzer analyzer, Person targetPerson) {
-        System.out.println("SIBLINGS:");
-        System.out.println("---------");
+        reporter.info("SIBLINGS:");
+        reporter.info("---------");
         
         List<Person> siblings = analyzer.getSiblings(targetPerson);
         if (siblings.isEmpty()) {
-            System.out.println("No siblings found.");
+            reporter.info("No siblings found.");
         } else {
             for (Person sibling : siblings) {
-                System.out.println("  " + sibling.getDisplayName() + " (" + sibling.getId() + ")");
+                reporter.info("  " + sibling.getDisplayName() + " (" + sibling.getId() + ")");
                 if (!sibling.getLifeDates().isEmpty()) {
-                    System.out.println("    " + sibling.getLifeDates());
+                    reporter.info("    " + sibling.getLifeDates());
                 }
             }
         }
-        System.out.println();
+        reporter.info("");
     }
     
     /**
      * Display cousins of the target person (1st through 6th cousins).
      */
     private void displayCousins(FamilyRelationshipAnalyzer analyzer, Person targetPerson, GedcomData gedcomData) {
-        System.out.println("COUSINS:");
-        System.out.println("--------");
+        reporter.info("COUSINS:");
+        reporter.info("--------");
         
         boolean foundAnyCousins = false;
         for (int degree = 1; degree <= 6; degree++) {
@@ -716,7 +1455,7 @@ public class GedcomFamilyAnalyzer {
                     totalCount += cousins.size();
                 }
                 
-                System.out.println(degreeText + " Cousins (" + totalCount + "):");
+                reporter.info(degreeText + " Cousins (" + totalCount + "):");
                 
                 for (Map.Entry<String, List<Person>> entry : groupedCousins.entrySet()) {
                     String familyId = entry.getKey();
@@ -729,28 +1468,36 @@ public class GedcomFamilyAnalyzer {
                     }
                     
                     if (cousins.size() > 1) {
-                        System.out.println("  Children of " + familyDisplayName + " (" + cousins.size() + " cousins):");
+                        reporter.info("  Children of " + familyDisplayName + " (" + cousins.size() + " cousins):");
                     } else {
-                        System.out.println("  Children of " + familyDisplayName + ":");
+                        reporter.info("  Children of " + familyDisplayName + ":");
                     }
                     
                     for (Person cousin : cousins) {
-                        System.out.println("    " + cousin.getDisplayName() + " (" + cousin.getId() + ")");
+                        reporter.info("    " + cousin.getDisplayName() + " (" + cousin.getId() + ")");
                         if (!cousin.getLifeDates().isEmpty()) {
-                            System.out.println("      " + cousin.getLifeDates());
+                            reporter.info("      " + cousin.getLifeDates());
                         }
                     }
                 }
-                System.out.println();
+                reporter.info("");
             }
         }
         
         if (!foundAnyCousins) {
-            System.out.println("No cousins found.");
-            System.out.println();
+            reporter.info("No cousins found.");
+            reporter.info("");
         }
     }
     
+    /**
+     * Format a kinship/inbreeding coefficient with its "1 in N" equivalent, which is easier
+     * to compare at a glance (e.g. "0.015625 (1 in 64)").
+     */
+    private String formatCoefficient(double value) {
+        return String.format("%.6f (1 in %d)", value, Math.round(1.0 / value));
+    }
+
     /**
      * Get the text representation of a cousin degree.
      */
@@ -1,11 +1,14 @@
 package com.wanderingjew.gedcomanalyzer;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -14,6 +17,10 @@ import java.util.regex.Pattern;
  */
 public class GedcomParser {
     private static final Pattern GEDCOM_LINE_PATTERN = Pattern.compile("^(\\d+)\\s+(@([^@]+)@\\s+)?([A-Z_]+)\\s*(.*)$");
+    // Compiled once: they run on every name and place, and String.matches compiles per call.
+    private static final Pattern ASCII = Pattern.compile("^[\\x00-\\x7F\\s]*$");
+    private static final Pattern ASCII_NONEMPTY = Pattern.compile("^[\\x00-\\x7F\\s]+$");
+    private static final Pattern ASCII_NAME = Pattern.compile("^[\\x00-\\x7F\\s/]+$");
     
     private Map<String, Person> persons = new HashMap<>();
     private Map<String, Family> families = new HashMap<>();
@@ -22,6 +29,23 @@ public class GedcomParser {
     // from a multi-line ADDR block (CITY/STAE/CTRY) rather than a single PLAC.
     private boolean birthPlaceFromAddr = false;
     private boolean deathPlaceFromAddr = false;
+
+    // The record the current line belongs to, and the enclosing tags at levels 1-3.
+    private String currentId;
+    private String currentTag;
+    private String currentLevel2Tag;
+    private String currentLevel3Tag;
+    private boolean skipCurrentRecord;
+
+    private Reporter reporter = Reporter.direct(System.out);
+
+    /**
+     * Where the "Parsing file" lines of {@link #parseMultipleFiles} go; by default straight
+     * to {@code System.out}.
+     */
+    public void setReporter(Reporter reporter) {
+        this.reporter = reporter;
+    }
     
     /**
      * Parse a GEDCOM file and return the parsed data.
@@ -43,6 +67,7 @@ public class GedcomParser {
      * If existingData is null, starts fresh. If not null, merges with existing data.
      * @param buildRelationshipsNow if true, build relationships after parsing this file
      */
+    @SuppressWarnings("try")
     public GedcomData parseFile(String filePath, GedcomData existingData, boolean buildRelationshipsNow) throws IOException {
         if (existingData == null) {
             persons.clear();
@@ -52,15 +77,15 @@ public class GedcomParser {
             families = new HashMap<>(existingData.getFamilies());
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+        FlightEvents.Parse event = new FlightEvents.Parse();
+        event.begin();
+        int lineCount = 0;
+        try (Timings.Phase ignored = Timings.phase("parse " + new File(filePath).getName());
+             BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            startFile();
             String line;
-            String currentId = null;
-            String currentTag = null;
-            String currentLevel2Tag = null;
-            String currentLevel3Tag = null;
-            boolean skipCurrentRecord = false;
-            
             while ((line = reader.readLine()) != null) {
+                lineCount++;
                 line = line.trim();
                 if (line.isEmpty()) {
                     continue;
@@ -71,63 +96,22 @@ public class GedcomParser {
                     continue;
                 }
                 
-                int level = Integer.parseInt(matcher.group(1));
-                String id = matcher.group(3);
-                String tag = matcher.group(4);
-                String value = matcher.group(5);
-                
-                // Handle level 0 records (individuals and families)
-                if (level == 0) {
-                    // Starting a new record: reset per-record place assembly state.
-                    birthPlaceFromAddr = false;
-                    deathPlaceFromAddr = false;
-                    currentTag = null;
-                    currentLevel2Tag = null;
-                    if (id != null) {
-                        currentId = id;
-                        // Check if this ID already exists
-                        if (persons.containsKey(currentId) || families.containsKey(currentId)) {
-                            // Record exists, but we'll merge additional data if it's incomplete
-                            skipCurrentRecord = false;
-                        } else {
-                            skipCurrentRecord = false;
-                            if (tag.equals("INDI")) {
-                                persons.put(currentId, new Person(currentId));
-                            } else if (tag.equals("FAM")) {
-                                families.put(currentId, new Family(currentId));
-                            }
-                        }
-                    }
-                } else if (level == 1) {
-                    currentTag = tag;
-                    currentLevel2Tag = null;
-                    currentLevel3Tag = null;
-                    if (currentId != null && !skipCurrentRecord) {
-                        processLevel1Tag(currentId, tag, value);
-                    }
-                } else if (level == 2) {
-                    currentLevel2Tag = tag;
-                    currentLevel3Tag = null;
-                    if (currentId != null && currentTag != null && !skipCurrentRecord) {
-                        processLevel2Tag(currentId, currentTag, tag, value);
-                    }
-                } else if (level == 3) {
-                    currentLevel3Tag = tag;
-                    if (currentId != null && currentTag != null && currentLevel2Tag != null && !skipCurrentRecord) {
-                        processLevel3Tag(currentId, currentTag, currentLevel2Tag, tag, value);
-                    }
-                } else if (level == 4) {
-                    if (currentId != null && currentTag != null && currentLevel2Tag != null
-                            && currentLevel3Tag != null && !skipCurrentRecord) {
-                        processLevel4Tag(currentId, currentTag, currentLevel2Tag, currentLevel3Tag, tag, value);
-                    }
-                }
+                processLine(Integer.parseInt(matcher.group(1)), matcher.group(3), matcher.group(4), matcher.group(5));
             }
         }
         
+        if (event.shouldCommit()) {
+            event.file = filePath;
+            event.bytes = new File(filePath).length();
+            event.lines = lineCount;
+            event.persons = persons.size();
+            event.families = families.size();
+            event.commit();
+        }
+
         // Build relationships only if requested
         if (buildRelationshipsNow) {
-            buildRelationships();
+            linkRelationships();
         }
         
         return new GedcomData(persons, families);
@@ -141,7 +125,7 @@ public class GedcomParser {
         GedcomData combinedData = null;
         
         for (String filePath : filePaths) {
-            System.out.println("Parsing file: " + filePath);
+            reporter.info("Parsing file: " + filePath);
             // Don't build relationships until all files are parsed
             combinedData = parseFile(filePath, combinedData, false);
         }
@@ -150,12 +134,174 @@ public class GedcomParser {
         if (combinedData != null) {
             persons = new HashMap<>(combinedData.getPersons());
             families = new HashMap<>(combinedData.getFamilies());
-            buildRelationships();
+            linkRelationships();
             combinedData = new GedcomData(persons, families);
         }
         
         return combinedData;
     }
+
+    /**
+     * A GEDCOM file read and split into lines, held in memory so the file can be merged into
+     * a new parse again without re-reading it (see {@link #parseLines}). Watch mode keeps
+     * one per file and re-reads only the files that change.
+     */
+    public static final class FileLines {
+        private final String path;
+        private final List<Line> lines;
+
+        private FileLines(String path, List<Line> lines) {
+            this.path = path;
+            this.lines = lines;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public int getLineCount() {
+            return lines.size();
+        }
+
+        /** True if both files hold the same GEDCOM lines (line endings and blank lines aside). */
+        public boolean sameLines(FileLines other) {
+            return other != null && lines.equals(other.lines);
+        }
+    }
+
+    /** One GEDCOM line: level, record id (level 0 only, else null), tag and value. */
+    private static final class Line {
+        final int level;
+        final String id;
+        final String tag;
+        final String value;
+
+        Line(int level, String id, String tag, String value) {
+            this.level = level;
+            this.id = id;
+            this.tag = tag;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Line)) {
+                return false;
+            }
+            Line other = (Line) o;
+            return level == other.level && Objects.equals(id, other.id) && tag.equals(other.tag)
+                    && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, id, tag, value);
+        }
+    }
+
+    /**
+     * Read a GEDCOM file into memory as {@link FileLines}, without merging it into anything.
+     */
+    @SuppressWarnings("try")
+    public static FileLines readLines(String filePath) throws IOException {
+        List<Line> lines = new ArrayList<>();
+        try (Timings.Phase ignored = Timings.phase("read " + new File(filePath).getName());
+             BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = GEDCOM_LINE_PATTERN.matcher(line.trim());
+                if (matcher.matches()) {
+                    lines.add(new Line(Integer.parseInt(matcher.group(1)), matcher.group(3), matcher.group(4),
+                            matcher.group(5)));
+                }
+            }
+        }
+        return new FileLines(filePath, lines);
+    }
+
+    /**
+     * Build fresh data from files already read with {@link #readLines}, merged in the given
+     * order exactly as {@link #parseMultipleFiles} would merge the files themselves.
+     */
+    @SuppressWarnings("try")
+    public GedcomData parseLines(List<FileLines> files) {
+        persons = new HashMap<>();
+        families = new HashMap<>();
+        try (Timings.Phase ignored = Timings.phase("merge files")) {
+            for (FileLines file : files) {
+                startFile();
+                for (Line line : file.lines) {
+                    processLine(line.level, line.id, line.tag, line.value);
+                }
+            }
+        }
+        linkRelationships();
+        return new GedcomData(persons, families);
+    }
+
+    /**
+     * Reset the per-file record state before the first line of a file.
+     */
+    private void startFile() {
+        currentId = null;
+        currentTag = null;
+        currentLevel2Tag = null;
+        currentLevel3Tag = null;
+        skipCurrentRecord = false;
+    }
+
+    /**
+     * Process one GEDCOM line, already split into level, record id (level 0 only), tag
+     * and value, against the record it belongs to.
+     */
+    private void processLine(int level, String id, String tag, String value) {
+        // Handle level 0 records (individuals and families)
+        if (level == 0) {
+            // Starting a new record: reset per-record place assembly state.
+            birthPlaceFromAddr = false;
+            deathPlaceFromAddr = false;
+            currentTag = null;
+            currentLevel2Tag = null;
+            if (id != null) {
+                currentId = id;
+                // Check if this ID already exists
+                if (persons.containsKey(currentId) || families.containsKey(currentId)) {
+                    // Record exists, but we'll merge additional data if it's incomplete
+                    skipCurrentRecord = false;
+                } else {
+                    skipCurrentRecord = false;
+                    if (tag.equals("INDI")) {
+                        persons.put(currentId, new Person(currentId));
+                    } else if (tag.equals("FAM")) {
+                        families.put(currentId, new Family(currentId));
+                    }
+                }
+            }
+        } else if (level == 1) {
+            currentTag = tag;
+            currentLevel2Tag = null;
+            currentLevel3Tag = null;
+            if (currentId != null && !skipCurrentRecord) {
+                processLevel1Tag(currentId, tag, value);
+            }
+        } else if (level == 2) {
+            currentLevel2Tag = tag;
+            currentLevel3Tag = null;
+            if (currentId != null && currentTag != null && !skipCurrentRecord) {
+                processLevel2Tag(currentId, currentTag, tag, value);
+            }
+        } else if (level == 3) {
+            currentLevel3Tag = tag;
+            if (currentId != null && currentTag != null && currentLevel2Tag != null && !skipCurrentRecord) {
+                processLevel3Tag(currentId, currentTag, currentLevel2Tag, tag, value);
+            }
+        } else if (level == 4) {
+            if (currentId != null && currentTag != null && currentLevel2Tag != null
+                    && currentLevel3Tag != null && !skipCurrentRecord) {
+                processLevel4Tag(currentId, currentTag, currentLevel2Tag, currentLevel3Tag, tag, value);
+            }
+        }
+    }
     
     /**
      * Process level 1 tags for individuals and families.
@@ -182,6 +328,13 @@ public class GedcomParser {
                 case "FAMC":
                     person.addFamilyAsChild(cleanId(value));
                     break;
+                case "RFN":
+                case "REFN":
+                    // Written by GedcomWriter for Geni-fetched people; see Person#getGeniGuid.
+                    if (value != null && value.startsWith("geni:") && value.length() > 5) {
+                        person.setGeniGuid(value.substring(5).trim());
+                    }
+                    break;
             }
         } else if (families.containsKey(id)) {
             Family family = families.get(id);
@@ -421,7 +574,7 @@ public class GedcomParser {
 
     /** True if the value contains non-ASCII (e.g. Hebrew) characters. */
     private boolean isForeign(String value) {
-        return value != null && !value.matches("^[\\x00-\\x7F\\s]*$");
+        return value != null && !ASCII.matcher(value).matches();
     }
 
     /**
@@ -439,17 +592,17 @@ public class GedcomParser {
      */
     private void parseName(Person person, String nameValue) {
         // Check if this name contains non-ASCII characters (likely Hebrew/foreign)
-        boolean isForeignName = !nameValue.matches("^[\\x00-\\x7F\\s/]+$");
+        boolean isForeignName = !ASCII_NAME.matcher(nameValue).matches();
         
         // If we already have an English name and this is a foreign name, skip it
         if (isForeignName && person.getGivenName() != null && 
-            person.getGivenName().matches("^[\\x00-\\x7F\\s]+$")) {
+            ASCII_NONEMPTY.matcher(person.getGivenName()).matches()) {
             return;
         }
         
         // If we already have a foreign name and this is an English name, use the English one
         if (!isForeignName && person.getGivenName() != null && 
-            !person.getGivenName().matches("^[\\x00-\\x7F\\s]+$")) {
+            !ASCII_NONEMPTY.matcher(person.getGivenName()).matches()) {
             // Clear existing foreign name data
             person.setGivenName(null);
             person.setSurname(null);
@@ -484,6 +637,30 @@ public class GedcomParser {
         }
     }
     
+    /**
+     * Link the persons and families of data built in memory rather than parsed (such as a
+     * Geni fetch) to their parents, spouses, siblings and children, as parsing does, so it
+     * can be analyzed directly. Returns {@code data}, now linked.
+     */
+    public GedcomData link(GedcomData data) {
+        persons = data.getPersons();
+        families = data.getFamilies();
+        linkRelationships();
+        return data;
+    }
+
+    @SuppressWarnings("try")
+    private void linkRelationships() {
+        FlightEvents.Link event = new FlightEvents.Link();
+        event.begin();
+        try (Timings.Phase ignored = Timings.phase("link relationships")) {
+            buildRelationships();
+        }
+        event.persons = persons.size();
+        event.families = families.size();
+        event.commit();
+    }
+
     /**
      * Build relationships between persons and families.
      */
@@ -566,6 +743,6 @@ public class GedcomParser {
         if (id == null) {
             return null;
         }
-        return id.replaceAll("@", "");
+        return id.replace("@", "");
     }
 } 
\ No newline at end of file
@@ -17,8 +17,12 @@ public class GedcomWriter {
     /**
      * Write the given data to a GEDCOM file at the supplied path.
      */
+    @SuppressWarnings("try")
     public void write(GedcomData data, String outputPath) throws IOException {
-        try (Writer w = Files.newBufferedWriter(Paths.get(outputPath), StandardCharsets.UTF_8);
+        FlightEvents.Write event = new FlightEvents.Write();
+        event.begin();
+        try (Timings.Phase ignored = Timings.phase("write GEDCOM");
+             Writer w = Files.newBufferedWriter(Paths.get(outputPath), StandardCharsets.UTF_8);
              PrintWriter out = new PrintWriter(w)) {
 
             writeHeader(out);
@@ -32,6 +36,13 @@ public class GedcomWriter {
 
             out.println("0 TRLR");
         }
+        if (event.shouldCommit()) {
+            event.file = outputPath;
+            event.persons = data.getPersonCount();
+            event.families = data.getFamilyCount();
+            event.bytes = Files.size(Paths.get(outputPath));
+            event.commit();
+        }
     }
 
     private void writeHeader(PrintWriter out) {
@@ -44,7 +55,7 @@ public class GedcomWriter {
     }
 
     private void writeIndividual(PrintWriter out, Person person) {
-        out.println("0 @I" + person.getId() + "@ INDI");
+        out.println("0 " + xref("I", person.getId()) + " INDI");
 
         String given = trim(person.getGivenName());
         String surname = trim(person.getSurname());
@@ -77,13 +88,16 @@ public class GedcomWriter {
                 person.getCurrentLatitude(), person.getCurrentLongitude());
 
         for (String famId : person.getFamilyIdsAsChild()) {
-            out.println("1 FAMC @F" + famId + "@");
+            out.println("1 FAMC " + xref("F", famId));
         }
         for (String famId : person.getFamilyIdsAsSpouse()) {
-            out.println("1 FAMS @F" + famId + "@");
+            out.println("1 FAMS " + xref("F", famId));
         }
 
-        out.println("1 RFN geni:" + person.getId());
+        String guid = person.getGeniGuid();
+        if (guid != null) {
+            out.println("1 RFN geni:" + guid);
+        }
     }
 
     private void writeEvent(PrintWriter out, String tag, String date, String place,
@@ -119,15 +133,15 @@ public class GedcomWriter {
     }
 
     private void writeFamily(PrintWriter out, Family family) {
-        out.println("0 @F" + family.getId() + "@ FAM");
+        out.println("0 " + xref("F", family.getId()) + " FAM");
         if (trim(family.getHusbandId()) != null) {
-            out.println("1 HUSB @I" + family.getHusbandId() + "@");
+            out.println("1 HUSB " + xref("I", family.getHusbandId()));
         }
         if (trim(family.getWifeId()) != null) {
-            out.println("1 WIFE @I" + family.getWifeId() + "@");
+            out.println("1 WIFE " + xref("I", family.getWifeId()));
         }
         for (String childId : family.getChildrenIds()) {
-            out.println("1 CHIL @I" + childId + "@");
+            out.println("1 CHIL " + xref("I", childId));
         }
         String marrDate = trim(family.getMarriageDate());
         String marrPlace = trim(family.getMarriagePlace());
@@ -146,6 +160,15 @@ public class GedcomWriter {
         }
     }
 
+    /**
+     * GEDCOM cross-reference for an id. Ids from the Geni fetcher are bare guids and get
+     * the "I"/"F" prefix; ids parsed from a GEDCOM (e.g. when re-writing a split-off
+     * component) already carry it and are kept as they are, so they round-trip unchanged.
+     */
+    private static String xref(String prefix, String id) {
+        return "@" + (id.startsWith(prefix) ? id : prefix + id) + "@";
+    }
+
     private static String trim(String s) {
         if (s == null) {
             return null;
@@ -0,0 +1,112 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily walks a person's ancestors or descendants breadth-first, one generation at a
+ * time, expanding the frontier only as far as the caller reads. Asking for the first 50
+ * descendants of a founder visits a few generations, not the whole tree; counting walks
+ * everyone but keeps only the frontier and a visited set, never a result list.
+ *
+ * <p>Each relative is returned once, at the shallowest generation they occur (the same
+ * rule as {@link FamilyRelationshipAnalyzer#getAncestorsByGeneration}), and
+ * {@link #getGeneration()} tells which generation the last one came from.
+ */
+public class GenerationIterator implements Iterator<Person> {
+
+    private final Function<Person, List<Person>> step;
+    private final int maxGenerations;
+    private final Set<Person> seen = new HashSet<>();
+
+    // People of the previous generation, whose relatives are being returned now.
+    private List<Person> sources;
+    private List<Person> nextSources = new ArrayList<>();
+    private int sourceIndex;
+    private Iterator<Person> relatives = Collections.emptyIterator();
+    private int generation = 1;
+    private int lastGeneration;
+    private Person pending;
+
+    /**
+     * @param step           the relatives one generation away (parents or children)
+     * @param maxGenerations stop after this many generations; 0 for no limit
+     */
+    GenerationIterator(Person start, Function<Person, List<Person>> step, int maxGenerations) {
+        this.step = step;
+        this.maxGenerations = maxGenerations;
+        this.sources = start == null ? Collections.emptyList() : Collections.singletonList(start);
+        if (start != null) {
+            seen.add(start);
+        }
+    }
+
+    /** Ancestors, parents first. */
+    public static GenerationIterator ancestors(Person person, int maxGenerations) {
+        return new GenerationIterator(person, Person::getParents, maxGenerations);
+    }
+
+    /** Descendants, children first. */
+    public static GenerationIterator descendants(Person person, int maxGenerations) {
+        return new GenerationIterator(person, Person::getChildren, maxGenerations);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (pending == null) {
+            if (relatives.hasNext()) {
+                Person relative = relatives.next();
+                if (seen.add(relative)) {
+                    pending = relative;
+                    nextSources.add(relative);
+                }
+            } else if (sourceIndex < sources.size()) {
+                relatives = step.apply(sources.get(sourceIndex++)).iterator();
+            } else if (!nextSources.isEmpty() && (maxGenerations <= 0 || generation < maxGenerations)) {
+                sources = nextSources;
+                nextSources = new ArrayList<>();
+                sourceIndex = 0;
+                generation++;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Person next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Person next = pending;
+        pending = null;
+        lastGeneration = generation;
+        return next;
+    }
+
+    /** Generation of the person last returned by {@link #next()}: 1 = parents/children. */
+    public int getGeneration() {
+        return lastGeneration;
+    }
+
+    /** A sequential, ordered stream over the remaining relatives. */
+    public Stream<Person> stream() {
+        return toStream(this);
+    }
+
+    static Stream<Person> toStream(Iterator<Person> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+}
@@ -0,0 +1,116 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * One breadth-first walk of a person's ancestors or descendants that feeds every
+ * registered {@link Visitor}, so several analyses — the generation lists, map points,
+ * statistics, counters — share a single traversal instead of each walking the graph
+ * themselves.
+ *
+ * <p>The walk is the one {@link FamilyRelationshipAnalyzer#getAncestorsByGeneration}
+ * always used: the start person is visited at generation 0, then each relative at every
+ * generation they occur in (so a collapsed ancestor reached by lines of different lengths
+ * is visited more than once), with {@code first} set only on the shallowest occurrence.
+ * Only first occurrences are expanded further. Visitors see events in the same order, and
+ * all visitors see one event before any sees the next.
+ */
+public class GenerationWalk {
+
+    /** Receives each (person, generation) occurrence of a walk. */
+    public interface Visitor {
+        /**
+         * @param generation 0 for the start person, 1 for parents (or children), ...
+         * @param first      true the first time this person is reached — their shallowest
+         *                   generation; false for repeat occurrences under pedigree collapse
+         */
+        void visit(Person person, int generation, boolean first);
+    }
+
+    private final Person start;
+    private final Function<Person, List<Person>> step;
+    private final List<Visitor> visitors = new ArrayList<>();
+
+    /**
+     * @param step the relatives one generation away (parents or children)
+     */
+    GenerationWalk(Person start, Function<Person, List<Person>> step) {
+        this.start = start;
+        this.step = step;
+    }
+
+    /** A walk up through parents. */
+    public static GenerationWalk ancestors(Person person) {
+        return new GenerationWalk(person, Person::getParents);
+    }
+
+    /** A walk down through children. */
+    public static GenerationWalk descendants(Person person) {
+        return new GenerationWalk(person, Person::getChildren);
+    }
+
+    /** Register a visitor; returns this walk, for chaining. */
+    public GenerationWalk with(Visitor visitor) {
+        visitors.add(visitor);
+        return this;
+    }
+
+    /** Walk once, feeding every visitor. */
+    public void run() {
+        if (start == null) {
+            return;
+        }
+        Set<Person> expanded = new HashSet<>();
+        expanded.add(start);
+        emit(start, 0, true);
+        List<Person> frontier = new ArrayList<>();
+        frontier.add(start);
+        int generation = 0;
+        while (!frontier.isEmpty()) {
+            List<Person> next = new ArrayList<>();
+            for (Person p : frontier) {
+                for (Person relative : step.apply(p)) {
+                    boolean first = expanded.add(relative);
+                    emit(relative, generation + 1, first);
+                    if (first) {
+                        next.add(relative);
+                    }
+                }
+            }
+            frontier = next;
+            generation++;
+        }
+    }
+
+    private void emit(Person person, int generation, boolean first) {
+        for (Visitor visitor : visitors) {
+            visitor.visit(person, generation, first);
+        }
+    }
+
+    /**
+     * Collects relatives by generation, every occurrence included — the shape of
+     * {@link FamilyRelationshipAnalyzer#getAncestorsByGeneration}. The start person
+     * (generation 0) is left out.
+     */
+    public static class ByGeneration implements Visitor {
+        private final Map<Integer, List<Person>> byGeneration = new HashMap<>();
+
+        @Override
+        public void visit(Person person, int generation, boolean first) {
+            if (generation > 0) {
+                byGeneration.computeIfAbsent(generation, k -> new ArrayList<>()).add(person);
+            }
+        }
+
+        public Map<Integer, List<Person>> getByGeneration() {
+            return byGeneration;
+        }
+    }
+}
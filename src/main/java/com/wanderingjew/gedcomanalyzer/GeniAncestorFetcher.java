@@ -34,6 +34,16 @@ public class GeniAncestorFetcher {
             "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"
     };
 
+    private static final Metrics.Gauge FRONTIER = Metrics.global().gauge("geni_fetch_frontier_size",
+            "Profiles queued but not yet fetched in the current ascend or descend pass");
+    private static final Metrics.Gauge PROFILES = Metrics.global().gauge("geni_fetch_profiles",
+            "Profiles fetched so far this run");
+    private static final Metrics.Histogram CHECKPOINT_SECONDS = Metrics.global().histogram(
+            "geni_checkpoint_duration_seconds", "Time to write a checkpoint GEDCOM",
+            new double[]{0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30});
+    private static final Metrics.Counter PRIVATE_PROFILES = Metrics.global().counter(
+            "geni_fetch_private_profiles_total", "Privacy-restricted profiles recorded as \"Private\"");
+
     private final GeniClient client;
 
     // Full detail for every profile we fetched as a focus, keyed by numeric profile id.
@@ -50,6 +60,9 @@ public class GeniAncestorFetcher {
 
     // Every profile id we've fetched as its own focus, across both ascend and descend.
     private final Set<String> visited = new LinkedHashSet<>();
+    // The profiles reached going up from the start person (the start person and their
+    // ancestors), as opposed to the relatives descend() adds.
+    private final Set<String> ancestorIds = new HashSet<>();
     // The numeric id of the original start person (generation 0 during ascend), used to
     // anchor the ancestor-positions walk even after descend() adds other generation-0 people.
     private String startNumericId;
@@ -62,11 +75,17 @@ public class GeniAncestorFetcher {
     private final GedcomWriter writer = new GedcomWriter();
     private String checkpointPath;
     private int checkpointEvery = 0;
+    private Reporter reporter = Reporter.shared();
 
     public GeniAncestorFetcher(GeniClient client) {
         this.client = client;
     }
 
+    /** Where progress and summaries go (default {@link Reporter#shared()}). */
+    public void setReporter(Reporter reporter) {
+        this.reporter = reporter;
+    }
+
     /** Periodically write the GEDCOM-so-far every {@code every} profiles, so a long
      *  run always leaves a usable file behind if interrupted. */
     public void enableCheckpoint(String path, int every) {
@@ -101,7 +120,7 @@ public class GeniAncestorFetcher {
      */
     public GedcomData fetchWithDescendants(String startId, int upGenerations) throws IOException, InterruptedException {
         Set<String> boundary = ascend(startId, upGenerations);
-        System.out.println("Ancestor fetch reached " + boundary.size()
+        reporter.info("Ancestor fetch reached " + boundary.size()
                 + (boundary.size() == 1 ? " boundary line" : " boundary lines")
                 + "; descending to find their descendants...");
         descend(boundary);
@@ -111,7 +130,7 @@ public class GeniAncestorFetcher {
     }
 
     private void printFetchSummary() {
-        System.out.println("Fetched " + profiles.size() + " profiles total ("
+        reporter.info("Fetched " + profiles.size() + " profiles total ("
                 + client.getRequestCount() + " API calls, " + client.getCacheHits() + " cache hits"
                 + (accessDeniedCount > 0 ? ", " + accessDeniedCount + " access-denied (skipped)"
                         + (newAccessDeniedCount > 0 ? " — " + newAccessDeniedCount + " new this run" : "") : "")
@@ -135,6 +154,7 @@ public class GeniAncestorFetcher {
         try {
             while (!queue.isEmpty()) {
                 QueueEntry entry = queue.poll();
+                FRONTIER.set(queue.size());
                 String numericId = fetchProfile(entry.id, entry.generation, null);
                 if (numericId == null) {
                     continue;
@@ -142,6 +162,7 @@ public class GeniAncestorFetcher {
                 if (entry.generation == 0 && startNumericId == null) {
                     startNumericId = numericId;
                 }
+                ancestorIds.add(numericId);
                 ProfileData data = profiles.get(numericId);
 
                 Set<String> parentIds = data.childUnionId == null
@@ -193,6 +214,7 @@ public class GeniAncestorFetcher {
         try {
             while (!queue.isEmpty()) {
                 QueueEntry entry = queue.poll();
+                FRONTIER.set(queue.size());
                 String numericId = entry.id;
                 int generation;
                 if (visited.contains(numericId)) {
@@ -285,11 +307,11 @@ public class GeniAncestorFetcher {
         synchronized (this) {
             profiles.put(numericId, data);
         }
+        countProfile(generation);
 
-        if (profiles.size() % 25 == 0) {
-            System.out.println("  Fetched " + profiles.size() + " profiles (generation "
-                    + generation + ", " + client.getCacheHits() + " from cache)...");
-        }
+        // Reported on every profile; the reporter keeps it to a few lines a second.
+        reporter.progress("  Fetched " + profiles.size() + " profiles (generation "
+                + generation + ", " + client.getCacheHits() + " from cache)...");
         if (checkpointEvery > 0 && checkpointPath != null && profiles.size() % checkpointEvery == 0) {
             writeCheckpoint();
         }
@@ -320,7 +342,7 @@ public class GeniAncestorFetcher {
         if (newThisRun) {
             newAccessDeniedCount++;
         }
-        System.out.println("  Profile " + id + " is private (access denied"
+        reporter.info("  Profile " + id + " is private (access denied"
                 + (newThisRun ? ", NEW" : ", already known from a prior run") + ") — recording as \"Private\".");
 
         ProfileData data = new ProfileData();
@@ -331,6 +353,8 @@ public class GeniAncestorFetcher {
         synchronized (this) {
             profiles.put(id, data);
         }
+        countProfile(generation);
+        PRIVATE_PROFILES.inc();
         return id;
     }
 
@@ -346,11 +370,11 @@ public class GeniAncestorFetcher {
         }
         java.util.Map<Integer, Long> positions = computePositionCounts();
 
-        System.out.println("Ancestors per generation (0 = start person):");
-        System.out.printf("  %-5s %10s %10s%n", "gen", "distinct", "positions");
+        reporter.info("Ancestors per generation (0 = start person):");
+        reporter.info(String.format("  %-5s %10s %10s", "gen", "distinct", "positions"));
         for (java.util.Map.Entry<Integer, Integer> e : distinct.entrySet()) {
             int g = e.getKey();
-            System.out.printf("  %-5d %10d %10d%n", g, e.getValue(), positions.getOrDefault(g, 0L));
+            reporter.info(String.format("  %-5d %10d %10d", g, e.getValue(), positions.getOrDefault(g, 0L)));
         }
     }
 
@@ -431,7 +455,14 @@ public class GeniAncestorFetcher {
         }
     }
 
+    private void countProfile(int generation) {
+        PROFILES.set(profiles.size());
+        Metrics.global().counter("geni_fetch_generation_profiles_total", "Profiles fetched, by generation",
+                "generation", Integer.toString(generation)).inc();
+    }
+
     private void writeCheckpoint() {
+        long start = System.nanoTime();
         GedcomData snapshot = snapshot();
         // Don't clobber the output with an empty file (e.g. when a run fails immediately).
         if (snapshot.getPersonCount() == 0) {
@@ -439,10 +470,11 @@ public class GeniAncestorFetcher {
         }
         try {
             writer.write(snapshot, checkpointPath);
-            System.out.println("  Checkpoint: wrote " + snapshot.getPersonCount()
+            CHECKPOINT_SECONDS.observeSince(start);
+            reporter.info("  Checkpoint: wrote " + snapshot.getPersonCount()
                     + " persons to " + checkpointPath);
         } catch (IOException e) {
-            System.err.println("  Warning: checkpoint write failed: " + e.getMessage());
+            reporter.warn("  Warning: checkpoint write failed: " + e.getMessage());
         }
     }
 
@@ -551,7 +583,20 @@ public class GeniAncestorFetcher {
 
     // --- model assembly ---------------------------------------------------
 
+    /**
+     * The fetched tree with the ids it gets in a written GEDCOM ({@code I<guid>} and
+     * {@code F<guid>}), so it can be analyzed directly, without writing and re-parsing it,
+     * and still report the same ids as the file. Written out, it gives the same file.
+     */
+    public synchronized GedcomData gedcomData() {
+        return buildGedcomData("I", "F");
+    }
+
     private GedcomData buildGedcomData() {
+        return buildGedcomData("", "");
+    }
+
+    private GedcomData buildGedcomData(String personPrefix, String familyPrefix) {
         Map<String, Person> persons = new LinkedHashMap<>();
         Map<String, Family> families = new LinkedHashMap<>();
 
@@ -562,8 +607,8 @@ public class GeniAncestorFetcher {
             if (d.guid == null) {
                 continue;
             }
-            numericToGuid.put(e.getKey(), d.guid);
-            persons.put(d.guid, toPerson(d));
+            numericToGuid.put(e.getKey(), personPrefix + d.guid);
+            persons.put(personPrefix + d.guid, toPerson(d, personPrefix + d.guid));
         }
 
         // A Family for each union that is some fetched person's parent-union.
@@ -575,12 +620,13 @@ public class GeniAncestorFetcher {
             }
             // Use the union's Geni guid as the family id so it matches Geni's own GEDCOM
             // export (falling back to the numeric union id if no guid was seen).
-            String familyId = unionGuid.getOrDefault(unionId, unionId);
+            String familyId = familyPrefix + unionGuid.getOrDefault(unionId, unionId);
             Family family = families.computeIfAbsent(familyId, Family::new);
 
             // Link child -> family.
-            family.addChild(child.guid);
-            Person childPerson = persons.get(child.guid);
+            String childId = numericToGuid.get(e.getKey());
+            family.addChild(childId);
+            Person childPerson = persons.get(childId);
             if (childPerson != null && !childPerson.getFamilyIdsAsChild().contains(familyId)) {
                 childPerson.addFamilyAsChild(familyId);
             }
@@ -631,7 +677,12 @@ public class GeniAncestorFetcher {
     }
 
     private Person toPerson(ProfileData d) {
-        Person p = new Person(d.guid);
+        return toPerson(d, d.guid);
+    }
+
+    private Person toPerson(ProfileData d, String id) {
+        Person p = new Person(id);
+        p.setGeniGuid(d.guid);
         p.setGeniName(d.name);
         p.setGivenName(d.firstName);
 
@@ -800,9 +851,31 @@ public class GeniAncestorFetcher {
         return null;
     }
 
+    /** Geni guid of the start person ("I" + it in {@link #gedcomData}), or null if they weren't fetched. */
+    public String startPersonId() {
+        ProfileData start = startNumericId == null ? null : profiles.get(startNumericId);
+        return start == null ? null : start.guid;
+    }
+
     public java.util.List<MapPoint> mapPoints() {
+        return mapPoints(profiles.keySet());
+    }
+
+    /**
+     * Like {@link #mapPoints()}, but only for the start person and their ancestors: after
+     * {@link #fetchWithDescendants}, the same map {@code AncestorMap} draws from the cache.
+     */
+    public java.util.List<MapPoint> ancestorMapPoints() {
+        return mapPoints(ancestorIds);
+    }
+
+    private java.util.List<MapPoint> mapPoints(Set<String> ids) {
         java.util.List<MapPoint> points = new java.util.ArrayList<>();
-        for (ProfileData d : profiles.values()) {
+        for (Map.Entry<String, ProfileData> e : profiles.entrySet()) {
+            if (!ids.contains(e.getKey())) {
+                continue;
+            }
+            ProfileData d = e.getValue();
             MapPoint point = MapPoint.fromPerson(toPerson(d), d.generation);
             if (point != null) {
                 points.add(point);
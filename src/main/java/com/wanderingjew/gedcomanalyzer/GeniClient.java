@@ -33,6 +33,12 @@ public class GeniClient {
             "id,guid,name,first_name,last_name,maiden_name,gender,is_alive,birth,death,current_residence";
     private static final String CACHE_VERSION = "v3";
 
+    private static final Metrics.Counter CACHE_HITS = Metrics.global().counter("geni_cache_hits_total",
+            "Profiles served from the local cache instead of the API");
+    private static final Metrics.Histogram REQUEST_SECONDS = Metrics.global().histogram(
+            "geni_request_duration_seconds", "Geni API request round-trip time",
+            new double[]{0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60});
+
     private final HttpClient http = HttpClient.newBuilder()
             .followRedirects(HttpClient.Redirect.NORMAL)
             .connectTimeout(Duration.ofSeconds(30))
@@ -61,6 +67,8 @@ public class GeniClient {
     // long the previous call's round trip took. 0 = no previous request yet this run.
     private long lastRequestStartMs = 0;
 
+    private Reporter reporter = Reporter.shared();
+
     public GeniClient(String accessToken, Path cacheDir, long requestDelayMs) throws IOException {
         this.accessToken = accessToken;
         this.cacheDir = cacheDir;
@@ -86,6 +94,11 @@ public class GeniClient {
         return Paths.get(dir == null || dir.trim().isEmpty() ? "geni-cache" : dir.trim());
     }
 
+    /** Where rate-limit notices go (default {@link Reporter#shared()}). */
+    public void setReporter(Reporter reporter) {
+        this.reporter = reporter;
+    }
+
     public int getRequestCount() { return requestCount; }
     public int getCacheHits() { return cacheHits; }
 
@@ -100,12 +113,17 @@ public class GeniClient {
      *         restricted) — including on a cache hit, if a prior call already recorded
      *         that denial, so a resumed or offline run doesn't re-attempt the API call.
      */
+    @SuppressWarnings("try")
     public JsonNode immediateFamily(String profileId) throws IOException, InterruptedException {
         Path cacheFile = cacheDir.resolve(profileId + "." + CACHE_VERSION + ".json");
         if (Files.exists(cacheFile)) {
             JsonNode node = null;
-            try {
-                node = mapper.readTree(Files.readAllBytes(cacheFile));
+            FlightEvents.CacheAccess read = new FlightEvents.CacheAccess();
+            read.begin();
+            try (Timings.Phase ignored = Timings.phase("cache read")) {
+                byte[] bytes = Files.readAllBytes(cacheFile);
+                read.bytes = bytes.length;
+                node = mapper.readTree(bytes);
             } catch (IOException e) {
                 // Likely a half-written file from a concurrent fetch. Skip it when offline;
                 // when online, fall through and refetch a clean copy.
@@ -113,8 +131,16 @@ public class GeniClient {
                     return null;
                 }
             }
+            if (read.shouldCommit()) {
+                read.profileId = profileId;
+                read.operation = "read";
+                read.hit = node != null;
+                read.denied = node != null && node.path("_denied").asBoolean(false);
+                read.commit();
+            }
             if (node != null) {
                 cacheHits++;
+                CACHE_HITS.inc();
                 if (node.path("_denied").asBoolean(false)) {
                     throw new GeniAccessDeniedException(
                             "Profile " + profileId + " is privacy-restricted (cached denial).", true);
@@ -130,15 +156,30 @@ public class GeniClient {
         try {
             String body = get("profile-" + profileId + "/immediate-family");
             // Cache the raw JSON so subsequent runs skip the network entirely.
-            Files.write(cacheFile, body.getBytes(StandardCharsets.UTF_8));
+            writeCache(profileId, cacheFile, body, false);
             return mapper.readTree(body);
         } catch (GeniAccessDeniedException e) {
             // Cache the denial itself so a resumed or offline run doesn't re-attempt it.
-            Files.write(cacheFile, "{\"_denied\":true}".getBytes(StandardCharsets.UTF_8));
+            writeCache(profileId, cacheFile, "{\"_denied\":true}", true);
             throw e;
         }
     }
 
+    private void writeCache(String profileId, Path cacheFile, String json, boolean denied) throws IOException {
+        FlightEvents.CacheAccess event = new FlightEvents.CacheAccess();
+        event.begin();
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        Files.write(cacheFile, bytes);
+        if (event.shouldCommit()) {
+            event.profileId = profileId;
+            event.operation = "write";
+            event.bytes = bytes.length;
+            event.denied = denied;
+            event.commit();
+        }
+    }
+
+    @SuppressWarnings("try")
     private String get(String apiPath) throws IOException, InterruptedException {
         String url = API_BASE + apiPath
                 + "?access_token=" + URLEncoder.encode(accessToken, StandardCharsets.UTF_8)
@@ -147,17 +188,36 @@ public class GeniClient {
         int attempt = 0;
         while (true) {
             attempt++;
-            pace();
+            try (Timings.Phase ignored = Timings.phase("rate-limit wait")) {
+                pace();
+            }
             HttpRequest request = HttpRequest.newBuilder(URI.create(url))
                     .header("Accept", "application/json")
                     .timeout(Duration.ofSeconds(60))
                     .GET()
                     .build();
             lastRequestStartMs = System.currentTimeMillis();
-            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response;
+            FlightEvents.GeniRequest event = new FlightEvents.GeniRequest();
+            event.begin();
+            long sentNanos = System.nanoTime();
+            try (Timings.Phase ignored = Timings.phase("http request")) {
+                response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            }
+            REQUEST_SECONDS.observeSince(sentNanos);
+            if (event.shouldCommit()) {
+                event.apiPath = apiPath;
+                event.status = response.statusCode();
+                event.bytes = response.body().length();
+                event.attempt = attempt;
+                event.commit();
+            }
             requestCount++;
             readRateHeaders(response);
             int status = response.statusCode();
+            // By status, so 403s (private profiles) and 429s (throttling) can be graphed.
+            Metrics.global().counter("geni_requests_total", "Geni API requests, by HTTP status",
+                    "status", Integer.toString(status)).inc();
 
             if (status == 200) {
                 return response.body();
@@ -174,10 +234,10 @@ public class GeniClient {
             }
             if ((status == 429 || status == 503) && attempt <= 12) {
                 long waitMs = throttleWaitMillis(response, attempt);
-                System.out.println("  Rate limited (HTTP " + status + ")"
+                reporter.info("  Rate limited (HTTP " + status + ")"
                         + (rateWindow > 0 ? " [limit " + rateLimit + "/" + rateWindow + "s]" : "")
                         + "; waiting " + (waitMs / 1000) + "s (attempt " + attempt + ")...");
-                Thread.sleep(waitMs);
+                sleep(waitMs, "throttled", status);
                 continue;
             }
             throw new IOException("Geni API request failed (HTTP " + status + ") for " + apiPath
@@ -201,22 +261,34 @@ public class GeniClient {
             long elapsed = System.currentTimeMillis() - lastRequestStartMs;
             long remaining = spacing - elapsed;
             if (remaining > 0) {
-                Thread.sleep(remaining);
+                sleep(remaining, "spacing", 0);
             }
         }
         // If we've nearly exhausted the window, wait for it to reset.
         if (rateRemaining == 0 && rateWindow > 0) {
-            Thread.sleep(rateWindow * 1000L);
+            sleep(rateWindow * 1000L, "window", 0);
         }
     }
 
+    private static void sleep(long millis, String reason, int status) throws InterruptedException {
+        FlightEvents.RateLimitWait event = new FlightEvents.RateLimitWait();
+        event.begin();
+        Thread.sleep(millis);
+        Metrics.global().counter("geni_rate_limit_sleep_seconds_total",
+                "Time spent sleeping for the Geni rate limit, by reason", "reason", reason).inc(millis / 1000.0);
+        event.reason = reason;
+        event.waitMillis = millis;
+        event.status = status;
+        event.commit();
+    }
+
     private void readRateHeaders(HttpResponse<String> response) {
         rateLimit = intHeader(response, "X-API-Rate-Limit", rateLimit);
         rateRemaining = intHeader(response, "X-API-Rate-Remaining", rateRemaining);
         rateWindow = intHeader(response, "X-API-Rate-Window", rateWindow);
         if (!rateReported && rateLimit > 0) {
             rateReported = true;
-            System.out.println("Geni rate limit: " + rateLimit + " requests per "
+            reporter.info("Geni rate limit: " + rateLimit + " requests per "
                     + rateWindow + "s window.");
         }
     }
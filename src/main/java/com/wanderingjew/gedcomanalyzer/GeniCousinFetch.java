@@ -3,6 +3,9 @@ package com.wanderingjew.gedcomanalyzer;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -15,9 +18,17 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class GeniCousinFetch {
 
+    @SuppressWarnings("try")
     public static void main(String[] args) throws Exception {
+        List<String> argList = new ArrayList<>(Arrays.asList(args));
+        Reporter reporter = Reporter.fromArgs(argList);
+        Timings.fromArgs(argList);
+        FlightEvents.fromArgs(argList);
+        Metrics.fromArgs(argList);
+        args = argList.toArray(new String[0]);
         if (args.length < 3 || args.length > 4) {
-            System.out.println("Usage: GeniCousinFetch <start-id> <up-generations> <output.ged> [cache-dir]");
+            System.out.println("Usage: GeniCousinFetch <start-id> <up-generations> <output.ged> [cache-dir] [--quiet | --log-json] [--progress-per-second N] [--timings] [--jfr <file>]"
+                    + " [--metrics-textfile <file.prom> [--metrics-interval <seconds>]]");
             System.out.println("  start-id:        Geni guid (e.g. 6000000031619060876), guid form (g...), or numeric profile id");
             System.out.println("  up-generations:  how many generations up to fetch before descending (0 = unlimited)");
             System.out.println("  output.ged:      path to write the assembled GEDCOM");
@@ -29,6 +40,17 @@ public class GeniCousinFetch {
             System.out.println("  This is typically MANY more profiles than a plain ancestor fetch — a higher");
             System.out.println("  Geni rate limit matters more here.");
             System.out.println();
+            System.out.println("  --quiet:         only warnings and errors");
+            System.out.println("  --log-json:      progress as JSON lines (time, level, message)");
+            System.out.println("  --progress-per-second N:  at most N progress lines a second (default " + Reporter.DEFAULT_PROGRESS_PER_SECOND + ")");
+            System.out.println("  --timings:       at exit, print time, allocation and peak heap per phase to stderr");
+            System.out.println("  --jfr <file>:    record a JFR file, including Geni request, wait and cache events");
+            System.out.println("  --metrics-textfile <file.prom>:");
+            System.out.println("                   keep Prometheus metrics (requests by status, cache hits, throttle");
+            System.out.println("                   sleep, frontier, profiles per generation, checkpoint times) in this");
+            System.out.println("                   file for node_exporter, rewritten every " + Metrics.DEFAULT_INTERVAL_SECONDS
+                    + "s (or --metrics-interval <seconds>)");
+            System.out.println();
             System.out.println("  The Geni access token is read from the GENI_ACCESS_TOKEN environment variable.");
             System.exit(1);
         }
@@ -45,14 +67,16 @@ public class GeniCousinFetch {
         String outputFile = args[2];
         Path cacheDir = args.length > 3 ? Paths.get(args[3]) : GeniClient.cacheDirFromEnv();
 
-        System.out.println("Cache directory: " + cacheDir.toAbsolutePath());
-        System.out.println("Fetching ancestors of " + startId
+        reporter.info("Cache directory: " + cacheDir.toAbsolutePath());
+        reporter.info("Fetching ancestors of " + startId
                 + (upGenerations > 0 ? " up to " + upGenerations + " generations" : " (unlimited)")
                 + ", then descending to find their descendants...");
-        System.out.println("Rerun the same command with a fresh token to resume where this left off.");
+        reporter.info("Rerun the same command with a fresh token to resume where this left off.");
 
         GeniClient client = new GeniClient(token.trim(), cacheDir, 300L);
+        client.setReporter(reporter);
         GeniAncestorFetcher fetcher = new GeniAncestorFetcher(client);
+        fetcher.setReporter(reporter);
         fetcher.enableCheckpoint(outputFile, 200);
 
         // On Ctrl-C or unexpected exit, still write whatever was gathered so far. Shutdown
@@ -69,8 +93,9 @@ public class GeniCousinFetch {
                 GedcomData partial = fetcher.snapshot();
                 if (partial.getPersonCount() > 0) {
                     new GedcomWriter().write(partial, outputFile);
-                    System.out.println("\nWrote partial GEDCOM (" + partial.getPersonCount()
+                    reporter.info("\nWrote partial GEDCOM (" + partial.getPersonCount()
                             + " persons) to " + outputFile + ". Rerun to resume.");
+                    reporter.flush();
                 }
             } catch (Exception ignored) {
                 // Best-effort only.
@@ -78,27 +103,33 @@ public class GeniCousinFetch {
         }));
 
         try {
-            GedcomData data = fetcher.fetchWithDescendants(startId, upGenerations);
+            GedcomData data;
+            try (Timings.Phase ignored = Timings.phase("fetch")) {
+                data = fetcher.fetchWithDescendants(startId, upGenerations);
+            }
             if (data.getPersonCount() == 0) {
-                System.out.println();
-                System.out.println("WARNING: 0 people were fetched — nothing was written.");
-                System.out.println("Most likely your access token is invalid or expired, or the start id is wrong.");
-                System.out.println("Get a fresh token (export GENI_ACCESS_TOKEN) and check the guid, then rerun.");
+                reporter.warn("");
+                reporter.warn("WARNING: 0 people were fetched — nothing was written.");
+                reporter.warn("Most likely your access token is invalid or expired, or the start id is wrong.");
+                reporter.warn("Get a fresh token (export GENI_ACCESS_TOKEN) and check the guid, then rerun.");
+                reporter.flush();
                 System.exit(3);
             }
-            System.out.println("Assembled " + data.getPersonCount() + " persons and "
+            reporter.info("Assembled " + data.getPersonCount() + " persons and "
                     + data.getFamilyCount() + " families.");
             new GedcomWriter().write(data, outputFile);
-            System.out.println("GEDCOM written to: " + outputFile);
+            reporter.info("GEDCOM written to: " + outputFile);
             completed.set(true);
+            reporter.flush();
         } catch (IOException e) {
             // Most commonly an invalid/expired token (401) — surfaced clearly here.
-            System.err.println();
-            System.err.println("=======================================================================");
-            System.err.println(" FETCH STOPPED: " + e.getMessage());
-            System.err.println("=======================================================================");
-            System.err.println("If this is a token problem, get a fresh token, re-export GENI_ACCESS_TOKEN,");
-            System.err.println("and run the exact same command again — cached progress is kept.");
+            reporter.warn("");
+            reporter.warn("=======================================================================");
+            reporter.warn(" FETCH STOPPED: " + e.getMessage());
+            reporter.warn("=======================================================================");
+            reporter.warn("If this is a token problem, get a fresh token, re-export GENI_ACCESS_TOKEN,");
+            reporter.warn("and run the exact same command again — cached progress is kept.");
+            reporter.flush();
             System.exit(2);
         }
     }
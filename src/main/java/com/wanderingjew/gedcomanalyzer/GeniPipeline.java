@@ -0,0 +1,184 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The whole nightly chain in one process: fetch a person's ancestors and their
+ * descendants from Geni (as {@link GeniCousinFetch}), write the GEDCOM, draw the ancestor
+ * map (as {@link AncestorMap}) and write the family report (as {@link GedcomFamilyAnalyzer}).
+ *
+ * <p>Run separately, each of those steps re-reads the whole cache or re-parses the GEDCOM
+ * the step before it just wrote. Here the fetched tree is handed from stage to stage in
+ * memory: the map comes from the fetcher's profiles, the report from the same
+ * {@link GedcomData} the GEDCOM is written from, and the GEDCOM file is only an output,
+ * written alongside the map and report rather than read back.
+ *
+ * <p>With {@code --offline} the tree is built from the cache alone, as
+ * {@link BuildCousinGedcom} does; no token is needed.
+ */
+public class GeniPipeline {
+
+    @SuppressWarnings("try")
+    public static void main(String[] args) throws Exception {
+        List<String> argList = new ArrayList<>(Arrays.asList(args));
+        Reporter reporter = Reporter.fromArgs(argList);
+        Timings.fromArgs(argList);
+        FlightEvents.fromArgs(argList);
+        Metrics.fromArgs(argList);
+        boolean offline = argList.remove("--offline");
+        boolean paged = argList.remove("--paged");
+        args = argList.toArray(new String[0]);
+        if (args.length < 3 || args.length > 4) {
+            System.out.println("Usage: GeniPipeline <start-id> <up-generations> <output-dir> [cache-dir] [--offline] [--paged] [--quiet | --log-json] [--timings] [--jfr <file>]"
+                    + " [--metrics-textfile <file.prom> [--metrics-interval <seconds>]]");
+            System.out.println("  Fetches like GeniCousinFetch, then writes into output-dir:");
+            System.out.println("    tree.ged                   the assembled GEDCOM");
+            System.out.println("    ancestor-map.html          the ancestor map (as AncestorMap)");
+            System.out.println("    report.html                the start person's family report (as GedcomFamilyAnalyzer),");
+            System.out.println("                               with report-cousins-map.html when there are cousins to map");
+            System.out.println("  all from the fetched tree in memory, without re-reading the cache or the GEDCOM.");
+            System.out.println();
+            System.out.println("  start-id:        Geni guid (e.g. 6000000031619060876), guid form (g...), or numeric profile id");
+            System.out.println("  up-generations:  how many generations up to fetch before descending (0 = unlimited)");
+            System.out.println("  cache-dir:       optional cache directory (default ./geni-cache)");
+            System.out.println("  --offline:       build from the cache only (no fetching, no token), as BuildCousinGedcom");
+            System.out.println("  --paged:         page the report's long lists in the browser (see GedcomFamilyAnalyzer)");
+            System.out.println("  --quiet, --log-json, --progress-per-second N, --timings, --jfr <file>, --metrics-textfile <file.prom>:");
+            System.out.println("                   as for GeniCousinFetch");
+            System.out.println();
+            System.out.println("  The Geni access token is read from the GENI_ACCESS_TOKEN environment variable.");
+            System.exit(1);
+        }
+
+        String token = System.getenv("GENI_ACCESS_TOKEN");
+        if (!offline && (token == null || token.trim().isEmpty())) {
+            System.err.println("GENI_ACCESS_TOKEN is not set. Obtain a token from Geni and export it, e.g.:");
+            System.err.println("  export GENI_ACCESS_TOKEN='...'");
+            System.err.println("or add --offline to build from the cache only.");
+            System.exit(1);
+        }
+
+        String startId = args[0];
+        int upGenerations = Integer.parseInt(args[1]);
+        File outputDir = new File(args[2]);
+        Path cacheDir = args.length > 3 ? Paths.get(args[3]) : GeniClient.cacheDirFromEnv();
+        outputDir.mkdirs();
+        String gedcomFile = new File(outputDir, "tree.ged").getPath();
+        String ancestorMapFile = new File(outputDir, "ancestor-map.html").getPath();
+        String reportFile = new File(outputDir, "report.html").getPath();
+
+        reporter.info("Cache directory: " + cacheDir.toAbsolutePath());
+        GeniClient client;
+        if (offline) {
+            client = new GeniClient("OFFLINE", cacheDir, 0);
+            client.setOffline(true);
+            reporter.info("Building the tree of " + startId + " from the cache only...");
+        } else {
+            client = new GeniClient(token.trim(), cacheDir, 300L);
+            reporter.info("Fetching ancestors of " + startId
+                    + (upGenerations > 0 ? " up to " + upGenerations + " generations" : " (unlimited)")
+                    + ", then descending to find their descendants...");
+            reporter.info("Rerun the same command with a fresh token to resume where this left off.");
+        }
+        client.setReporter(reporter);
+        GeniAncestorFetcher fetcher = new GeniAncestorFetcher(client);
+        fetcher.setReporter(reporter);
+        if (!offline) {
+            fetcher.enableCheckpoint(gedcomFile, 200);
+        }
+
+        // As in GeniCousinFetch: if the fetch is interrupted, still write what was gathered.
+        AtomicBoolean fetched = new AtomicBoolean(offline);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (fetched.get()) {
+                return;
+            }
+            try {
+                GedcomData partial = fetcher.snapshot();
+                if (partial.getPersonCount() > 0) {
+                    new GedcomWriter().write(partial, gedcomFile);
+                    reporter.info("\nWrote partial GEDCOM (" + partial.getPersonCount()
+                            + " persons) to " + gedcomFile + ". Rerun to resume.");
+                    reporter.flush();
+                }
+            } catch (Exception ignored) {
+                // Best-effort only.
+            }
+        }));
+
+        GedcomData data;
+        try (Timings.Phase ignored = Timings.phase("fetch")) {
+            fetcher.fetchWithDescendants(startId, upGenerations);
+            data = fetcher.gedcomData();
+        } catch (IOException e) {
+            reporter.warn("");
+            reporter.warn("=======================================================================");
+            reporter.warn(" FETCH STOPPED: " + e.getMessage());
+            reporter.warn("=======================================================================");
+            reporter.warn("If this is a token problem, get a fresh token, re-export GENI_ACCESS_TOKEN,");
+            reporter.warn("and run the exact same command again — cached progress is kept.");
+            reporter.flush();
+            System.exit(2);
+            return;
+        }
+        fetched.set(true);
+        if (data.getPersonCount() == 0) {
+            reporter.warn("");
+            reporter.warn("WARNING: 0 people were " + (offline ? "found in the cache" : "fetched") + " — nothing was written.");
+            reporter.warn("Check the start id" + (offline ? " and cache-dir." : ", and that your access token is valid."));
+            reporter.flush();
+            System.exit(3);
+        }
+        reporter.info("Assembled " + data.getPersonCount() + " persons and " + data.getFamilyCount() + " families.");
+        // Link before the writer starts: linking fills in relationship lists the writer doesn't read.
+        new GedcomParser().link(data);
+
+        // The GEDCOM is only an output now, so write it on the side while the map and
+        // report are built from the same data (the writer only reads it).
+        ExecutorService gedcomWriter = Executors.newSingleThreadExecutor();
+        Future<?> gedcomWritten = gedcomWriter.submit(() -> {
+            new GedcomWriter().write(data, gedcomFile);
+            return null;
+        });
+        gedcomWriter.shutdown();
+
+        try {
+            List<GeniAncestorFetcher.MapPoint> points = fetcher.ancestorMapPoints();
+            String name = fetcher.startPersonName();
+            try (Timings.Phase ignored = Timings.phase("ancestor map")) {
+                new AncestorMapWriter().write(points, ancestorMapFile, "Ancestors of " + (name != null ? name : startId));
+            }
+            reporter.info("Ancestor map (" + points.size() + " people with coordinates) written to: " + ancestorMapFile);
+
+            Person target = fetcher.startPersonId() == null ? null : data.getPerson("I" + fetcher.startPersonId());
+            if (target == null) {
+                reporter.warn("The start person " + startId + " wasn't fetched, so there is no report.");
+            } else {
+                GedcomFamilyAnalyzer analyzer = new GedcomFamilyAnalyzer();
+                analyzer.setReporter(reporter);
+                analyzer.setPagedReport(paged);
+                analyzer.writeReport(data, target, gedcomFile, reportFile);
+            }
+
+            gedcomWritten.get();
+            reporter.info("GEDCOM written to: " + gedcomFile);
+        } catch (IOException | ExecutionException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            reporter.warn("Error: " + cause.getMessage());
+            reporter.flush();
+            System.exit(1);
+        }
+        reporter.flush();
+    }
+}
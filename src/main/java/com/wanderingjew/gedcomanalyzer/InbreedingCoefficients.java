@@ -0,0 +1,79 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CLI that computes the inbreeding coefficient (F) of everyone in the tree in one parallel
+ * batch (see {@link KinshipCalculator}) and writes it as TSV, most inbred first — for
+ * seeing where pedigree collapse concentrates in an endogamous tree.
+ */
+public class InbreedingCoefficients {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        boolean all = false;
+        for (int i = 0; i < args.length; i++) {
+            if ("--all".equals(args[i])) {
+                all = true;
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.isEmpty() || positional.size() > 2) {
+            System.out.println("Usage: InbreedingCoefficients <gedcom-files> [output.tsv] [--all]");
+            System.out.println("  Writes id, name, life dates and inbreeding coefficient F for everyone with");
+            System.out.println("  F > 0, highest first.");
+            System.out.println("  output.tsv:  where to write them (default: print them)");
+            System.out.println("  --all:       include people with F = 0 (unrelated or unknown parents)");
+            System.exit(1);
+        }
+
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(positional.get(0));
+        if (files.isEmpty()) {
+            System.out.println("Error: no GEDCOM (.ged) files found for '" + positional.get(0) + "'.");
+            System.exit(1);
+        }
+        GedcomParser parser = new GedcomParser();
+        GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+
+        long start = System.nanoTime();
+        Map<Person, Double> inbreeding = new FamilyRelationshipAnalyzer(data).getInbreedingForAll();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        List<Map.Entry<Person, Double>> rows = new ArrayList<>();
+        for (Map.Entry<Person, Double> e : inbreeding.entrySet()) {
+            if (all || e.getValue() > 0) {
+                rows.add(e);
+            }
+        }
+        rows.sort(Comparator.comparing((Map.Entry<Person, Double> e) -> e.getValue()).reversed()
+                .thenComparing(e -> e.getKey().getId()));
+
+        String output = positional.size() == 2 ? positional.get(1) : null;
+        PrintWriter out = output != null
+                ? new PrintWriter(Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8))
+                : new PrintWriter(System.out);
+        try {
+            out.println("id\tname\tlife_dates\tinbreeding");
+            for (Map.Entry<Person, Double> e : rows) {
+                Person p = e.getKey();
+                out.printf("%s\t%s\t%s\t%.6f%n", p.getId(), p.getDisplayName(), p.getLifeDates(), e.getValue());
+            }
+        } finally {
+            out.flush();
+            if (output != null) {
+                out.close();
+            }
+        }
+        long inbred = inbreeding.values().stream().filter(f -> f > 0).count();
+        System.out.println(inbred + " of " + data.getPersonCount() + " persons have F > 0; computed in " + millis + " ms"
+                + (output != null ? "; written to " + output : ""));
+    }
+}
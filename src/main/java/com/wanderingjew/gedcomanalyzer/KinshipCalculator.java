@@ -0,0 +1,130 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Computes kinship coefficients (φ) and inbreeding coefficients (F) over the
+ * {@link Person} parent graph.
+ *
+ * <p>φ(a, b) is the probability that an allele picked at random from a and one picked
+ * at random from b are identical by descent; F(p) = φ(father, mother). Unlike a cousin
+ * degree, this accounts for every shared line at once, so in endogamous trees with
+ * heavy pedigree collapse it shows how closely related two people really are (a pair of
+ * "4th cousins" related through a dozen lines can be as close as 2nd cousins).
+ *
+ * <p>Uses the classic recursive definition, made tractable by a {@link TopologicalOrder}
+ * of the graph (parents before children): for a ≠ b, the member that comes later in the
+ * order cannot be an ancestor of the other, so φ(a, b) = ½·(φ(father(a), b) + φ(mother(a), b)),
+ * and φ(a, a) = ½·(1 + F(a)). Results are memoized sparsely — only the pairs a query
+ * actually reaches are stored — so the cost scales with the ancestry involved, not with
+ * the square of the tree size. The memo is thread-safe, so one calculator can serve
+ * {@link #inbreedingForAll()}'s parallel batch and ad-hoc queries alike.
+ */
+public class KinshipCalculator {
+
+    private final TopologicalOrder order;
+    // Memoized φ, keyed by the packed (lower index, higher index) pair.
+    private final Map<Long, Double> memo = new ConcurrentHashMap<>();
+
+    public KinshipCalculator(GedcomData gedcomData) {
+        this(new TopologicalOrder(gedcomData));
+    }
+
+    public KinshipCalculator(TopologicalOrder order) {
+        this.order = order;
+    }
+
+    /**
+     * Kinship coefficient φ between two people: 0.25 for parent/child and full siblings,
+     * 0.125 for grandparent and half-siblings, 0.0625 for first cousins, and so on
+     * (higher under pedigree collapse). Returns 0 if either is null or not in the data.
+     */
+    public double kinship(Person a, Person b) {
+        if (a == null || b == null) {
+            return 0.0;
+        }
+        Integer ia = order.indexOf(a);
+        Integer ib = order.indexOf(b);
+        if (ia == null || ib == null) {
+            return 0.0;
+        }
+        return kinship(ia, ib);
+    }
+
+    /**
+     * Inbreeding coefficient F of a person — the kinship of their two parents. 0 when
+     * either parent is unknown.
+     */
+    public double inbreeding(Person person) {
+        Integer index = order.indexOf(person);
+        return index == null ? 0.0 : inbreeding(index);
+    }
+
+    /**
+     * Compute F for every person in the data, in parallel. The stream splits the
+     * topologically ordered list into contiguous chunks, so each worker mostly handles
+     * related generations and reuses the memo entries its neighbours already filled.
+     */
+    public Map<Person, Double> inbreedingForAll() {
+        Map<Person, Double> result = new ConcurrentHashMap<>();
+        IntStream.range(0, order.size()).parallel().forEach(i -> result.put(order.get(i), inbreeding(i)));
+        return result;
+    }
+
+    /** Number of person pairs currently memoized (for diagnostics). */
+    public int memoSize() {
+        return memo.size();
+    }
+
+    private double inbreeding(int index) {
+        int[] parents = parentIndexes(index);
+        if (parents[0] < 0 || parents[1] < 0) {
+            return 0.0;
+        }
+        return kinship(parents[0], parents[1]);
+    }
+
+    private double kinship(int a, int b) {
+        if (a == b) {
+            return 0.5 * (1.0 + inbreeding(a));
+        }
+        int lo = Math.min(a, b);
+        int hi = Math.max(a, b);
+        long key = ((long) lo << 32) | (hi & 0xffffffffL);
+        Double cached = memo.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // The later of the two (hi) can't be an ancestor of the earlier, so recurse
+        // through hi's parents. Missing parents contribute 0 (assumed unrelated).
+        int[] parents = parentIndexes(hi);
+        double phi = 0.0;
+        for (int parent : parents) {
+            if (parent >= 0) {
+                phi += 0.5 * kinship(parent, lo);
+            }
+        }
+        // Plain get/put rather than computeIfAbsent: the recursion re-enters the map,
+        // which ConcurrentHashMap doesn't allow inside a mapping function. A racing
+        // thread may compute the same value twice, which is harmless.
+        memo.put(key, phi);
+        return phi;
+    }
+
+    /**
+     * Indexes of a person's father and mother (-1 if unknown), per {@link Person#getFather()}
+     * and {@link Person#getMother()}. Parents that don't precede the child in the order
+     * (a cycle) are dropped.
+     */
+    private int[] parentIndexes(int index) {
+        Person person = order.get(index);
+        return new int[]{indexBefore(person.getFather(), index), indexBefore(person.getMother(), index)};
+    }
+
+    private int indexBefore(Person parent, int childIndex) {
+        Integer pi = order.indexOf(parent);
+        return pi == null || pi >= childIndex ? -1 : pi;
+    }
+}
@@ -0,0 +1,90 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CLI that tags everyone in the data with their relationship to a root person (e.g.
+ * "3rd cousin twice removed", "wife of 2nd cousin") and writes one tab-separated line per
+ * person — ID, name, life dates, relationship, number of links — nearest first, optionally
+ * filtered.
+ */
+public class LabelRelationships {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        String match = null;
+        int maxLinks = Integer.MAX_VALUE;
+        boolean bloodOnly = false;
+        for (int i = 0; i < args.length; i++) {
+            if ("--match".equals(args[i]) && i + 1 < args.length) {
+                match = args[++i].toLowerCase();
+            } else if ("--max-links".equals(args[i]) && i + 1 < args.length) {
+                maxLinks = Integer.parseInt(args[++i]);
+            } else if ("--blood".equals(args[i])) {
+                bloodOnly = true;
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() < 2 || positional.size() > 3) {
+            System.out.println("Usage: LabelRelationships <gedcom-files> <root-person-id-or-name> [output.tsv] [--match text] [--max-links N] [--blood]");
+            System.out.println("  Labels everyone connected to the root with their relationship to them.");
+            System.out.println("  output.tsv:  where to write the labels (default: print them)");
+            System.out.println("  --match:     only people whose relationship contains this text (e.g. \"cousin\")");
+            System.out.println("  --max-links: only people at most N parent/child/spouse links away");
+            System.out.println("  --blood:     only blood relatives (no marriages on the path)");
+            System.exit(1);
+        }
+
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(positional.get(0));
+        if (files.isEmpty()) {
+            System.out.println("Error: no GEDCOM (.ged) files found for '" + positional.get(0) + "'.");
+            System.exit(1);
+        }
+        GedcomParser parser = new GedcomParser();
+        GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+        Person root = NameIndex.resolvePerson(data, positional.get(1));
+        if (root == null) {
+            System.exit(1);
+        }
+
+        RelationshipLabeller labeller = new FamilyRelationshipAnalyzer(data).getRelationshipLabeller(root);
+        PrintWriter out = positional.size() == 3
+                ? new PrintWriter(Files.newBufferedWriter(Paths.get(positional.get(2)), StandardCharsets.UTF_8))
+                : new PrintWriter(System.out);
+        int written = 0;
+        try {
+            out.println("id\tname\tlife_dates\trelationship\tlinks");
+            for (Person person : labeller.getConnected()) {
+                int links = labeller.getLinks(person);
+                if (links > maxLinks) {
+                    break; // nearest first, so everyone after is further still
+                }
+                if (bloodOnly && !labeller.isBloodRelative(person)) {
+                    continue;
+                }
+                String label = labeller.getLabel(person);
+                if (match != null && !label.toLowerCase().contains(match)) {
+                    continue;
+                }
+                out.println(person.getId() + "\t" + person.getDisplayName() + "\t" + person.getLifeDates()
+                        + "\t" + label + "\t" + links);
+                written++;
+            }
+        } finally {
+            out.flush();
+            if (positional.size() == 3) {
+                out.close();
+            }
+        }
+        if (positional.size() == 3) {
+            System.out.println(labeller.getConnected().size() + " of " + data.getPersonCount()
+                    + " persons are connected to " + root + "; " + written + " written to " + positional.get(2));
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small in-process metrics registry — counters, gauges and histograms — that can be
+ * written in the Prometheus text format, so long Geni fetches can be watched on the same
+ * dashboards as the machine they run on (via node_exporter's textfile collector).
+ *
+ * <p>Metrics are looked up by name and optional label pairs, created on first use, and
+ * updated lock-free. {@link #global()} is the registry the Geni client and fetcher
+ * report to. {@link #fromArgs} wires up {@code --metrics-textfile <path>}, which
+ * rewrites the file every {@code --metrics-interval} seconds (default 15) and once more
+ * at exit, each time by writing a temporary file alongside and renaming it over the old
+ * one, so the collector never reads a half-written file.
+ */
+public final class Metrics {
+
+    /** Default export interval for {@code --metrics-textfile}, in seconds. */
+    public static final int DEFAULT_INTERVAL_SECONDS = 15;
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /** The process-wide registry. */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /** A value that only goes up. */
+    public static final class Counter {
+        private final DoubleAdder value = new DoubleAdder();
+
+        public void inc() {
+            value.add(1);
+        }
+
+        public void inc(double amount) {
+            value.add(amount);
+        }
+
+        public double get() {
+            return value.sum();
+        }
+    }
+
+    /** A value that is set, or goes up and down. */
+    public static final class Gauge {
+        private final AtomicLong bits = new AtomicLong(Double.doubleToLongBits(0));
+
+        public void set(double value) {
+            bits.set(Double.doubleToLongBits(value));
+        }
+
+        public void inc(double amount) {
+            bits.accumulateAndGet(0, (current, ignored) ->
+                    Double.doubleToLongBits(Double.longBitsToDouble(current) + amount));
+        }
+
+        public double get() {
+            return Double.longBitsToDouble(bits.get());
+        }
+    }
+
+    /** Observations counted into fixed buckets, with their sum and count. */
+    public static final class Histogram {
+        private final double[] bounds;
+        private final LongAdder[] buckets;
+        private final DoubleAdder sum = new DoubleAdder();
+        private final LongAdder count = new LongAdder();
+
+        private Histogram(double[] bounds) {
+            this.bounds = bounds.clone();
+            this.buckets = new LongAdder[bounds.length];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observe(double value) {
+            for (int i = 0; i < bounds.length; i++) {
+                if (value <= bounds[i]) {
+                    buckets[i].increment();
+                    break;
+                }
+            }
+            sum.add(value);
+            count.increment();
+        }
+
+        /** Observe the time since {@code startNanos} (from {@link System#nanoTime}), in seconds. */
+        public void observeSince(long startNanos) {
+            observe((System.nanoTime() - startNanos) / 1e9);
+        }
+    }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final String type;
+        final double[] bounds;
+        final Map<String, Object> children = new LinkedHashMap<>();
+
+        Family(String name, String help, String type, double[] bounds) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.bounds = bounds;
+        }
+    }
+
+    /**
+     * The counter {@code name}, with the given label name/value pairs (for example
+     * {@code "status", "200"}). Counter names should end in {@code _total}.
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) child(name, help, "counter", null, labels);
+    }
+
+    /** The gauge {@code name}, with the given label name/value pairs. */
+    public Gauge gauge(String name, String help, String... labels) {
+        return (Gauge) child(name, help, "gauge", null, labels);
+    }
+
+    /**
+     * The histogram {@code name} with the given upper bucket bounds (ascending; the
+     * {@code +Inf} bucket is implicit), with the given label name/value pairs.
+     */
+    public Histogram histogram(String name, String help, double[] bounds, String... labels) {
+        return (Histogram) child(name, help, "histogram", bounds, labels);
+    }
+
+    private synchronized Object child(String name, String help, String type, double[] bounds, String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs: " + name);
+        }
+        Family family = families.computeIfAbsent(name, k -> new Family(name, help, type, bounds));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        return family.children.computeIfAbsent(labelText(labels), k -> {
+            switch (type) {
+                case "counter": return new Counter();
+                case "gauge": return new Gauge();
+                default: return new Histogram(family.bounds);
+            }
+        });
+    }
+
+    private static String labelText(String[] labels) {
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /** Write every metric in the Prometheus text exposition format (version 0.0.4). */
+    public void write(Writer out) throws IOException {
+        List<Family> snapshot;
+        List<List<Map.Entry<String, Object>>> children = new ArrayList<>();
+        synchronized (this) {
+            snapshot = new ArrayList<>(families.values());
+            for (Family family : snapshot) {
+                children.add(new ArrayList<>(family.children.entrySet()));
+            }
+        }
+        for (int f = 0; f < snapshot.size(); f++) {
+            Family family = snapshot.get(f);
+            out.write("# HELP " + family.name + " " + family.help.replace("\\", "\\\\").replace("\n", "\\n") + "\n");
+            out.write("# TYPE " + family.name + " " + family.type + "\n");
+            for (Map.Entry<String, Object> child : children.get(f)) {
+                String labels = child.getKey();
+                Object metric = child.getValue();
+                if (metric instanceof Counter) {
+                    sample(out, family.name, labels, ((Counter) metric).get());
+                } else if (metric instanceof Gauge) {
+                    sample(out, family.name, labels, ((Gauge) metric).get());
+                } else {
+                    Histogram histogram = (Histogram) metric;
+                    long cumulative = 0;
+                    String prefix = labels.isEmpty() ? "" : labels + ",";
+                    for (int i = 0; i < histogram.bounds.length; i++) {
+                        cumulative += histogram.buckets[i].sum();
+                        sample(out, family.name + "_bucket", prefix + "le=\"" + format(histogram.bounds[i]) + "\"",
+                                cumulative);
+                    }
+                    // Observations in flight can make the count run ahead of the buckets
+                    // read above, never behind; +Inf (everything) must not fall below them.
+                    long count = histogram.count.sum();
+                    sample(out, family.name + "_bucket", prefix + "le=\"+Inf\"", Math.max(count, cumulative));
+                    sample(out, family.name + "_sum", labels, histogram.sum.sum());
+                    sample(out, family.name + "_count", labels, Math.max(count, cumulative));
+                }
+            }
+        }
+    }
+
+    private static void sample(Writer out, String name, String labels, double value) throws IOException {
+        out.write(name);
+        if (!labels.isEmpty()) {
+            out.write('{');
+            out.write(labels);
+            out.write('}');
+        }
+        out.write(' ');
+        out.write(format(value));
+        out.write('\n');
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * Write the metrics to {@code file} for node_exporter's textfile collector: written in
+     * full to a hidden temporary file in the same directory, then renamed over
+     * {@code file}, so readers see either the old or the new contents, never a mix.
+     */
+    public void writeTextfile(Path file) throws IOException {
+        StringWriter text = new StringWriter();
+        write(text);
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        // Not *.prom, so the collector ignores it while it's being written.
+        Path temp = Files.createTempFile(dir, "." + file.getFileName(), ".tmp");
+        try {
+            Files.write(temp, text.toString().getBytes(StandardCharsets.UTF_8));
+            try {
+                // createTempFile makes it owner-only; node_exporter usually runs as another user.
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-r--r--"));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system; keep the default permissions.
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Start exporting {@link #global()} if {@code args} asks for it: {@code
+     * --metrics-textfile <path>} rewrites {@code path} every {@code --metrics-interval
+     * <seconds>} (default {@value #DEFAULT_INTERVAL_SECONDS}) on a background thread, and
+     * once more when the JVM exits. Recognised flags are removed from {@code args}.
+     */
+    public static void fromArgs(List<String> args) {
+        int at = args.indexOf("--metrics-textfile");
+        if (at < 0 || at + 1 >= args.size()) {
+            return;
+        }
+        Path file = Paths.get(args.remove(at + 1));
+        args.remove(at);
+        int interval = DEFAULT_INTERVAL_SECONDS;
+        int intervalAt = args.indexOf("--metrics-interval");
+        if (intervalAt >= 0 && intervalAt + 1 < args.size()) {
+            interval = Math.max(1, Integer.parseInt(args.remove(intervalAt + 1)));
+            args.remove(intervalAt);
+        }
+        GLOBAL.startTextfileExport(file, interval);
+    }
+
+    /** Rewrite {@code file} every {@code intervalSeconds}, and at JVM exit. */
+    public void startTextfileExport(Path file, int intervalSeconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable export = () -> {
+            try {
+                writeTextfile(file);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Warning: could not write metrics to " + file + ": " + e.getMessage());
+            }
+        };
+        scheduler.scheduleAtFixedRate(export, 0, intervalSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            scheduler.shutdownNow();
+            export.run();
+        }, "metrics-final-export"));
+    }
+}
@@ -0,0 +1,394 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import org.apache.commons.codec.language.DaitchMokotoffSoundex;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over everyone's names (given, surname, married, Geni and full
+ * name), for finding a person without knowing their GEDCOM ID.
+ *
+ * <p>Names are split into words, folded to lower case without accents ("Łódź" and "lodz"
+ * are the same word), and each word maps to the sorted list of people carrying it. A
+ * query word matches a person's name word three ways, best first:
+ * <ul>
+ *   <li>exactly;</li>
+ *   <li>as a prefix ("mosk" finds Moskowitz) — the distinct words are kept sorted, so the
+ *       words with a prefix are one contiguous range found by binary search;</li>
+ *   <li>by Daitch–Mokotoff Soundex code, which is built for Eastern European and Jewish
+ *       surnames: Schwartz, Szwarc and Shvarts share a code, as do Katz and Kac. A word
+ *       can have several codes where its spelling is ambiguous; any shared code matches.</li>
+ * </ul>
+ * Every query word must match some name word. Results are ranked by the sum of each query
+ * word's best match, then by name, and can be limited to a range of birth years. When more
+ * people tie at the cut-off score than the limit allows, the ones earliest in the data are
+ * kept.
+ *
+ * <p>Phonetic codes are computed once per distinct word, not per person, so building the
+ * index for a million people takes a few seconds. A query reads only the posting lists of
+ * the words it matches, tallying into flat arrays indexed by person, and answers in a few
+ * milliseconds.
+ */
+public class NameIndex {
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int PHONETIC = 1;
+
+    /** Sentinel birth year for people without one. */
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+
+    private static final Pattern YEAR = Pattern.compile("\\b(\\d{4})\\b");
+
+    private final Person[] persons;
+    private final int[] birthYears;
+    // Distinct folded words, sorted, and for each the ordinals of the people carrying it.
+    private final String[] words;
+    private final int[][] wordPostings;
+    private final Map<String, int[]> codePostings = new HashMap<>();
+    private final DaitchMokotoffSoundex soundex = new DaitchMokotoffSoundex();
+
+    public NameIndex(GedcomData gedcomData) {
+        this(gedcomData.getPersons().values());
+    }
+
+    public NameIndex(Collection<Person> people) {
+        this.persons = people.toArray(new Person[0]);
+        this.birthYears = new int[persons.length];
+
+        Map<String, IntList> byWord = new HashMap<>();
+        for (int i = 0; i < persons.length; i++) {
+            Person p = persons[i];
+            Integer born = p.getBirthYear();
+            birthYears[i] = born == null ? NO_YEAR : born;
+            for (String word : nameWords(p)) {
+                byWord.computeIfAbsent(word, w -> new IntList()).add(i);
+            }
+        }
+        this.words = byWord.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        this.wordPostings = new int[words.length][];
+        Map<String, IntList> byCode = new HashMap<>();
+        for (int w = 0; w < words.length; w++) {
+            wordPostings[w] = byWord.get(words[w]).toArray();
+            for (String code : codes(words[w])) {
+                byCode.computeIfAbsent(code, c -> new IntList()).addAll(wordPostings[w]);
+            }
+        }
+        for (Map.Entry<String, IntList> e : byCode.entrySet()) {
+            codePostings.put(e.getKey(), e.getValue().toSortedDistinctArray());
+        }
+    }
+
+    public int size() {
+        return persons.length;
+    }
+
+    /** People matching every word of the name, best first. */
+    public List<Match> search(String name, int limit) {
+        return search(name, null, null, limit);
+    }
+
+    /**
+     * People matching every word of the name and born between {@code bornFrom} and
+     * {@code bornTo} inclusive (either may be null for no bound; with a bound, people
+     * without a birth year are left out), best first.
+     */
+    public List<Match> search(String name, Integer bornFrom, Integer bornTo, int limit) {
+        List<String> queryWords = new ArrayList<>(fold(name));
+        if (queryWords.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Most selective word first, so it bounds the candidates the others can add to.
+        Map<String, Integer> sizes = new HashMap<>();
+        for (String q : queryWords) {
+            sizes.put(q, candidateCount(q));
+        }
+        queryWords.sort(Comparator.comparing(sizes::get));
+        boolean yearFilter = bornFrom != null || bornTo != null;
+        int from = bornFrom == null ? Integer.MIN_VALUE + 1 : bornFrom;
+        int to = bornTo == null ? Integer.MAX_VALUE : bornTo;
+
+        // Dense per-query state, indexed by ordinal: how many query words a person has
+        // matched so far, their summed score and exact matches, and the current word's best.
+        byte[] matched = new byte[persons.length];
+        int[] total = new int[persons.length];
+        byte[] exact = new byte[persons.length];
+        byte[] best = new byte[persons.length];
+        IntList candidates = new IntList();
+        for (int w = 0; w < queryWords.size(); w++) {
+            int wordIndex = w;
+            IntList touched = new IntList();
+            matchWord(queryWords.get(w), (ordinal, score) -> {
+                if (matched[ordinal] != wordIndex) {
+                    return;
+                }
+                if (wordIndex == 0 && yearFilter
+                        && (birthYears[ordinal] == NO_YEAR || birthYears[ordinal] < from || birthYears[ordinal] > to)) {
+                    return;
+                }
+                if (best[ordinal] == 0) {
+                    touched.add(ordinal);
+                }
+                if (score > best[ordinal]) {
+                    best[ordinal] = (byte) score;
+                }
+            });
+            for (int i = 0; i < touched.size; i++) {
+                int ordinal = touched.values[i];
+                total[ordinal] += best[ordinal];
+                if (best[ordinal] == EXACT) {
+                    exact[ordinal]++;
+                }
+                best[ordinal] = 0;
+                matched[ordinal]++;
+            }
+            candidates = touched;
+            if (candidates.size == 0) {
+                break;
+            }
+        }
+
+        // Keep the best `limit` by score (ties beyond it cut in data order), then sort just
+        // those by score and name.
+        int wordCount = queryWords.size();
+        PriorityQueue<Integer> top = new PriorityQueue<>(
+                Comparator.comparingInt((Integer o) -> total[o]).thenComparing(o -> -o));
+        for (int i = 0; i < candidates.size; i++) {
+            int ordinal = candidates.values[i];
+            if (matched[ordinal] != wordCount) {
+                continue;
+            }
+            top.add(ordinal);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Match> matches = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int ordinal = top.poll();
+            matches.add(new Match(persons[ordinal], total[ordinal], exact[ordinal] == wordCount));
+        }
+        matches.sort(Comparator.comparingInt(Match::getScore).reversed()
+                .thenComparing(m -> m.getPerson().getDisplayName())
+                .thenComparing(m -> m.getPerson().getId()));
+        return matches;
+    }
+
+    private interface Hit {
+        void accept(int ordinal, int score);
+    }
+
+    /** Report every person a query word matches, with how well (possibly more than once). */
+    private void matchWord(String q, Hit hit) {
+        int from = lowerBound(q);
+        for (int w = from; w < words.length && words[w].startsWith(q); w++) {
+            int score = words[w].length() == q.length() ? EXACT : PREFIX;
+            for (int ordinal : wordPostings[w]) {
+                hit.accept(ordinal, score);
+            }
+        }
+        for (String code : codes(q)) {
+            int[] postings = codePostings.get(code);
+            if (postings != null) {
+                for (int ordinal : postings) {
+                    hit.accept(ordinal, PHONETIC);
+                }
+            }
+        }
+    }
+
+    /** Upper estimate of how many people a query word matches. */
+    private int candidateCount(String q) {
+        int count = 0;
+        for (int w = lowerBound(q); w < words.length && words[w].startsWith(q); w++) {
+            count += wordPostings[w].length;
+        }
+        for (String code : codes(q)) {
+            int[] postings = codePostings.get(code);
+            count += postings == null ? 0 : postings.length;
+        }
+        return count;
+    }
+
+    private int lowerBound(String q) {
+        int i = Arrays.binarySearch(words, q);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /** Daitch–Mokotoff codes for a folded word; none for non-Latin words, which it cannot code. */
+    private List<String> codes(String word) {
+        List<String> codes = new ArrayList<>();
+        for (String code : soundex.soundex(word).split("\\|")) {
+            if (!code.isEmpty() && !code.equals("000000")) {
+                codes.add(code);
+            }
+        }
+        return codes;
+    }
+
+    private static Set<String> nameWords(Person p) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String name : new String[]{p.getGivenName(), p.getSurname(), p.getMarriedName(),
+                p.getGeniName(), p.getFullName()}) {
+            if (name != null) {
+                words.addAll(fold(name));
+            }
+        }
+        return words;
+    }
+
+    /** Split into lower-case, accent-free words: "Szwarc-Kowalska, Łucja" -> szwarc, kowalska, lucja. */
+    static Set<String> fold(String text) {
+        String plain = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                // Only non-ASCII names pay for decomposition.
+                plain = Normalizer.normalize(text, Normalizer.Form.NFD)
+                        .replaceAll("\\p{M}", "")
+                        .replace('ł', 'l').replace('Ł', 'L').replace('ø', 'o').replace('Ø', 'O')
+                        .replace('đ', 'd').replace('Đ', 'D')
+                        .replace("ß", "ss").replace("æ", "ae").replace("œ", "oe");
+                break;
+            }
+        }
+        Set<String> words = new LinkedHashSet<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= plain.length(); i++) {
+            char c = i < plain.length() ? plain.charAt(i) : ' ';
+            if (Character.isLetter(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Resolve a command-line person argument: a GEDCOM ID (with or without @ symbols), or
+     * a name, optionally with a birth year ("Moshe Katz 1854" matches births 1852-1856).
+     * A name resolves when exactly one person matches it, or exactly one matches every word
+     * exactly. Otherwise prints the candidates (or that there were none) and returns null.
+     */
+    public static Person resolvePerson(GedcomData gedcomData, String idOrName) {
+        return resolvePerson(gedcomData, idOrName, Reporter.direct(System.out));
+    }
+
+    /**
+     * As {@link #resolvePerson(GedcomData, String)}, reporting the candidates (or that there
+     * were none) as warnings to {@code reporter}.
+     */
+    public static Person resolvePerson(GedcomData gedcomData, String idOrName, Reporter reporter) {
+        Person byId = gedcomData.getPerson(idOrName.replaceAll("@", "").trim());
+        if (byId != null) {
+            return byId;
+        }
+        Integer year = null;
+        Matcher y = YEAR.matcher(idOrName);
+        if (y.find()) {
+            year = Integer.valueOf(y.group(1));
+        }
+        NameIndex index = new NameIndex(gedcomData);
+        List<Match> matches = year == null
+                ? index.search(idOrName, RESOLVE_CANDIDATES + 1)
+                : index.search(idOrName, year - RESOLVE_YEAR_TOLERANCE, year + RESOLVE_YEAR_TOLERANCE, RESOLVE_CANDIDATES + 1);
+        if (matches.isEmpty()) {
+            reporter.warn("Error: no person with ID or name '" + idOrName + "' found.");
+            return null;
+        }
+        if (matches.size() == 1) {
+            return matches.get(0).getPerson();
+        }
+        List<Match> exact = new ArrayList<>();
+        for (Match m : matches) {
+            if (m.isExact()) {
+                exact.add(m);
+            }
+        }
+        if (exact.size() == 1) {
+            return exact.get(0).getPerson();
+        }
+        reporter.warn("Several people match '" + idOrName + "'; rerun with one of these IDs"
+                + (year == null ? " (or add a birth year)" : "") + ":");
+        for (Match m : matches.subList(0, Math.min(matches.size(), RESOLVE_CANDIDATES))) {
+            Person p = m.getPerson();
+            reporter.warn("  " + p.getId() + "\t" + p.getDisplayName()
+                    + (p.getLifeDates().isEmpty() ? "" : "\t" + p.getLifeDates()));
+        }
+        if (matches.size() > RESOLVE_CANDIDATES) {
+            reporter.warn("  ...");
+        }
+        return null;
+    }
+
+    private static final int RESOLVE_CANDIDATES = 20;
+    private static final int RESOLVE_YEAR_TOLERANCE = 2;
+
+    /** A search result: the person, their score, and whether every query word matched exactly. */
+    public static class Match {
+        private final Person person;
+        private final int score;
+        private final boolean exact;
+
+        Match(Person person, int score, boolean exact) {
+            this.person = person;
+            this.score = score;
+            this.exact = exact;
+        }
+
+        public Person getPerson() { return person; }
+        public int getScore() { return score; }
+        public boolean isExact() { return exact; }
+    }
+
+    /** Growable int array for building posting lists without boxing. */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(int[] more) {
+            if (size + more.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(size * 2, size + more.length));
+            }
+            System.arraycopy(more, 0, values, size, more.length);
+            size += more.length;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        int[] toSortedDistinctArray() {
+            int[] sorted = toArray();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
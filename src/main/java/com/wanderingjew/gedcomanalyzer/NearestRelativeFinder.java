@@ -0,0 +1,138 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Finds a person's k nearest blood relatives of any kind — ancestors, descendants and
+ * collaterals alike — by a best-first search outward from them, stopping as soon as k
+ * relatives have been settled. Nothing is enumerated beyond the frontier the search
+ * actually reaches, so asking for the 100 nearest touches a few hundred people, not the
+ * full ancestor or cousin sets.
+ *
+ * <p>Distance is the degree of relationship: the number of parent/child links on the
+ * path up to the common ancestor and back down (a parent or child is 1, a sibling or
+ * grandparent 2, an aunt 3, a 1st cousin 4). The search runs over (person, phase) states
+ * like {@link RelationshipLabeller}: while climbing a path may step to a parent or a
+ * child, once descending only to a child, so every path is a blood relationship and
+ * in-laws are never reached. Among relatives at the same degree, the one whose common
+ * ancestor is fewer generations up comes first (a grandchild, then a sibling, then a
+ * grandparent); remaining ties keep the order of the data's parent and child lists.
+ *
+ * <p>Under pedigree collapse a relative reachable several ways is reported once, at
+ * their closest degree.
+ */
+public class NearestRelativeFinder {
+
+    private final Person person;
+
+    public NearestRelativeFinder(Person person) {
+        this.person = person;
+    }
+
+    /** The k nearest relatives, nearest first. */
+    public List<Relative> find(int k) {
+        return find(k, p -> true);
+    }
+
+    /**
+     * The k nearest relatives that match the filter, nearest first. People the filter
+     * rejects are still searched through — a living cousin is found via their deceased
+     * grandparents — they are just not counted.
+     */
+    public List<Relative> find(int k, Predicate<Person> filter) {
+        List<Relative> result = new ArrayList<>();
+        if (person == null || k <= 0) {
+            return result;
+        }
+        Set<Person> settledClimbing = new HashSet<>();
+        Set<Person> settledDescending = new HashSet<>();
+        Set<Person> reported = new HashSet<>();
+        reported.add(person);
+
+        PriorityQueue<Entry> queue = new PriorityQueue<>();
+        long sequence = 0;
+        queue.add(new Entry(person, 0, 0, sequence++));
+        while (!queue.isEmpty()) {
+            Entry entry = queue.poll();
+            boolean climbing = entry.down == 0;
+            if (!(climbing ? settledClimbing : settledDescending).add(entry.person)) {
+                continue;
+            }
+            if (reported.add(entry.person) && filter.test(entry.person)) {
+                result.add(new Relative(entry.person, entry.up, entry.down));
+                if (result.size() == k) {
+                    break;
+                }
+            }
+            if (climbing) {
+                for (Person parent : entry.person.getParents()) {
+                    if (!settledClimbing.contains(parent)) {
+                        queue.add(new Entry(parent, entry.up + 1, 0, sequence++));
+                    }
+                }
+            }
+            for (Person child : entry.person.getChildren()) {
+                if (!settledDescending.contains(child)) {
+                    queue.add(new Entry(child, entry.up, entry.down + 1, sequence++));
+                }
+            }
+        }
+        return result;
+    }
+
+    /** A relative and how they are related: generations up to the common ancestor, then down. */
+    public static class Relative {
+        private final Person person;
+        private final int up;
+        private final int down;
+
+        Relative(Person person, int up, int down) {
+            this.person = person;
+            this.up = up;
+            this.down = down;
+        }
+
+        public Person getPerson() { return person; }
+        public int getUp() { return up; }
+        public int getDown() { return down; }
+
+        /** Degree of relationship: parent/child links on the path. */
+        public int getDegree() {
+            return up + down;
+        }
+
+        /** E.g. "grandmother", "1st cousin once removed". */
+        public String getLabel() {
+            return RelationshipNames.name(up, down, person);
+        }
+    }
+
+    /** A queued state: ordered by degree, then generations up, then insertion order. */
+    private static final class Entry implements Comparable<Entry> {
+        final Person person;
+        final int up;
+        final int down;
+        final long sequence;
+
+        Entry(Person person, int up, int down, long sequence) {
+            this.person = person;
+            this.up = up;
+            this.down = down;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int c = Integer.compare(up + down, other.up + other.down);
+            if (c == 0) {
+                c = Integer.compare(up, other.up);
+            }
+            return c != 0 ? c : Long.compare(sequence, other.sequence);
+        }
+    }
+}
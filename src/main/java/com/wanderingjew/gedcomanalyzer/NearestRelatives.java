@@ -0,0 +1,85 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * CLI that lists a person's k nearest blood relatives (100 by default) — ancestors,
+ * descendants and collaterals together, ranked by degree of relationship — optionally
+ * only those presumed living or those with map coordinates, as tab-separated lines.
+ */
+public class NearestRelatives {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        boolean livingOnly = false;
+        boolean mappedOnly = false;
+        for (String arg : args) {
+            if ("--living".equals(arg)) {
+                livingOnly = true;
+            } else if ("--mapped".equals(arg)) {
+                mappedOnly = true;
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() < 2 || positional.size() > 4) {
+            System.out.println("Usage: NearestRelatives <gedcom-files> <person-id-or-name> [k] [output.tsv] [--living] [--mapped]");
+            System.out.println("  Lists the k nearest blood relatives (default 100), nearest first.");
+            System.out.println("  output.tsv: where to write them (default: print them)");
+            System.out.println("  --living:   only people presumed living (no death recorded, born in the last 100 years)");
+            System.out.println("  --mapped:   only people with coordinates for some location");
+            System.exit(1);
+        }
+        int k = positional.size() >= 3 ? Integer.parseInt(positional.get(2)) : 100;
+        String output = positional.size() == 4 ? positional.get(3) : null;
+
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(positional.get(0));
+        if (files.isEmpty()) {
+            System.out.println("Error: no GEDCOM (.ged) files found for '" + positional.get(0) + "'.");
+            System.exit(1);
+        }
+        GedcomParser parser = new GedcomParser();
+        GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+        Person person = NameIndex.resolvePerson(data, positional.get(1));
+        if (person == null) {
+            System.exit(1);
+        }
+
+        Predicate<Person> filter = p -> true;
+        if (livingOnly) {
+            filter = filter.and(Person::isPresumedLiving);
+        }
+        if (mappedOnly) {
+            filter = filter.and(Person::hasCoordinates);
+        }
+        List<NearestRelativeFinder.Relative> relatives =
+                new FamilyRelationshipAnalyzer(data).getNearestRelatives(person, k, filter);
+
+        PrintWriter out = output != null
+                ? new PrintWriter(Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8))
+                : new PrintWriter(System.out);
+        try {
+            out.println("rank\tid\tname\tlife_dates\trelationship\tdegree");
+            int rank = 0;
+            for (NearestRelativeFinder.Relative relative : relatives) {
+                Person p = relative.getPerson();
+                out.println(++rank + "\t" + p.getId() + "\t" + p.getDisplayName() + "\t" + p.getLifeDates()
+                        + "\t" + relative.getLabel() + "\t" + relative.getDegree());
+            }
+        } finally {
+            out.flush();
+            if (output != null) {
+                out.close();
+            }
+        }
+        if (output != null) {
+            System.out.println(relatives.size() + " nearest relatives of " + person + " written to " + output);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders long lists of relatives (ancestors, descendants, cousins) for the paged report:
+ * instead of one DOM node per person, each list is embedded as compact JSON data and
+ * rendered in the browser one page at a time, with a search box. A list of 100,000
+ * cousins costs a few megabytes of data and 100 rows of DOM, so the page stays responsive
+ * however large the family, and generation time is just the cost of writing the JSON.
+ *
+ * <p>The data is parsed only when its section scrolls into view. Rows keep the report's
+ * own markup and CSS classes, and headings ("2nd Cousins (40)", "Children of X & Y") are
+ * repeated at the top of each page so every page reads on its own.
+ */
+public class PagedListWriter {
+
+    /** Rows shown per page. */
+    public static final int PAGE_SIZE = 100;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public PagedListWriter() {
+        // The JSON sits inside a <script> element, so it must never contain "</script>".
+        mapper.getFactory().setCharacterEscapes(new ScriptSafeEscapes());
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * A list being built for one section: rows of people under two levels of headings
+     * (a heading such as a generation or cousin degree, and an optional family
+     * sub-heading), in display order.
+     */
+    public static class PagedList {
+        private final List<String> headings = new ArrayList<>();
+        private final List<String> subheadings = new ArrayList<>();
+        private final List<Object[]> rows = new ArrayList<>();
+        private int heading = -1;
+        private int subheading = -1;
+
+        /** Start a new heading; subsequent rows fall under it, with no sub-heading. */
+        public void heading(String text) {
+            headings.add(text);
+            heading = headings.size() - 1;
+            subheading = -1;
+        }
+
+        /** Start a new sub-heading under the current heading. */
+        public void subheading(String text) {
+            subheadings.add(text);
+            subheading = subheadings.size() - 1;
+        }
+
+        /**
+         * Add a person. {@code count} > 1 shows the "(Nx)" marker; {@code crossRef} and
+         * {@code detail} may be empty.
+         */
+        public void add(Person person, int count, String crossRef, String detail) {
+            rows.add(new Object[]{heading, subheading, person.getDisplayName(), person.getId(),
+                    person.getLifeDates(), count, crossRef, detail});
+        }
+
+        public boolean isEmpty() {
+            return rows.isEmpty();
+        }
+
+        public int size() {
+            return rows.size();
+        }
+    }
+
+    /** CSS and script for the &lt;head&gt; of any page with paged sections. */
+    public static String head() {
+        return "    <style>\n" + css() + "\n    </style>\n    <script>\n" + script() + "\n    </script>";
+    }
+
+    /**
+     * Write an embeddable paged section for the list into element {@code divId}. The page
+     * must include {@link #head()}. Writes the data straight to {@code out}, without
+     * building it as a string first.
+     */
+    public void writeSection(PrintWriter out, PagedList list, String divId) throws IOException {
+        out.println("        <div class=\"paged\" id=\"" + divId + "\" data-page-size=\"" + PAGE_SIZE + "\"></div>");
+        out.print("        <script type=\"application/json\" id=\"" + divId + "-data\">");
+        try (JsonGenerator json = mapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            writeStrings(json, "headings", list.headings);
+            writeStrings(json, "subheadings", list.subheadings);
+            json.writeArrayFieldStart("rows");
+            for (Object[] row : list.rows) {
+                json.writeStartArray();
+                json.writeNumber((Integer) row[0]);
+                json.writeNumber((Integer) row[1]);
+                json.writeString((String) row[2]);
+                json.writeString((String) row[3]);
+                json.writeString((String) row[4]);
+                json.writeNumber((Integer) row[5]);
+                json.writeString((String) row[6]);
+                json.writeString((String) row[7]);
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        out.println("</script>");
+        out.println("        <script>pagedList('" + divId + "');</script>");
+    }
+
+    private static void writeStrings(JsonGenerator json, String field, List<String> values) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+
+    /** Escapes '<' as a unicode escape, so no string can close the enclosing script element. */
+    private static class ScriptSafeEscapes extends CharacterEscapes {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] escapes = standardAsciiEscapesForJSON();
+
+        ScriptSafeEscapes() {
+            escapes['<'] = CharacterEscapes.ESCAPE_STANDARD;
+        }
+
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return escapes;
+        }
+
+        @Override
+        public SerializableString getEscapeSequence(int ch) {
+            return null;
+        }
+    }
+
+    private static String css() {
+        return String.join("\n",
+            "        .paged { min-height: 40px; }",
+            "        .paged-bar { display: flex; gap: 10px; align-items: center; margin: 10px 0; }",
+            "        .paged-bar input { padding: 4px 8px; width: 260px; }",
+            "        .paged-bar button { padding: 3px 10px; }",
+            "        .paged-status { color: #7f8c8d; font-size: 13px; }",
+            "        .paged-sub { margin-left: 20px; margin-top: 8px; color: #8e44ad; font-size: 16px; font-weight: bold; }");
+    }
+
+    // Shared by every paged section: pagedList(id) wires up one section.
+    private static String script() {
+        return String.join("\n",
+            "function pagedList(id) {",
+            "  const root = document.getElementById(id);",
+            "  let data = null, shown = null, page = 0, keys = null;",
+            "  const esc = s => (s == null ? '' : String(s)).replace(/[&<>\"']/g,",
+            "    c => ({'&':'&amp;','<':'&lt;','>':'&gt;','\"':'&quot;',\"'\":'&#39;'}[c]));",
+            "  const size = parseInt(root.dataset.pageSize, 10);",
+            "  function load() {",
+            "    if (data) return;",
+            "    data = JSON.parse(document.getElementById(id + '-data').textContent);",
+            "    shown = data.rows;",
+            "    root.innerHTML = '<div class=\"paged-bar\"><input type=\"search\" placeholder=\"Search name, ID or dates\">' +",
+            "      '<button data-step=\"-1\">&laquo; Prev</button><button data-step=\"1\">Next &raquo;</button>' +",
+            "      '<span class=\"paged-status\"></span></div><div class=\"paged-rows\"></div>';",
+            "    let timer = null;",
+            "    root.querySelector('input').addEventListener('input', e => {",
+            "      clearTimeout(timer);",
+            "      timer = setTimeout(() => filter(e.target.value), 150);",
+            "    });",
+            "    root.querySelectorAll('button').forEach(b => b.addEventListener('click', () => {",
+            "      const last = Math.max(0, Math.ceil(shown.length / size) - 1);",
+            "      page = Math.min(last, Math.max(0, page + parseInt(b.dataset.step, 10)));",
+            "      render();",
+            "      root.scrollIntoView();",
+            "    }));",
+            "    render();",
+            "  }",
+            "  function filter(query) {",
+            "    const q = query.trim().toLowerCase();",
+            "    if (!keys) keys = data.rows.map(r => (r[2] + ' ' + r[3] + ' ' + r[4]).toLowerCase());",
+            "    shown = q ? data.rows.filter((r, i) => keys[i].includes(q)) : data.rows;",
+            "    page = 0;",
+            "    render();",
+            "  }",
+            "  function render() {",
+            "    const rows = shown.slice(page * size, (page + 1) * size);",
+            "    let html = '', heading = -1, sub = -1;",
+            "    for (const r of rows) {",
+            "      if (r[0] !== heading) { heading = r[0]; sub = -1; if (heading >= 0) html += '<h3>' + esc(data.headings[heading]) + '</h3>'; }",
+            "      if (r[1] !== sub) { sub = r[1]; if (sub >= 0) html += '<div class=\"paged-sub\">' + esc(data.subheadings[sub]) + '</div>'; }",
+            "      html += '<div class=\"person\"><span class=\"person-name\">' + esc(r[2]) + '</span>' +",
+            "        (r[5] > 1 ? ' <span class=\"dup-count\">(' + r[5] + 'x)</span>' : '') +",
+            "        (r[6] ? ' <span class=\"cross-ref\">\\u2014 ' + esc(r[6]) + '</span>' : '') +",
+            "        ' <span class=\"person-id\"> (' + esc(r[3]) + ')</span>' +",
+            "        (r[4] ? '<div class=\"life-dates\">' + esc(r[4]) + '</div>' : '') +",
+            "        (r[7] ? '<div class=\"ahnentafel\">' + esc(r[7]) + '</div>' : '') + '</div>';",
+            "    }",
+            "    root.querySelector('.paged-rows').innerHTML = html || '<p>No matches.</p>';",
+            "    const from = shown.length ? page * size + 1 : 0;",
+            "    root.querySelector('.paged-status').textContent = from + '\\u2013' + (page * size + rows.length) +",
+            "      ' of ' + shown.length + (shown.length < data.rows.length ? ' (filtered from ' + data.rows.length + ')' : '');",
+            "  }",
+            "  if ('IntersectionObserver' in window) {",
+            "    const seen = new IntersectionObserver(entries => {",
+            "      if (entries.some(e => e.isIntersecting)) { seen.disconnect(); load(); }",
+            "    }, { rootMargin: '400px' });",
+            "    seen.observe(root);",
+            "  } else {",
+            "    load();",
+            "  }",
+            "}");
+    }
+}
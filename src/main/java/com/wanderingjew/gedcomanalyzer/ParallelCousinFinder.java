@@ -0,0 +1,185 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Enumerates deep cousin degrees (7th-12th cousins and beyond) in parallel on a
+ * {@link ForkJoinPool}. Gives the same people as
+ * {@link FamilyRelationshipAnalyzer#getCousins(Person, int)} for the degrees that method
+ * covers.
+ *
+ * <p>Nth cousins are the generation-N descendants of the siblings of the person's
+ * generation-N ancestors, less closer relatives. The work is split at that common-ancestor
+ * level: each of those siblings heads a collateral line, and lines are descended as
+ * fork/join tasks that split again whenever a generation gets wide. Two concurrent maps
+ * keep it linear under pedigree collapse:
+ * <ul>
+ *   <li>a visited map records, per person, the depths they have already been descended
+ *       from (a bitmask updated with compare-and-set), so a line reached through several
+ *       marriages between cousins is only walked once per depth;</li>
+ *   <li>a concurrent result set dedupes the cousins themselves.</li>
+ * </ul>
+ *
+ * <p>The closer relatives to exclude — the person, their siblings and cousins of every
+ * lower degree — are gathered first the same way (the generation-k descendants of the
+ * siblings of the generation-k ancestors, for each k below N), which costs less than the
+ * degree-N walk itself since each degree is several times smaller than the next.
+ *
+ * <p>Results are sorted by person ID, so they are identical from run to run whatever
+ * order the threads happened to finish in.
+ */
+public class ParallelCousinFinder {
+
+    /** Below this many people, a generation is expanded in the current task. */
+    private static final int SPLIT_THRESHOLD = 64;
+
+    /** Deepest degree supported: the visited bitmask has one bit per depth. */
+    public static final int MAX_DEGREE = 30;
+
+    private final ForkJoinPool pool;
+
+    /** Runs on the common fork/join pool. */
+    public ParallelCousinFinder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelCousinFinder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Cousins of the given degree, sorted by ID. */
+    public List<Person> findCousins(Person person, int degree) {
+        if (person == null || degree < 1) {
+            return new ArrayList<>();
+        }
+        if (degree > MAX_DEGREE) {
+            throw new IllegalArgumentException("Cousin degree must be at most " + MAX_DEGREE + ": " + degree);
+        }
+        // siblingsOfAncestors.get(k) = siblings of the person's generation-k ancestors,
+        // taking ancestors at each exact generation by any line.
+        List<List<Person>> siblingsOfAncestors = new ArrayList<>();
+        siblingsOfAncestors.add(Collections.emptyList());
+        Set<Person> generation = Collections.singleton(person);
+        for (int k = 1; k <= degree; k++) {
+            Set<Person> parents = new LinkedHashSet<>();
+            for (Person p : generation) {
+                parents.addAll(p.getParents());
+            }
+            generation = parents;
+            Set<Person> siblings = new LinkedHashSet<>();
+            for (Person ancestor : generation) {
+                siblings.addAll(ancestor.getSiblings());
+            }
+            siblingsOfAncestors.add(new ArrayList<>(siblings));
+        }
+
+        // Closer relatives first: one shared visited map is right here, since every
+        // degree below N feeds the same exclusion set.
+        Set<Person> closer = ConcurrentHashMap.newKeySet();
+        closer.add(person);
+        closer.addAll(person.getSiblings());
+        Map<Person, Integer> closerVisited = new ConcurrentHashMap<>();
+        for (int k = 1; k < degree; k++) {
+            pool.invoke(new DescendTask(firstVisits(siblingsOfAncestors.get(k), k, closerVisited),
+                    k, closerVisited, closer, Collections.emptySet()));
+        }
+
+        Set<Person> cousins = ConcurrentHashMap.newKeySet();
+        Map<Person, Integer> visited = new ConcurrentHashMap<>();
+        pool.invoke(new DescendTask(firstVisits(siblingsOfAncestors.get(degree), degree, visited),
+                degree, visited, cousins, closer));
+
+        List<Person> result = new ArrayList<>(cousins);
+        result.sort(Comparator.comparing(Person::getId));
+        return result;
+    }
+
+    /** The people not yet descended from at this depth, marking them as visited. */
+    private static List<Person> firstVisits(List<Person> people, int depth, Map<Person, Integer> visited) {
+        List<Person> fresh = new ArrayList<>(people.size());
+        for (Person p : people) {
+            if (markVisited(visited, p, depth)) {
+                fresh.add(p);
+            }
+        }
+        return fresh;
+    }
+
+    /** Atomically record that a person is descended from at a depth; false if already was. */
+    private static boolean markVisited(Map<Person, Integer> visited, Person person, int depth) {
+        int bit = 1 << depth;
+        while (true) {
+            Integer mask = visited.putIfAbsent(person, bit);
+            if (mask == null) {
+                return true;
+            }
+            if ((mask & bit) != 0) {
+                return false;
+            }
+            if (visited.replace(person, mask, mask | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Collects everyone exactly {@code remaining} generations below the given people into
+     * {@code out} (skipping {@code exclude}). Wide generations are split in half and forked.
+     */
+    private static final class DescendTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Person> people;
+        private final int remaining;
+        private final Map<Person, Integer> visited;
+        private final Set<Person> out;
+        private final Set<Person> exclude;
+
+        DescendTask(List<Person> people, int remaining, Map<Person, Integer> visited,
+                    Set<Person> out, Set<Person> exclude) {
+            this.people = people;
+            this.remaining = remaining;
+            this.visited = visited;
+            this.out = out;
+            this.exclude = exclude;
+        }
+
+        @Override
+        protected void compute() {
+            if (people.size() > SPLIT_THRESHOLD) {
+                int mid = people.size() / 2;
+                invokeAll(new DescendTask(people.subList(0, mid), remaining, visited, out, exclude),
+                        new DescendTask(people.subList(mid, people.size()), remaining, visited, out, exclude));
+                return;
+            }
+            if (remaining == 0) {
+                for (Person p : people) {
+                    if (!exclude.contains(p)) {
+                        out.add(p);
+                    }
+                }
+                return;
+            }
+            List<Person> children = new ArrayList<>();
+            for (Person p : people) {
+                for (Person child : p.getChildren()) {
+                    if (markVisited(visited, child, remaining - 1)) {
+                        children.add(child);
+                    }
+                }
+            }
+            if (!children.isEmpty()) {
+                new DescendTask(children, remaining - 1, visited, out, exclude).compute();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.wanderingjew.gedcomanalyzer;
 
+import java.time.Year;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -16,6 +17,7 @@ public class Person {
     private String marriedName;
     private String fullName;
     private String geniName;
+    private String geniGuid;
     private String birthDate;
     private String deathDate;
     private String birthPlace;
@@ -58,6 +60,13 @@ public class Person {
     public String getGeniName() { return geniName; }
     public void setGeniName(String geniName) { this.geniName = geniName; }
 
+    /**
+     * The guid of the Geni profile this person came from: set by the Geni fetcher, or read
+     * back from an "RFN geni:..." line. Null for people from other sources.
+     */
+    public String getGeniGuid() { return geniGuid; }
+    public void setGeniGuid(String geniGuid) { this.geniGuid = geniGuid; }
+
     public String getFullName() { return fullName; }
     public void setFullName(String fullName) { this.fullName = fullName; }
 
@@ -116,6 +125,42 @@ public class Person {
     public List<Person> getSiblings() { return siblings; }
     public void setSiblings(List<Person> siblings) { this.siblings = siblings; }
 
+    /**
+     * The father: the first male parent, or failing that the first parent of unknown sex.
+     * A person may have more than two recorded parents (e.g. biological and adoptive
+     * families); this picks the one occupying the paternal slot of a pedigree.
+     */
+    public Person getFather() {
+        Person unsexed = null;
+        for (Person parent : parents) {
+            if (parent.isMale()) {
+                return parent;
+            }
+            if (unsexed == null && !parent.isFemale()) {
+                unsexed = parent;
+            }
+        }
+        return unsexed;
+    }
+
+    /**
+     * The mother: the first female parent, or failing that the first parent of unknown
+     * sex other than the one {@link #getFather()} already chose.
+     */
+    public Person getMother() {
+        Person father = getFather();
+        Person unsexed = null;
+        for (Person parent : parents) {
+            if (parent.isFemale()) {
+                return parent;
+            }
+            if (unsexed == null && !parent.isMale() && !parent.equals(father)) {
+                unsexed = parent;
+            }
+        }
+        return unsexed;
+    }
+
     /**
      * Add a family ID where this person is a child.
      */
@@ -224,10 +269,48 @@ public class Person {
         return sb.toString();
     }
 
+    /** Birth year from the birth date, or null if there is none. */
+    public Integer getBirthYear() {
+        String year = extractYear(birthDate);
+        return year == null ? null : Integer.valueOf(year);
+    }
+
+    /** Death year from the death date, or null if there is none. */
+    public Integer getDeathYear() {
+        String year = extractYear(deathDate);
+        return year == null ? null : Integer.valueOf(year);
+    }
+
+    /**
+     * True when this person is presumably still alive: no death date or place is recorded,
+     * and they either have a current residence or were born within the last
+     * {@value #PRESUMED_LIVING_YEARS} years. Someone with no dates at all is not presumed
+     * living — in a deep tree they are far more likely an ancestor with a sparse record.
+     */
+    public boolean isPresumedLiving() {
+        if (trimToNull(deathDate) != null || trimToNull(deathPlace) != null) {
+            return false;
+        }
+        if (trimToNull(currentPlace) != null || currentLatitude != null) {
+            return true;
+        }
+        Integer born = getBirthYear();
+        return born != null && born > Year.now().getValue() - PRESUMED_LIVING_YEARS;
+    }
+
+    private static final int PRESUMED_LIVING_YEARS = 100;
+
+    /** True when any of current residence, death or birth location has coordinates. */
+    public boolean hasCoordinates() {
+        return (currentLatitude != null && currentLongitude != null)
+                || (deathLatitude != null && deathLongitude != null)
+                || (birthLatitude != null && birthLongitude != null);
+    }
+
     private static final Pattern YEAR_PATTERN = Pattern.compile("(\\d{4})");
 
     /** Extract the first 4-digit year from a GEDCOM date value (handles "BET 1732 AND 1735", "ABT 1900", etc.). */
-    private String extractYear(String date) {
+    private static String extractYear(String date) {
         if (date == null) {
             return null;
         }
@@ -236,11 +319,17 @@ public class Person {
     }
 
     /** True when this person is recorded as female (GEDCOM "F" or "female"). */
-    private boolean isFemale() {
+    public boolean isFemale() {
         String s = trimToNull(sex);
         return s != null && (s.equalsIgnoreCase("F") || s.equalsIgnoreCase("female"));
     }
 
+    /** True when this person is recorded as male (GEDCOM "M" or "male"). */
+    public boolean isMale() {
+        String s = trimToNull(sex);
+        return s != null && (s.equalsIgnoreCase("M") || s.equalsIgnoreCase("male"));
+    }
+
     /** Surname for display, treating the "NN" placeholder (no/unknown name) as absent. */
     private String maidenSurname() {
         String s = trimToNull(surname);
@@ -0,0 +1,603 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Long-running HTTP server that parses the GEDCOM data once and answers relationship
+ * queries against the resident graph, instead of paying a JVM start and a full parse per
+ * question.
+ *
+ * <p>Endpoints (all GET; JSON unless noted):
+ * <ul>
+ *   <li>{@code /ancestors?id=I1[&limit=N]} and {@code /descendants?id=I1[&limit=N]} —
+ *       grouped by generation; with a limit, only the nearest N, found lazily</li>
+ *   <li>{@code /cousins?id=I1&degree=2} — cousins of degree 1-6, grouped by parent family</li>
+ *   <li>{@code /relationship?from=I1&to=I2[&spouseCost=N][&kinship=true]} — shortest path
+ *       and its name, plus the kinship coefficient on request (it can take seconds on a
+ *       deep endogamous tree, though the calculator's memo makes repeats cheaper)</li>
+ *   <li>{@code /search?name=moshe+katz[&bornFrom=1850][&bornTo=1860][&limit=N]} — people
+ *       whose names match by word, prefix or Daitch–Mokotoff sound, best first (see
+ *       {@link NameIndex}), for finding the ID to use in the other queries</li>
+ *   <li>{@code /report?id=I1[&paged=true]} — the full HTML report, optionally with its
+ *       relative lists paged in the browser (see {@link PagedListWriter})</li>
+ *   <li>{@code /stats} — dataset, cache, executor and per-endpoint latency percentiles</li>
+ * </ul>
+ *
+ * <p>The parsed data, its analyzer and a bounded LRU cache of rendered responses form one
+ * immutable {@link Dataset} snapshot held in an {@link AtomicReference}. Each request
+ * reads the reference once and works against that snapshot throughout. A background
+ * poller re-parses when the source files change (once the change has held still for one
+ * poll, so a half-written export isn't loaded) and swaps the new snapshot in; in-flight
+ * queries finish against the old one, and a failed parse keeps the old one serving.
+ *
+ * <p>Requests run on a fixed-size pool with a bounded queue. When both are full, the
+ * server's dispatcher thread runs the request itself, which stops it accepting new
+ * connections until it's done — back-pressure instead of unbounded queueing.
+ *
+ * <p>The server listens on the loopback address only, since it hands out the whole tree,
+ * living people included; {@code --bind} opens it to other machines.
+ */
+public class QueryServer {
+
+    /** Rendered responses cached per dataset snapshot. */
+    private static final int CACHE_ENTRIES = 512;
+
+    /** Latency samples kept per endpoint for the percentiles. */
+    private static final int LATENCY_SAMPLES = 4096;
+
+    private final String gedcomFiles;
+    private final AtomicReference<Dataset> dataset = new AtomicReference<>();
+    private final Map<String, LatencyStats> latencies = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger reloads = new AtomicInteger();
+    // Fingerprint seen by the last poll that differed from the loaded one (debounce).
+    private Map<String, String> pendingFingerprint;
+
+    private HttpServer server;
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService poller;
+
+    public QueryServer(String gedcomFiles) throws IOException {
+        this.gedcomFiles = gedcomFiles;
+        this.dataset.set(Dataset.load(gedcomFiles));
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        int port = 8080;
+        String bind = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int reloadSeconds = 5;
+        for (int i = 0; i < args.length; i++) {
+            if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--bind".equals(args[i]) && i + 1 < args.length) {
+                bind = args[++i];
+            } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if ("--reload-seconds".equals(args[i]) && i + 1 < args.length) {
+                reloadSeconds = Integer.parseInt(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() != 1) {
+            System.out.println("Usage: QueryServer <gedcom-files> [--port N] [--bind ADDRESS] [--threads N] [--reload-seconds N]");
+            System.out.println("  gedcom-files: a directory (uses every *.ged inside it), a single file,");
+            System.out.println("                or a comma-separated list of files");
+            System.out.println("  --port:           port to listen on (default 8080)");
+            System.out.println("  --bind:           address to listen on (default: loopback only, so only this machine");
+            System.out.println("                    can query the tree); 0.0.0.0 for every interface");
+            System.out.println("  --threads:        request worker threads (default: one per core)");
+            System.out.println("  --reload-seconds: how often to check the files for changes (default 5; 0 = never)");
+            System.out.println();
+            System.out.println("Endpoints: /ancestors?id=[&limit=]  /descendants?id=[&limit=]  /cousins?id=&degree=");
+            System.out.println("           /relationship?from=&to=[&kinship=true]  /report?id=[&paged=true]  /stats");
+            System.exit(1);
+        }
+
+        QueryServer queryServer = new QueryServer(positional.get(0));
+        Dataset loaded = queryServer.dataset.get();
+        System.out.println("Loaded " + loaded.data.getPersonCount() + " persons and "
+                + loaded.data.getFamilyCount() + " families from " + loaded.files.size() + " file(s).");
+        InetAddress address = bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind);
+        queryServer.start(address, port, threads, reloadSeconds);
+        Runtime.getRuntime().addShutdownHook(new Thread(queryServer::stop));
+        System.out.println("Listening on http://" + (bind == null ? "localhost" : bind) + ":" + port + "/ with "
+                + threads + " worker thread(s).");
+    }
+
+    /** Start serving on the loopback address. {@code reloadSeconds} of 0 disables change detection. */
+    public void start(int port, int threads, int reloadSeconds) throws IOException {
+        start(InetAddress.getLoopbackAddress(), port, threads, reloadSeconds);
+    }
+
+    /** Start serving on {@code address}. {@code reloadSeconds} of 0 disables change detection. */
+    public void start(InetAddress address, int port, int threads, int reloadSeconds) throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 16),
+                r -> {
+                    Thread t = new Thread(r, "query-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+
+        if (reloadSeconds > 0) {
+            poller = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "gedcom-reload");
+                t.setDaemon(true);
+                return t;
+            });
+            poller.scheduleWithFixedDelay(this::reloadIfChanged, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Stop accepting requests, give in-flight ones a second to finish, and shut down. */
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        if (server != null) {
+            server.stop(1);
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Re-parse and swap in a new snapshot if the source files have changed and held
+     * still since the previous poll. Returns true if a new snapshot was loaded.
+     */
+    boolean reloadIfChanged() {
+        Map<String, String> current = Dataset.fingerprint(GedcomFamilyAnalyzer.resolveGedcomFiles(gedcomFiles));
+        if (current.equals(dataset.get().fingerprint)) {
+            pendingFingerprint = null;
+            return false;
+        }
+        if (!current.equals(pendingFingerprint)) {
+            pendingFingerprint = current;
+            return false;
+        }
+        try {
+            Dataset fresh = Dataset.load(gedcomFiles);
+            dataset.set(fresh);
+            pendingFingerprint = null;
+            reloads.incrementAndGet();
+            System.out.println("Reloaded " + fresh.data.getPersonCount() + " persons and "
+                    + fresh.data.getFamilyCount() + " families.");
+            return true;
+        } catch (Exception e) {
+            // Keep serving the old snapshot; the next poll will try again.
+            System.err.println("Reload failed, still serving the previous data: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String path = exchange.getRequestURI().getPath();
+        Response response;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                response = error(405, "Only GET is supported.");
+            } else {
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                response = respond(path, params, dataset.get());
+            }
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (Exception e) {
+            // The details stay in the server's log; they can name files and internals.
+            System.err.println("Error answering " + exchange.getRequestURI() + ": " + e);
+            e.printStackTrace();
+            response = error(500, "Internal server error.");
+        }
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", response.contentType);
+            exchange.sendResponseHeaders(response.status, response.body.length);
+            out.write(response.body);
+        } finally {
+            String endpoint = ENDPOINTS.contains(path) ? path : "other";
+            latencies.computeIfAbsent(endpoint, k -> new LatencyStats(LATENCY_SAMPLES))
+                    .record(System.nanoTime() - start);
+        }
+    }
+
+    private static final List<String> ENDPOINTS = Arrays.asList(
+            "/", "/ancestors", "/descendants", "/cousins", "/relationship", "/search", "/report", "/stats");
+
+    /** Answer a request from the given snapshot, through its response cache. */
+    private Response respond(String path, Map<String, String> params, Dataset ds) throws IOException {
+        if ("/stats".equals(path)) {
+            return json(stats(ds));
+        }
+        if ("/".equals(path)) {
+            Map<String, Object> index = new LinkedHashMap<>();
+            index.put("endpoints", ENDPOINTS.subList(1, ENDPOINTS.size()));
+            index.put("persons", ds.data.getPersonCount());
+            return json(index);
+        }
+        if (!ENDPOINTS.contains(path)) {
+            return error(404, "Unknown endpoint " + path);
+        }
+
+        String key = path + "?" + new TreeMap<>(params);
+        Response cached = ds.cache.get(key);
+        if (cached != null) {
+            ds.cacheHits.incrementAndGet();
+            return cached;
+        }
+        ds.cacheMisses.incrementAndGet();
+        Response response = compute(path, params, ds);
+        if (response.status == 200) {
+            ds.cache.put(key, response);
+        }
+        return response;
+    }
+
+    private Response compute(String path, Map<String, String> params, Dataset ds) throws IOException {
+        FamilyRelationshipAnalyzer analyzer = ds.analyzer;
+        switch (path) {
+            case "/ancestors":
+            case "/descendants": {
+                Person person = person(ds, params, "id");
+                if (person == null) return notFound(params.get("id"));
+                int limit = intParam(params, "limit", 0);
+                Map<Integer, List<Person>> byGen;
+                if (limit > 0) {
+                    // Just the first page: walk lazily and stop after `limit` people.
+                    byGen = new TreeMap<>();
+                    GenerationIterator relatives = "/ancestors".equals(path)
+                            ? GenerationIterator.ancestors(person, 0)
+                            : GenerationIterator.descendants(person, 0);
+                    for (int n = 0; n < limit && relatives.hasNext(); n++) {
+                        Person relative = relatives.next();
+                        byGen.computeIfAbsent(relatives.getGeneration(), k -> new ArrayList<>()).add(relative);
+                    }
+                } else {
+                    byGen = "/ancestors".equals(path)
+                            ? analyzer.getAncestorsByGeneration(person)
+                            : analyzer.getDescendantsByGeneration(person);
+                }
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("person", personJson(person));
+                Map<String, Object> generations = new LinkedHashMap<>();
+                for (Map.Entry<Integer, List<Person>> entry : new TreeMap<>(byGen).entrySet()) {
+                    generations.put(String.valueOf(entry.getKey()), peopleJson(entry.getValue()));
+                }
+                body.put("generations", generations);
+                return json(body);
+            }
+            case "/cousins": {
+                Person person = person(ds, params, "id");
+                if (person == null) return notFound(params.get("id"));
+                int degree = intParam(params, "degree", 1);
+                if (degree < 1 || degree > 6) {
+                    throw new IllegalArgumentException("degree must be between 1 and 6");
+                }
+                Map<String, Object> families = new LinkedHashMap<>();
+                for (Map.Entry<String, List<Person>> entry
+                        : new TreeMap<>(analyzer.getCousinsGroupedByFamily(person, degree)).entrySet()) {
+                    families.put(entry.getKey(), peopleJson(entry.getValue()));
+                }
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("person", personJson(person));
+                body.put("degree", degree);
+                body.put("families", families);
+                return json(body);
+            }
+            case "/relationship": {
+                Person from = person(ds, params, "from");
+                if (from == null) return notFound(params.get("from"));
+                Person to = person(ds, params, "to");
+                if (to == null) return notFound(params.get("to"));
+                RelationshipPathFinder.RelationshipPath found =
+                        analyzer.findRelationshipPath(from, to, intParam(params, "spouseCost", 1));
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("from", personJson(from));
+                body.put("to", personJson(to));
+                if (Boolean.parseBoolean(params.get("kinship"))) {
+                    body.put("kinship", analyzer.getKinshipCoefficient(from, to));
+                }
+                if (found == null) {
+                    body.put("relationship", null);
+                    return json(body);
+                }
+                body.put("relationship", found.describe());
+                body.put("cost", found.getCost());
+                List<Object> steps = new ArrayList<>();
+                for (int i = 0; i < found.getSteps().size(); i++) {
+                    Map<String, Object> step = new LinkedHashMap<>();
+                    step.put("step", found.getSteps().get(i).name().toLowerCase());
+                    step.put("person", personJson(found.getPeople().get(i + 1)));
+                    steps.add(step);
+                }
+                body.put("path", steps);
+                return json(body);
+            }
+            case "/search": {
+                String name = params.get("name");
+                if (name == null || name.trim().isEmpty()) {
+                    throw new IllegalArgumentException("missing parameter 'name'");
+                }
+                Integer bornFrom = params.containsKey("bornFrom") ? intParam(params, "bornFrom", 0) : null;
+                Integer bornTo = params.containsKey("bornTo") ? intParam(params, "bornTo", 0) : null;
+                List<Object> matches = new ArrayList<>();
+                for (NameIndex.Match match : ds.names.search(name, bornFrom, bornTo, intParam(params, "limit", 20))) {
+                    Map<String, Object> entry = new LinkedHashMap<>(personJson(match.getPerson()));
+                    entry.put("score", match.getScore());
+                    matches.add(entry);
+                }
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("name", name);
+                body.put("matches", matches);
+                return json(body);
+            }
+            case "/report": {
+                Person person = person(ds, params, "id");
+                if (person == null) return notFound(params.get("id"));
+                StringWriter html = new StringWriter();
+                try (PrintWriter writer = new PrintWriter(html)) {
+                    GedcomFamilyAnalyzer report = new GedcomFamilyAnalyzer();
+                    report.setPagedReport(Boolean.parseBoolean(params.get("paged")));
+                    report.writeHtmlReport(writer, analyzer, person, gedcomFiles, person.getId(), ds.data);
+                }
+                return new Response(200, "text/html; charset=utf-8", html.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            default:
+                return error(404, "Unknown endpoint " + path);
+        }
+    }
+
+    private Map<String, Object> stats(Dataset ds) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("files", ds.files);
+        data.put("persons", ds.data.getPersonCount());
+        data.put("families", ds.data.getFamilyCount());
+        data.put("loadedAt", ds.loadedAt);
+        data.put("loadMillis", ds.loadMillis);
+        data.put("reloads", reloads.get());
+        body.put("dataset", data);
+
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("entries", ds.cache.size());
+        cache.put("hits", ds.cacheHits.get());
+        cache.put("misses", ds.cacheMisses.get());
+        body.put("cache", cache);
+
+        if (executor != null) {
+            Map<String, Object> pool = new LinkedHashMap<>();
+            pool.put("threads", executor.getPoolSize());
+            pool.put("active", executor.getActiveCount());
+            pool.put("queued", executor.getQueue().size());
+            pool.put("completed", executor.getCompletedTaskCount());
+            body.put("executor", pool);
+        }
+
+        Map<String, Object> latency = new TreeMap<>();
+        for (Map.Entry<String, LatencyStats> entry : latencies.entrySet()) {
+            latency.put(entry.getKey(), entry.getValue().summary());
+        }
+        body.put("latencyMillis", latency);
+        return body;
+    }
+
+    private static Person person(Dataset ds, Map<String, String> params, String name) {
+        String id = params.get(name);
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("missing parameter '" + name + "'");
+        }
+        return ds.data.getPerson(id.replaceAll("@", ""));
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter '" + name + "' must be a number");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static Map<String, Object> personJson(Person person) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", person.getId());
+        json.put("name", person.getDisplayName());
+        if (!person.getLifeDates().isEmpty()) {
+            json.put("lifeDates", person.getLifeDates());
+        }
+        return json;
+    }
+
+    /** People as JSON, each listed once in first-seen order (pedigree collapse repeats them). */
+    private static List<Object> peopleJson(List<Person> people) {
+        List<Object> json = new ArrayList<>();
+        for (Person person : new LinkedHashSet<>(people)) {
+            json.add(personJson(person));
+        }
+        return json;
+    }
+
+    private Response json(Object body) throws IOException {
+        return new Response(200, "application/json; charset=utf-8", mapper.writeValueAsBytes(body));
+    }
+
+    private Response notFound(String id) throws IOException {
+        return error(404, "Person with ID '" + id + "' not found.");
+    }
+
+    private Response error(int status, String message) throws IOException {
+        return new Response(status, "application/json; charset=utf-8",
+                mapper.writeValueAsBytes(Collections.singletonMap("error", message)));
+    }
+
+    /** A rendered response; immutable, so cached ones can be sent concurrently. */
+    private static final class Response {
+        final int status;
+        final String contentType;
+        final byte[] body;
+
+        Response(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    /** One loaded version of the data, with everything derived from it. */
+    private static final class Dataset {
+        final List<String> files;
+        final Map<String, String> fingerprint;
+        final GedcomData data;
+        final FamilyRelationshipAnalyzer analyzer;
+        final NameIndex names;
+        final Map<String, Response> cache;
+        final AtomicLong cacheHits = new AtomicLong();
+        final AtomicLong cacheMisses = new AtomicLong();
+        final String loadedAt;
+        final long loadMillis;
+
+        private Dataset(List<String> files, Map<String, String> fingerprint, GedcomData data,
+                        FamilyRelationshipAnalyzer analyzer, NameIndex names, long loadMillis) {
+            this.files = files;
+            this.fingerprint = fingerprint;
+            this.data = data;
+            this.analyzer = analyzer;
+            this.names = names;
+            this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Response>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Response> eldest) {
+                    return size() > CACHE_ENTRIES;
+                }
+            });
+            this.loadedAt = Instant.now().toString();
+            this.loadMillis = loadMillis;
+        }
+
+        static Dataset load(String gedcomFiles) throws IOException {
+            long start = System.nanoTime();
+            List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(gedcomFiles);
+            if (files.isEmpty()) {
+                throw new IOException("no GEDCOM (.ged) files found for '" + gedcomFiles + "'");
+            }
+            // Fingerprint before parsing: a change made mid-parse then still looks like a change.
+            Map<String, String> fingerprint = fingerprint(files);
+            GedcomParser parser = new GedcomParser();
+            GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+            FamilyRelationshipAnalyzer analyzer = new FamilyRelationshipAnalyzer(data);
+            // Warm the whole-tree analyses before the snapshot goes live.
+            analyzer.getDescendantCounter();
+            NameIndex names = new NameIndex(data);
+            return new Dataset(files, fingerprint, data, analyzer, names, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        /** Path -> "size:lastModified" for each file; a missing file maps to "missing". */
+        static Map<String, String> fingerprint(List<String> files) {
+            Map<String, String> fingerprint = new TreeMap<>();
+            for (String path : files) {
+                File file = new File(path);
+                fingerprint.put(path, file.exists() ? file.length() + ":" + file.lastModified() : "missing");
+            }
+            return fingerprint;
+        }
+    }
+
+    /** Ring buffer of recent latencies for one endpoint, summarized as percentiles. */
+    private static final class LatencyStats {
+        private final long[] samples;
+        private long count;
+        private long maxNanos;
+
+        LatencyStats(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        synchronized void record(long nanos) {
+            samples[(int) (count % samples.length)] = nanos;
+            count++;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        synchronized Map<String, Object> summary() {
+            long[] recent = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            Arrays.sort(recent);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", count);
+            summary.put("p50", millis(percentile(recent, 50)));
+            summary.put("p90", millis(percentile(recent, 90)));
+            summary.put("p99", millis(percentile(recent, 99)));
+            summary.put("max", millis(maxNanos));
+            return summary;
+        }
+
+        /** Nearest-rank percentile of sorted samples. */
+        private static long percentile(long[] sorted, int p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Labels everyone in the data with their relationship to one root person — "great-aunt",
+ * "3rd cousin twice removed", "wife of 2nd cousin", "brother of husband" — in a single
+ * breadth-first traversal, instead of one path search per person.
+ *
+ * <p>The traversal runs over (person, phase) states. In the climbing phase a path may go
+ * to a parent (still climbing) or a child (now descending); in the descending phase only
+ * to a child; from either, a spouse hop starts a fresh climb. Every path found is therefore
+ * a chain of up-then-down blood segments joined by marriages, which is exactly what
+ * {@link RelationshipPathFinder.RelationshipPath#describe()} names. Each state is expanded
+ * once, so the whole tree is labelled in O(persons + links).
+ *
+ * <p>A person keeps the first path that reaches them: the fewest links, and among equally
+ * short ones, child steps before parent steps before spouse hops. For someone reachable
+ * both ways, that names them a 1st cousin (up 2, down 2) rather than a great-aunt (up 3,
+ * down 1), and prefers blood over marriage. Under pedigree collapse the same person is
+ * reachable many ways; remaining ties are broken by the order of the data's own parent,
+ * child and spouse lists, so labels are stable from run to run.
+ */
+public class RelationshipLabeller {
+
+    private static final int CLIMBING = 0;
+    private static final int DESCENDING = 1;
+
+    private final Person root;
+    private final List<Person> persons = new ArrayList<>();
+    private final Map<Person, Integer> index = new HashMap<>();
+    // Per state (person index * 2 + phase): the state it was reached from, and how.
+    private final int[] predecessor;
+    private final RelationshipPathFinder.Step[] stepInto;
+    // Per person: the state that reached them first, or -1 if unconnected.
+    private final int[] firstState;
+    private final int[] links;
+    private final List<Person> visitOrder = new ArrayList<>();
+
+    public RelationshipLabeller(GedcomData gedcomData, Person root) {
+        this.root = root;
+        for (Person person : gedcomData.getPersons().values()) {
+            index.put(person, persons.size());
+            persons.add(person);
+        }
+        this.predecessor = new int[persons.size() * 2];
+        this.stepInto = new RelationshipPathFinder.Step[persons.size() * 2];
+        this.firstState = new int[persons.size()];
+        this.links = new int[persons.size()];
+        Arrays.fill(predecessor, -2); // -2 = state not visited, -1 = the root's start state
+        Arrays.fill(firstState, -1);
+        traverse();
+    }
+
+    private void traverse() {
+        Integer start = index.get(root);
+        if (start == null) {
+            return;
+        }
+        int startState = start * 2 + CLIMBING;
+        predecessor[startState] = -1;
+        firstState[start] = startState;
+        visitOrder.add(root);
+
+        List<Integer> level = Collections.singletonList(startState);
+        int depth = 0;
+        while (!level.isEmpty()) {
+            depth++;
+            // Generated separately and concatenated, so the next level is processed
+            // children first, then parents, then spouses — the tie-break order.
+            List<Integer> viaChild = new ArrayList<>();
+            List<Integer> viaParent = new ArrayList<>();
+            List<Integer> viaSpouse = new ArrayList<>();
+            for (int state : level) {
+                Person person = persons.get(state / 2);
+                for (Person child : person.getChildren()) {
+                    visit(child, DESCENDING, state, RelationshipPathFinder.Step.CHILD, depth, viaChild);
+                }
+                if (state % 2 == CLIMBING) {
+                    for (Person parent : person.getParents()) {
+                        visit(parent, CLIMBING, state, RelationshipPathFinder.Step.PARENT, depth, viaParent);
+                    }
+                }
+                for (Person spouse : person.getSpouses()) {
+                    visit(spouse, CLIMBING, state, RelationshipPathFinder.Step.SPOUSE, depth, viaSpouse);
+                }
+            }
+            viaChild.addAll(viaParent);
+            viaChild.addAll(viaSpouse);
+            level = viaChild;
+        }
+    }
+
+    private void visit(Person person, int phase, int from, RelationshipPathFinder.Step step, int depth,
+                       List<Integer> next) {
+        Integer i = index.get(person);
+        if (i == null) {
+            return; // linked person outside this data set
+        }
+        int state = i * 2 + phase;
+        if (predecessor[state] != -2) {
+            return;
+        }
+        predecessor[state] = from;
+        stepInto[state] = step;
+        next.add(state);
+        if (firstState[i] < 0) {
+            firstState[i] = state;
+            links[i] = depth;
+            visitOrder.add(person);
+        }
+    }
+
+    public Person getRoot() {
+        return root;
+    }
+
+    /** Whether a person is connected to the root by any chain of parent, child and spouse links. */
+    public boolean isConnected(Person person) {
+        Integer i = index.get(person);
+        return i != null && firstState[i] >= 0;
+    }
+
+    /** Number of links on the person's nearest path to the root, or -1 if unconnected. */
+    public int getLinks(Person person) {
+        Integer i = index.get(person);
+        return i == null || firstState[i] < 0 ? -1 : links[i];
+    }
+
+    /** The nearest path from the root to the person, or null if they aren't connected. */
+    public RelationshipPathFinder.RelationshipPath getPath(Person person) {
+        Integer i = index.get(person);
+        if (i == null || firstState[i] < 0) {
+            return null;
+        }
+        List<Person> people = new ArrayList<>();
+        List<RelationshipPathFinder.Step> steps = new ArrayList<>();
+        for (int state = firstState[i]; state != -1; state = predecessor[state]) {
+            people.add(persons.get(state / 2));
+            if (predecessor[state] != -1) {
+                steps.add(stepInto[state]);
+            }
+        }
+        Collections.reverse(people);
+        Collections.reverse(steps);
+        return new RelationshipPathFinder.RelationshipPath(people, steps, steps.size());
+    }
+
+    /** The person's relationship to the root, e.g. "wife of 2nd cousin", or null if unconnected. */
+    public String getLabel(Person person) {
+        RelationshipPathFinder.RelationshipPath path = getPath(person);
+        return path == null ? null : path.describe();
+    }
+
+    /** Whether the nearest path is pure blood (no marriages). */
+    public boolean isBloodRelative(Person person) {
+        RelationshipPathFinder.RelationshipPath path = getPath(person);
+        return path != null && !path.getSteps().contains(RelationshipPathFinder.Step.SPOUSE);
+    }
+
+    /** Everyone connected to the root, nearest first (the root itself first, as "self"). */
+    public List<Person> getConnected() {
+        return visitOrder;
+    }
+
+    /** Labels for everyone connected to the root, nearest first. */
+    public Map<Person, String> getLabels() {
+        Map<Person, String> labels = new LinkedHashMap<>();
+        for (Person person : visitOrder) {
+            labels.put(person, getLabel(person));
+        }
+        return labels;
+    }
+}
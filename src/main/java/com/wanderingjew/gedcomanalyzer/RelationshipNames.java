@@ -0,0 +1,131 @@
+package com.wanderingjew.gedcomanalyzer;
+
+/**
+ * English names for blood relationships, given how many generations a path climbs
+ * from one person to the common ancestor ({@code up}) and then descends to the other
+ * ({@code down}): (1, 0) is a parent, (1, 1) a sibling, (2, 1) an aunt/uncle,
+ * (3, 3) a 2nd cousin, (3, 4) a 2nd cousin once removed, and so on.
+ *
+ * <p>Names describe the person at the END of the path relative to the one at the start,
+ * and use the end person's sex where English has gendered terms.
+ */
+public final class RelationshipNames {
+
+    private RelationshipNames() {
+    }
+
+    /**
+     * Name the relationship for a blood path of {@code up} steps then {@code down} steps,
+     * e.g. (2, 0) -> "grandmother", (3, 1) -> "great-uncle", (4, 6) -> "3rd cousin twice removed".
+     */
+    public static String name(int up, int down, Person end) {
+        String sex = sexOf(end);
+        if (up == 0 && down == 0) {
+            return "self";
+        }
+        if (down == 0) {
+            return greats(up - 1) + pick(sex, "father", "mother", "parent");
+        }
+        if (up == 0) {
+            return greats(down - 1) + pick(sex, "son", "daughter", "child");
+        }
+        if (up == 1 && down == 1) {
+            return pick(sex, "brother", "sister", "sibling");
+        }
+        if (up == 1) {
+            // Nephew/niece line: grand-nephew, great-grand-nephew, ...
+            return grandPrefix(down - 1) + pick(sex, "nephew", "niece", "nephew/niece");
+        }
+        if (down == 1) {
+            // Aunt/uncle line: great-aunt, 2nd great-aunt, ...
+            return greatPrefix(up - 2) + pick(sex, "uncle", "aunt", "aunt/uncle");
+        }
+        int degree = Math.min(up, down) - 1;
+        int removed = Math.abs(up - down);
+        return ordinal(degree) + " cousin" + removedText(removed);
+    }
+
+    /** "" for 0, "grand" for 1, "great-grand" for 2, "2nd great-grand" for 3, ... */
+    private static String greats(int n) {
+        if (n <= 0) {
+            return "";
+        }
+        if (n == 1) {
+            return "grand";
+        }
+        if (n == 2) {
+            return "great-grand";
+        }
+        return ordinal(n - 1) + " great-grand";
+    }
+
+    /** Prefix for the nephew line: "" for 0, "grand-" for 1, "great-grand-" for 2, ... */
+    private static String grandPrefix(int n) {
+        String greats = greats(n);
+        return greats.isEmpty() ? "" : greats + "-";
+    }
+
+    /** Prefix for the aunt/uncle line: "" for 0, "great-" for 1, "2nd great-" for 2, ... */
+    private static String greatPrefix(int n) {
+        if (n <= 0) {
+            return "";
+        }
+        if (n == 1) {
+            return "great-";
+        }
+        return ordinal(n) + " great-";
+    }
+
+    private static String removedText(int removed) {
+        switch (removed) {
+            case 0: return "";
+            case 1: return " once removed";
+            case 2: return " twice removed";
+            case 3: return " thrice removed";
+            default: return " " + removed + " times removed";
+        }
+    }
+
+    /** "1st", "2nd", "3rd", "4th", ..., "11th", "12th", "13th", "21st", ... */
+    public static String ordinal(int n) {
+        int mod100 = n % 100;
+        String suffix;
+        if (mod100 >= 11 && mod100 <= 13) {
+            suffix = "th";
+        } else {
+            switch (n % 10) {
+                case 1: suffix = "st"; break;
+                case 2: suffix = "nd"; break;
+                case 3: suffix = "rd"; break;
+                default: suffix = "th";
+            }
+        }
+        return n + suffix;
+    }
+
+    /** Gendered term for a spouse, e.g. "husband" / "wife" / "spouse". */
+    public static String spouse(Person end) {
+        return pick(sexOf(end), "husband", "wife", "spouse");
+    }
+
+    private static String pick(String sex, String male, String female, String neutral) {
+        if ("M".equals(sex)) {
+            return male;
+        }
+        if ("F".equals(sex)) {
+            return female;
+        }
+        return neutral;
+    }
+
+    private static String sexOf(Person person) {
+        String s = person == null || person.getSex() == null ? "" : person.getSex().trim();
+        if (s.equalsIgnoreCase("M") || s.equalsIgnoreCase("male")) {
+            return "M";
+        }
+        if (s.equalsIgnoreCase("F") || s.equalsIgnoreCase("female")) {
+            return "F";
+        }
+        return "";
+    }
+}
@@ -0,0 +1,142 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Writes a person's relatives as machine-readable records — one per relative, for
+ * feeding other tools — either as a JSON array or as NDJSON (one object per line).
+ *
+ * <p>Records are streamed through Jackson's generator as the relatives are found: the
+ * ancestors and descendants straight from a {@link GenerationWalk}, the cousins from a
+ * {@link CousinIterator}, so nothing is collected first and memory stays flat however
+ * many relatives there are. The person themselves comes first, as "self", then ancestors,
+ * descendants, siblings and cousins. Each relative appears once per section, at their
+ * shallowest generation.
+ *
+ * <p>Every record has {@code type}, {@code id}, {@code name}, {@code sex},
+ * {@code relationship} ("great-grandmother", "2nd cousin"), {@code generation} (ancestors
+ * and descendants) or {@code degree} (cousins), {@code familyId}/{@code family} (the
+ * family they are a child of), {@code birthDate}, {@code deathDate}, {@code lifeDates},
+ * and, when known, {@code lat}/{@code lng}/{@code place}/{@code locationType} — the
+ * location the maps use: death, else birth for ancestors; current residence first for
+ * everyone else.
+ */
+public class RelativeRecordWriter {
+
+    private final GedcomData data;
+    private final FamilyRelationshipAnalyzer analyzer;
+    private final int maxCousinDegree;
+
+    /**
+     * @param maxCousinDegree cousins up to this degree (0 for none)
+     */
+    public RelativeRecordWriter(GedcomData data, FamilyRelationshipAnalyzer analyzer, int maxCousinDegree) {
+        this.data = data;
+        this.analyzer = analyzer;
+        this.maxCousinDegree = maxCousinDegree;
+    }
+
+    /**
+     * Write the records for {@code person}. With {@code ndjson}, each record is one line;
+     * otherwise they form one JSON array. The writer is flushed but not closed.
+     */
+    public void write(Person person, Writer out, boolean ndjson) throws IOException {
+        JsonFactory factory = new JsonFactory();
+        factory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        factory.setRootValueSeparator("\n");
+        try (JsonGenerator json = factory.createGenerator(out)) {
+            if (!ndjson) {
+                json.writeStartArray();
+            }
+            writeRecord(json, "self", person, "self", "generation", 0, true);
+            try {
+                analyzer.walkAncestors(person, (relative, generation, first) -> {
+                    if (first && generation > 0) {
+                        writeUnchecked(json, "ancestor", relative, RelationshipNames.name(generation, 0, relative),
+                                "generation", generation, false);
+                    }
+                });
+                analyzer.walkDescendants(person, (relative, generation, first) -> {
+                    if (first && generation > 0) {
+                        writeUnchecked(json, "descendant", relative, RelationshipNames.name(0, generation, relative),
+                                "generation", generation, true);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (Person sibling : analyzer.getSiblings(person)) {
+                writeRecord(json, "sibling", sibling, RelationshipNames.name(1, 1, sibling), "degree", 0, true);
+            }
+            for (int degree = 1; degree <= maxCousinDegree; degree++) {
+                Iterator<Person> cousins = new CousinIterator(person, degree);
+                while (cousins.hasNext()) {
+                    Person cousin = cousins.next();
+                    writeRecord(json, "cousin", cousin, RelationshipNames.name(degree + 1, degree + 1, cousin),
+                            "degree", degree, true);
+                }
+            }
+            if (!ndjson) {
+                json.writeEndArray();
+            }
+        }
+        out.write('\n');
+        out.flush();
+    }
+
+    // For the walk visitors, which can't throw checked exceptions.
+    private void writeUnchecked(JsonGenerator json, String type, Person person, String relationship,
+                       String levelField, int level, boolean preferCurrent) {
+        try {
+            writeRecord(json, type, person, relationship, levelField, level, preferCurrent);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRecord(JsonGenerator json, String type, Person person, String relationship,
+                             String levelField, int level, boolean preferCurrent) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", type);
+        json.writeStringField("id", person.getId());
+        json.writeStringField("name", person.getDisplayName());
+        writeOptional(json, "sex", person.getSex());
+        json.writeStringField("relationship", relationship);
+        json.writeNumberField(levelField, level);
+        List<String> families = person.getFamilyIdsAsChild();
+        if (!families.isEmpty()) {
+            String familyId = families.get(0);
+            json.writeStringField("familyId", familyId);
+            Family family = data.getFamily(familyId);
+            if (family != null) {
+                json.writeStringField("family", family.getDisplayName());
+            }
+        }
+        writeOptional(json, "birthDate", person.getBirthDate());
+        writeOptional(json, "deathDate", person.getDeathDate());
+        writeOptional(json, "lifeDates", person.getLifeDates());
+        GeniAncestorFetcher.MapPoint point = preferCurrent
+                ? GeniAncestorFetcher.MapPoint.fromPersonPreferCurrent(person, level)
+                : GeniAncestorFetcher.MapPoint.fromPerson(person, level);
+        if (point != null) {
+            json.writeNumberField("lat", point.lat);
+            json.writeNumberField("lng", point.lng);
+            writeOptional(json, "place", point.place);
+            json.writeStringField("locationType", point.locationType);
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeOptional(JsonGenerator json, String field, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            json.writeStringField(field, value);
+        }
+    }
+}
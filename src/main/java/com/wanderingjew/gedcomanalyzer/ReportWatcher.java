@@ -0,0 +1,180 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watch mode for {@link GedcomFamilyAnalyzer}: write the report, then rewrite it each time
+ * the GEDCOM files change, for keeping a report open in the browser while editing exports.
+ *
+ * <p>The directories holding the files are watched with a {@link WatchService}. Editors and
+ * exporters save in bursts (truncate, write, rename), so after the first event the watcher
+ * waits until the directory has been quiet for {@value #DEBOUNCE_MILLIS} ms before acting.
+ * Every file is kept in memory as {@link GedcomParser.FileLines}; only files whose size or
+ * modification time changed are read again, and the graph is rebuilt from the lines in
+ * memory, so a save costs one file's read plus the merge, link and report, not a full
+ * parse of the folder. A save that leaves a file's lines unchanged doesn't re-render.
+ *
+ * <p>A failed refresh (a half-written file, a person no longer found) is reported and the
+ * watcher carries on; the previous report stays in place until the next good one.
+ */
+public class ReportWatcher {
+
+    /** How long the watched directories must be quiet before a refresh starts. */
+    static final long DEBOUNCE_MILLIS = 200;
+
+    private final GedcomFamilyAnalyzer analyzer;
+    private final Reporter reporter;
+    private final String gedcomFiles;
+    private final String personId;
+    private final String htmlOutputFile;
+
+    // Path -> the file's lines, and the "size:lastModified" they were read at.
+    private final Map<String, GedcomParser.FileLines> cache = new HashMap<>();
+    private final Map<String, String> stamps = new HashMap<>();
+
+    public ReportWatcher(GedcomFamilyAnalyzer analyzer, Reporter reporter, String gedcomFiles, String personId,
+                         String htmlOutputFile) {
+        this.analyzer = analyzer;
+        this.reporter = reporter;
+        this.gedcomFiles = gedcomFiles;
+        this.personId = personId;
+        this.htmlOutputFile = htmlOutputFile;
+    }
+
+    /** Write the report, then keep it up to date until the process is stopped. */
+    public void run() throws IOException, InterruptedException {
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(gedcomFiles);
+        if (files.isEmpty()) {
+            reporter.warn("Error: no GEDCOM (.ged) files found for '" + gedcomFiles + "'.");
+            return;
+        }
+        refresh(true);
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            for (Path dir : watchedDirectories(files)) {
+                dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                reporter.info("Watching " + dir + " for changes (Ctrl-C to stop)...");
+            }
+            reporter.flush();
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean relevant = drain(key);
+                // Debounce: keep collecting until a full quiet period passes with no events.
+                while ((key = watcher.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(key);
+                }
+                if (relevant) {
+                    refresh(false);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down.
+        }
+    }
+
+    /** Directories to watch: the input directory itself, or the folders of the listed files. */
+    private Set<Path> watchedDirectories(List<String> files) {
+        Set<Path> dirs = new LinkedHashSet<>();
+        File input = new File(gedcomFiles.replace("\"", "").trim());
+        if (input.isDirectory()) {
+            dirs.add(input.toPath().toAbsolutePath().normalize());
+            return dirs;
+        }
+        for (String file : files) {
+            Path parent = Paths.get(file).toAbsolutePath().normalize().getParent();
+            if (parent != null) {
+                dirs.add(parent);
+            }
+        }
+        return dirs;
+    }
+
+    /** Take a key's events and re-arm it; true if any could concern a GEDCOM file. */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else {
+                String name = event.context().toString().toLowerCase();
+                // Also count the temporary files some editors save through before renaming.
+                relevant |= name.endsWith(".ged") || name.contains(".ged.") || name.contains(".ged~");
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Re-read the files that changed since the last refresh, rebuild the graph and rewrite
+     * the report. With {@code initial}, everything is read and the report always written.
+     */
+    private void refresh(boolean initial) {
+        long start = System.nanoTime();
+        try {
+            List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(gedcomFiles);
+            List<GedcomParser.FileLines> lines = new ArrayList<>();
+            List<String> changed = new ArrayList<>();
+            for (String path : files) {
+                File file = new File(path);
+                String stamp = file.length() + ":" + file.lastModified();
+                GedcomParser.FileLines cached = cache.get(path);
+                if (cached == null || !stamp.equals(stamps.get(path))) {
+                    GedcomParser.FileLines fresh = GedcomParser.readLines(path);
+                    if (!fresh.sameLines(cached)) {
+                        changed.add(file.getName());
+                    }
+                    cache.put(path, fresh);
+                    stamps.put(path, stamp);
+                    cached = fresh;
+                }
+                lines.add(cached);
+            }
+            Set<String> removed = new LinkedHashSet<>(cache.keySet());
+            removed.removeAll(files);
+            for (String path : removed) {
+                cache.remove(path);
+                stamps.remove(path);
+                changed.add(new File(path).getName() + " (removed)");
+            }
+            if (!initial && changed.isEmpty()) {
+                return;
+            }
+            if (!initial) {
+                reporter.info("");
+                reporter.info("Changed: " + String.join(", ", changed));
+            }
+
+            GedcomData gedcomData = new GedcomParser().parseLines(lines);
+            reporter.info("Found " + gedcomData.getPersonCount() + " persons and " + gedcomData.getFamilyCount()
+                    + " families in " + files.size() + " file(s).");
+            reporter.flush();
+            Person targetPerson = NameIndex.resolvePerson(gedcomData, personId, reporter);
+            if (targetPerson == null) {
+                return;
+            }
+            analyzer.writeReport(gedcomData, targetPerson, gedcomFiles, htmlOutputFile);
+            reporter.info("Report updated in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        } catch (Exception e) {
+            reporter.warn("Error: " + e.getMessage() + " (keeping the previous report; waiting for the next change)");
+        } finally {
+            reporter.flush();
+        }
+    }
+}
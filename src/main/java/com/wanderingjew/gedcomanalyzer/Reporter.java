@@ -0,0 +1,325 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where console messages go — the analyzer's text output and the Geni fetchers' progress —
+ * so that printing never holds up the work, and can be silenced or made machine-readable.
+ *
+ * <p>{@link #console} and {@link #json} hand each message to a background thread that
+ * writes through a large buffer and flushes when it has nothing left to write, so a
+ * thousand-line listing costs the caller a queue insert per line rather than a blocking
+ * write to a slow terminal or pipe; anything still queued is flushed at JVM exit.
+ * {@link #progress} messages are rate-limited (at most so many per second; the rest are
+ * dropped), so callers can report every step and leave the throttling to the reporter.
+ * {@link #quiet} drops everything but warnings.
+ *
+ * <p>Messages are asynchronous: call {@link #flush} before printing anything directly to
+ * {@code System.out}, or it may come out ahead of lines still queued.
+ */
+public interface Reporter extends AutoCloseable {
+
+    /** Default progress rate for {@link #shared()}. */
+    int DEFAULT_PROGRESS_PER_SECOND = 4;
+
+    /** A line of normal output. */
+    void info(String message);
+
+    /** A progress update; dropped if another one was shown too recently. */
+    void progress(String message);
+
+    /** A warning (to stderr in text mode); never dropped, even by {@link #quiet}. */
+    void warn(String message);
+
+    /** Block until everything reported so far has been written out. */
+    void flush();
+
+    /** Flush and stop. Not for {@link #shared()}, which lives as long as the JVM. */
+    @Override
+    void close();
+
+    /** Text to stdout (warnings to stderr), written by a background thread. */
+    static Reporter console(int progressPerSecond) {
+        return new Async(false, progressPerSecond);
+    }
+
+    /**
+     * One JSON object per line on stdout — {@code {"time":...,"level":"info|progress|warn",
+     * "message":...}} — for callers that parse the output.
+     */
+    static Reporter json(int progressPerSecond) {
+        return new Async(true, progressPerSecond);
+    }
+
+    /** Only warnings, to stderr. */
+    static Reporter quiet() {
+        return new Quiet();
+    }
+
+    /**
+     * Text to {@code out} (warnings to stderr), printed on the caller's thread. For the
+     * tools that print to {@code System.out} themselves, and for output modes where
+     * stdout carries data and everything else must go to stderr.
+     */
+    static Reporter direct(PrintStream out) {
+        return new Direct(out);
+    }
+
+    /**
+     * The process-wide text reporter, created on first use, which the fetchers and the
+     * analyzer use unless given another.
+     */
+    static Reporter shared() {
+        return Async.Shared.INSTANCE;
+    }
+
+    /**
+     * The reporter chosen by the usual command-line flags: {@code --quiet}, {@code --log-json}
+     * (JSON lines), and {@code --progress-per-second N}. Recognised flags are removed
+     * from {@code args}. With none of them, the {@link #shared()} reporter.
+     *
+     * @throws IllegalArgumentException if {@code --progress-per-second} isn't a whole number
+     */
+    static Reporter fromArgs(List<String> args) {
+        boolean quiet = args.remove("--quiet");
+        boolean json = args.remove("--log-json");
+        int rate = DEFAULT_PROGRESS_PER_SECOND;
+        int at = args.indexOf("--progress-per-second");
+        if (at >= 0 && at + 1 < args.size()) {
+            String value = args.remove(at + 1);
+            try {
+                rate = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--progress-per-second needs a whole number, not '" + value + "'");
+            }
+            args.remove(at);
+        } else if (!quiet && !json) {
+            return shared();
+        }
+        if (quiet) {
+            return quiet();
+        }
+        return json ? json(rate) : console(rate);
+    }
+
+    /** Drops everything except warnings, which are printed straight to stderr. */
+    class Quiet implements Reporter {
+        @Override public void info(String message) { }
+        @Override public void progress(String message) { }
+        @Override public void warn(String message) { System.err.println(message); }
+        @Override public void flush() { System.err.flush(); }
+        @Override public void close() { flush(); }
+    }
+
+    /** Prints each message as it comes, with no queue and no rate limit. */
+    class Direct implements Reporter {
+        private final PrintStream out;
+
+        Direct(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override public void info(String message) { out.println(message); }
+        @Override public void progress(String message) { out.println(message); }
+        @Override public void warn(String message) { System.err.println(message); }
+        @Override public void flush() { out.flush(); System.err.flush(); }
+        @Override public void close() { flush(); }
+    }
+
+    /** Queues messages for a daemon writer thread. */
+    class Async implements Reporter {
+        private static final int QUEUE_CAPACITY = 1 << 16;
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        /** Lazy holder for {@link Reporter#shared()}. */
+        private static class Shared {
+            static final Async INSTANCE = new Async(false, DEFAULT_PROGRESS_PER_SECOND);
+        }
+
+        private static final class Line {
+            final String level;
+            final String message;
+            final long time;
+            final CountDownLatch flushed;
+
+            Line(String level, String message, CountDownLatch flushed) {
+                this.level = level;
+                this.message = message;
+                this.time = System.currentTimeMillis();
+                this.flushed = flushed;
+            }
+        }
+
+        private static final String STOP = "stop";
+
+        // Reporters not yet closed. Callers often end with System.exit, so one hook
+        // flushes them all rather than each registering its own.
+        private static final Set<Async> OPEN = ConcurrentHashMap.newKeySet();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> OPEN.forEach(Async::flush), "reporter-flush"));
+        }
+
+        private final boolean json;
+        private final long progressIntervalNanos;
+        private final AtomicLong lastProgress = new AtomicLong(System.nanoTime() - TimeUnit.DAYS.toNanos(1));
+        private final BlockingQueue<Line> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        private final Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        private final Writer err = new BufferedWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8), BUFFER_SIZE);
+        private final ObjectMapper mapper = new ObjectMapper();
+        private final Thread writer;
+        // The stream last written to, flushed before switching to the other so that
+        // warnings and output come out in the order they were reported.
+        private Writer lastTarget;
+
+        Async(boolean json, int progressPerSecond) {
+            this.json = json;
+            this.progressIntervalNanos = progressPerSecond <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / progressPerSecond;
+            this.writer = new Thread(this::run, "reporter");
+            writer.setDaemon(true);
+            writer.start();
+            OPEN.add(this);
+        }
+
+        @Override
+        public void info(String message) {
+            put(new Line("info", message, null));
+        }
+
+        @Override
+        public void progress(String message) {
+            long now = System.nanoTime();
+            long last = lastProgress.get();
+            if (now - last < progressIntervalNanos || !lastProgress.compareAndSet(last, now)) {
+                return;
+            }
+            // Progress is disposable: rather than wait on a full queue, drop it.
+            queue.offer(new Line("progress", message, null));
+        }
+
+        @Override
+        public void warn(String message) {
+            put(new Line("warn", message, null));
+        }
+
+        @Override
+        public void flush() {
+            if (Thread.currentThread() == writer || !writer.isAlive()) {
+                return;
+            }
+            CountDownLatch flushed = new CountDownLatch(1);
+            put(new Line("flush", null, flushed));
+            try {
+                flushed.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+            OPEN.remove(this);
+            flush();
+            put(new Line(STOP, null, null));
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void put(Line line) {
+            if (!writer.isAlive()) {
+                return;
+            }
+            try {
+                queue.put(line);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void run() {
+            List<Line> batch = new ArrayList<>();
+            try {
+                while (true) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch);
+                    for (Line line : batch) {
+                        if (line.level.equals(STOP)) {
+                            flushStreams();
+                            return;
+                        }
+                        if (line.flushed != null) {
+                            flushStreams();
+                            line.flushed.countDown();
+                        } else {
+                            write(line);
+                        }
+                    }
+                    batch.clear();
+                    if (queue.isEmpty()) {
+                        flushStreams();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // Nowhere left to report to (e.g. the pipe was closed); drain and discard.
+                while (true) {
+                    Line line = queue.poll();
+                    if (line == null) {
+                        break;
+                    }
+                    if (line.flushed != null) {
+                        line.flushed.countDown();
+                    }
+                }
+            }
+        }
+
+        private void write(Line line) throws IOException {
+            if (json) {
+                Map<String, Object> record = new LinkedHashMap<>();
+                record.put("time", Instant.ofEpochMilli(line.time).toString());
+                record.put("level", line.level);
+                record.put("message", line.message);
+                out.write(mapper.writeValueAsString(record));
+                out.write('\n');
+            } else {
+                Writer target = line.level.equals("warn") ? err : out;
+                if (lastTarget != null && lastTarget != target) {
+                    lastTarget.flush();
+                }
+                lastTarget = target;
+                target.write(line.message);
+                target.write(System.lineSeparator());
+            }
+        }
+
+        private void flushStreams() throws IOException {
+            // Only the last stream written to holds anything (see write), so order is kept.
+            out.flush();
+            err.flush();
+        }
+    }
+}
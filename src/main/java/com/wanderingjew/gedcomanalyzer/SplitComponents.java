@@ -0,0 +1,95 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CLI that reports the connected components of one or more GEDCOM files (merged as the
+ * analyzer would merge them) and optionally writes each component — or the N largest,
+ * or just the one containing a given person — to its own GEDCOM file. Later runs can
+ * then load only the island they care about.
+ */
+public class SplitComponents {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        String containing = null;
+        int limit = 0;
+        for (int i = 0; i < args.length; i++) {
+            if ("--largest".equals(args[i]) && i + 1 < args.length) {
+                limit = Integer.parseInt(args[++i]);
+            } else if ("--containing".equals(args[i]) && i + 1 < args.length) {
+                containing = args[++i].replaceAll("@", "");
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.isEmpty() || positional.size() > 2) {
+            System.out.println("Usage: SplitComponents <gedcom-files> [output-dir] [--largest N] [--containing <person-id>]");
+            System.out.println("  Reports the connected components (disconnected islands) of the merged data.");
+            System.out.println("  output-dir:    when given, writes each component to <output-dir>/<name>-component-<rank>.ged");
+            System.out.println("                 (rank 1 = largest)");
+            System.out.println("  --largest N:   only write the N largest components");
+            System.out.println("  --containing:  only write the component containing this person");
+            System.exit(1);
+        }
+
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(positional.get(0));
+        if (files.isEmpty()) {
+            System.out.println("Error: no GEDCOM (.ged) files found for '" + positional.get(0) + "'.");
+            System.exit(1);
+        }
+        GedcomParser parser = new GedcomParser();
+        GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+        System.out.println("Found " + data.getPersonCount() + " persons and " + data.getFamilyCount() + " families.");
+
+        ConnectedComponents components = new ConnectedComponents(data);
+        List<ConnectedComponents.Component> all = components.getComponents();
+        System.out.println(all.size() + (all.size() == 1 ? " connected component:" : " connected components:"));
+        int shown = Math.min(all.size(), 20);
+        for (int i = 0; i < shown; i++) {
+            ConnectedComponents.Component c = all.get(i);
+            System.out.printf("  #%-4d %8d persons %8d families%n", c.getRank(), c.getPersonCount(), c.getFamilyCount());
+        }
+        if (all.size() > shown) {
+            long singletons = all.stream().filter(c -> c.getPersonCount() == 1).count();
+            System.out.println("  ... " + (all.size() - shown) + " more (" + singletons + " are lone individuals)");
+        }
+
+        if (positional.size() < 2) {
+            return;
+        }
+        Path outputDir = Paths.get(positional.get(1));
+        Files.createDirectories(outputDir);
+        String prefix = baseName(files.size() == 1 ? files.get(0) : positional.get(0));
+
+        if (containing != null) {
+            Person person = data.getPerson(containing);
+            if (person == null) {
+                System.out.println("Error: Person with ID '" + containing + "' not found.");
+                System.exit(1);
+            }
+            ConnectedComponents.Component component = components.componentOf(person);
+            Path path = outputDir.resolve(prefix + "-component-" + component.getRank() + ".ged");
+            new GedcomWriter().write(component.toGedcomData(), path.toString());
+            System.out.println("Component #" + component.getRank() + " (" + component.getPersonCount()
+                    + " persons, containing " + person + ") written to: " + path);
+            return;
+        }
+
+        List<Path> written = components.writeComponents(outputDir, prefix, limit);
+        System.out.println("Wrote " + written.size() + " component file(s) to " + outputDir
+                + (written.isEmpty() ? "" : ": " + written.get(0).getFileName()
+                        + (written.size() > 1 ? " ... " + written.get(written.size() - 1).getFileName() : "")));
+    }
+
+    /** File or directory name without a .ged extension, used to name the output files. */
+    private static String baseName(String path) {
+        String name = Paths.get(path.replace("\"", "").split(",")[0].trim()).getFileName().toString();
+        return name.toLowerCase().endsWith(".ged") ? name.substring(0, name.length() - 4) : name;
+    }
+}
@@ -0,0 +1,332 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Where a run's time and memory go, phase by phase — file resolution, parsing,
+ * relationship linking, each analysis, each report section and map, GEDCOM writing —
+ * so a slow run can be pinned on I/O, parsing or the cousin math without attaching a
+ * profiler.
+ *
+ * <p>Code marks a phase with {@code try (Timings.Phase ignored = Timings.phase("parse")) {...}}.
+ * The resource is never referenced in the block, which {@code -Xlint:try} warns about, so
+ * methods that time phases suppress {@code "try"} warnings.
+ * Phases nest (per thread) and repeated phases are added up, so the breakdown reads as a
+ * tree: "report" with "ancestors", "cousins", ... under it. For each it shows the number of
+ * runs, wall time, bytes allocated by the thread that ran it (work it hands to other
+ * threads isn't counted), and the peak heap in use while it ran (process-wide, so phases
+ * running concurrently see each other's garbage).
+ *
+ * <p>Off unless a CLI enables it with {@code --timings} (a table on stderr at exit) or
+ * {@code --timings-json <file>}; while off, {@link #phase} does nothing.
+ */
+public final class Timings {
+
+    private static volatile Timings global;
+
+    private final long startNanos = System.nanoTime();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean allocationSupported;
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+    private final Set<Phase> open = new HashSet<>();
+    private final ThreadLocal<Deque<Phase>> stack = ThreadLocal.withInitial(ArrayDeque::new);
+    private long peakHeap;
+
+    private Timings() {
+        boolean supported = false;
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+            supported = sun.isThreadAllocatedMemorySupported();
+            if (supported && !sun.isThreadAllocatedMemoryEnabled()) {
+                sun.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+        allocationSupported = supported;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                heapPools.add(pool);
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /** One run of a phase; close it when the phase ends. */
+    public static final class Phase implements AutoCloseable {
+        private static final Phase NONE = new Phase(null, null, 0, 0);
+
+        private final Timings timings;
+        private final String path;
+        private final long startNanos;
+        private final long startAllocated;
+        private long peakHeap;
+
+        private Phase(Timings timings, String path, long startNanos, long startAllocated) {
+            this.timings = timings;
+            this.path = path;
+            this.startNanos = startNanos;
+            this.startAllocated = startAllocated;
+        }
+
+        @Override
+        public void close() {
+            if (timings != null) {
+                timings.end(this);
+            }
+        }
+    }
+
+    private static final class Stats {
+        final String name;
+        final int depth;
+        int count;
+        long wallNanos;
+        long allocatedBytes;
+        long peakHeap;
+
+        Stats(String name, int depth) {
+            this.name = name;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Start a phase named {@code name}, nested under whichever phase is open on this
+     * thread. A no-op unless timings are enabled.
+     */
+    public static Phase phase(String name) {
+        Timings timings = global;
+        return timings == null ? Phase.NONE : timings.start(name);
+    }
+
+    /**
+     * Start a phase named {@code name} nested under {@code parent}, which may be open on
+     * another thread: for work a phase hands to a pool, so it still shows up under it.
+     * A no-op unless timings are enabled.
+     */
+    public static Phase phase(Phase parent, String name) {
+        Timings timings = global;
+        return timings == null ? Phase.NONE : timings.start(parent.path, name);
+    }
+
+    /** The innermost phase open on this thread, to pass to {@link #phase(Phase, String)}. */
+    public static Phase current() {
+        Timings timings = global;
+        Phase phase = timings == null ? null : timings.stack.get().peek();
+        return phase == null ? Phase.NONE : phase;
+    }
+
+    /** True once {@link #fromArgs} has turned timings on. */
+    public static boolean isEnabled() {
+        return global != null;
+    }
+
+    /**
+     * Turn timings on if {@code args} asks for them: {@code --timings} prints the table to
+     * stderr when the JVM exits, {@code --timings-json <file>} writes it as JSON. Recognised
+     * flags are removed from {@code args}.
+     */
+    public static void fromArgs(List<String> args) {
+        boolean table = args.remove("--timings");
+        String jsonFile = null;
+        int at = args.indexOf("--timings-json");
+        if (at >= 0 && at + 1 < args.size()) {
+            jsonFile = args.remove(at + 1);
+            args.remove(at);
+        }
+        if (!table && jsonFile == null) {
+            return;
+        }
+        Timings timings = enable();
+        String json = jsonFile;
+        // Exit-time, so runs that end in System.exit (or Ctrl-C) still report.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (table) {
+                timings.print(System.err);
+            }
+            if (json != null) {
+                try (Writer out = new OutputStreamWriter(new FileOutputStream(json), StandardCharsets.UTF_8)) {
+                    timings.writeJson(out);
+                } catch (IOException e) {
+                    System.err.println("Could not write timings to " + json + ": " + e.getMessage());
+                }
+            }
+        }, "timings"));
+    }
+
+    /** Turn timings on (if not already) and return the process-wide instance. */
+    public static synchronized Timings enable() {
+        if (global == null) {
+            global = new Timings();
+        }
+        return global;
+    }
+
+    private Phase start(String name) {
+        Deque<Phase> phases = stack.get();
+        return start(phases.isEmpty() ? null : phases.peek().path, name);
+    }
+
+    private Phase start(String parentPath, String name) {
+        Deque<Phase> phases = stack.get();
+        String path = parentPath == null ? name : parentPath + "/" + name;
+        int depth = parentPath == null ? 0 : parentPath.split("/").length;
+        synchronized (this) {
+            stats.computeIfAbsent(path, k -> new Stats(name, depth));
+            Phase phase = new Phase(this, path, System.nanoTime(), allocatedBytes());
+            samplePeak();
+            open.add(phase);
+            phases.push(phase);
+            return phase;
+        }
+    }
+
+    private void end(Phase phase) {
+        long wall = System.nanoTime() - phase.startNanos;
+        long allocated = allocatedBytes() - phase.startAllocated;
+        Deque<Phase> phases = stack.get();
+        phases.remove(phase);
+        synchronized (this) {
+            samplePeak();
+            open.remove(phase);
+            Stats s = stats.get(phase.path);
+            s.count++;
+            s.wallNanos += wall;
+            s.allocatedBytes += Math.max(0, allocated);
+            s.peakHeap = Math.max(s.peakHeap, phase.peakHeap);
+        }
+    }
+
+    // The pools' peaks are process-wide, so credit the peak since the last sample to every
+    // phase open now, then start a fresh window; each phase ends up with the peak over
+    // exactly its own lifetime.
+    private void samplePeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+            pool.resetPeakUsage();
+        }
+        peakHeap = Math.max(peakHeap, peak);
+        for (Phase phase : open) {
+            phase.peakHeap = Math.max(phase.peakHeap, peak);
+        }
+    }
+
+    private long allocatedBytes() {
+        if (!allocationSupported) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /** Print the breakdown as an indented table. */
+    public synchronized void print(PrintStream out) {
+        samplePeak();
+        out.println();
+        out.println("Timings" + (allocationSupported ? "" : " (allocation counts not supported by this JVM)") + ":");
+        out.println(String.format("  %-44s %6s %10s %10s %10s", "phase", "runs", "wall", "allocated", "peak heap"));
+        for (Map.Entry<String, Stats> entry : inTreeOrder()) {
+            Stats s = entry.getValue();
+            String name = "  ".repeat(s.depth) + s.name;
+            out.println(String.format("  %-44s %6d %10s %10s %10s", name, s.count, formatNanos(s.wallNanos),
+                    formatBytes(s.allocatedBytes), formatBytes(s.peakHeap)));
+        }
+        out.println(String.format("  %-44s %6s %10s %10s %10s", "total", "", formatNanos(System.nanoTime() - startNanos),
+                "", formatBytes(peakHeap)));
+        out.flush();
+    }
+
+    /**
+     * Write the breakdown as JSON: {@code totalMillis}, {@code peakHeapBytes}, and
+     * {@code phases}, each with its {@code path} ("report/cousins"), {@code count},
+     * {@code wallMillis}, {@code allocatedBytes} and {@code peakHeapBytes}.
+     */
+    public synchronized void writeJson(Writer out) throws IOException {
+        samplePeak();
+        JsonFactory factory = new JsonFactory();
+        factory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (JsonGenerator json = factory.createGenerator(out)) {
+            json.useDefaultPrettyPrinter();
+            json.writeStartObject();
+            json.writeNumberField("totalMillis", (System.nanoTime() - startNanos) / 1e6);
+            json.writeNumberField("peakHeapBytes", peakHeap);
+            json.writeArrayFieldStart("phases");
+            for (Map.Entry<String, Stats> entry : inTreeOrder()) {
+                Stats s = entry.getValue();
+                json.writeStartObject();
+                json.writeStringField("path", entry.getKey());
+                json.writeNumberField("count", s.count);
+                json.writeNumberField("wallMillis", s.wallNanos / 1e6);
+                if (allocationSupported) {
+                    json.writeNumberField("allocatedBytes", s.allocatedBytes);
+                }
+                json.writeNumberField("peakHeapBytes", s.peakHeap);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        out.write('\n');
+        out.flush();
+    }
+
+    // Phases in the order they first started, except that each comes right after its parent
+    // and its parent's earlier children: phases started on pool threads can be recorded
+    // after a later sibling of their parent.
+    private List<Map.Entry<String, Stats>> inTreeOrder() {
+        List<Map.Entry<String, Stats>> ordered = new ArrayList<>();
+        addChildren(null, ordered);
+        return ordered;
+    }
+
+    private void addChildren(String parentPath, List<Map.Entry<String, Stats>> ordered) {
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            String path = entry.getKey();
+            int slash = path.lastIndexOf('/');
+            String parent = slash < 0 ? null : path.substring(0, slash);
+            if (Objects.equals(parent, parentPath)) {
+                ordered.add(entry);
+                addChildren(path, ordered);
+            }
+        }
+    }
+
+    private static String formatNanos(long nanos) {
+        double millis = nanos / 1e6;
+        return millis < 1000 ? String.format("%.1f ms", millis) : String.format("%.2f s", millis / 1000);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        if (bytes < 1024L * 1024 * 1024) {
+            return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        }
+        return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+}
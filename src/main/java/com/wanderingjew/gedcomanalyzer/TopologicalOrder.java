@@ -0,0 +1,130 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Everyone in a {@link GedcomData} numbered in topological order of the parent graph:
+ * every known parent gets a smaller index than their child. Analyses that work a
+ * generation at a time without knowing generations — kinship recursion top-down,
+ * descendant counting bottom-up — walk this order instead.
+ *
+ * <p>Built with Kahn's algorithm over parent -> child edges, taken from each child's
+ * own parent list (not the parents' child lists), so the in-degree counts and the
+ * decrements always agree. People caught in a parent cycle (bad data — someone recorded
+ * as their own ancestor) never reach in-degree 0; they are appended at the end, and
+ * {@link #getParentIndexes} / {@link #getChildIndexes} drop any edge that doesn't go from
+ * a lower index to a higher one, so walks over the order always terminate.
+ */
+public class TopologicalOrder {
+
+    private final Map<Person, Integer> index = new HashMap<>();
+    private final List<Person> persons = new ArrayList<>();
+    private final int[][] parentIndexes;
+    private final int[][] childIndexes;
+
+    public TopologicalOrder(GedcomData gedcomData) {
+        Map<String, Person> all = gedcomData.getPersons();
+        Map<Person, List<Person>> childrenOf = new HashMap<>();
+        Map<Person, Integer> pending = new HashMap<>();
+        Queue<Person> ready = new ArrayDeque<>();
+        for (Person person : all.values()) {
+            int parentCount = 0;
+            for (Person parent : person.getParents()) {
+                // A parent outside this data set (e.g. a component split off on its
+                // own) has no index; treat them as unknown rather than blocking the child.
+                if (!all.containsKey(parent.getId())) {
+                    continue;
+                }
+                childrenOf.computeIfAbsent(parent, k -> new ArrayList<>()).add(person);
+                parentCount++;
+            }
+            pending.put(person, parentCount);
+            if (parentCount == 0) {
+                ready.add(person);
+            }
+        }
+        while (!ready.isEmpty()) {
+            Person person = ready.poll();
+            index.put(person, persons.size());
+            persons.add(person);
+            for (Person child : childrenOf.getOrDefault(person, new ArrayList<>())) {
+                int remaining = pending.merge(child, -1, Integer::sum);
+                if (remaining == 0) {
+                    ready.add(child);
+                }
+            }
+        }
+        if (persons.size() < all.size()) {
+            for (Person person : all.values()) {
+                if (!index.containsKey(person)) {
+                    index.put(person, persons.size());
+                    persons.add(person);
+                }
+            }
+        }
+
+        parentIndexes = new int[persons.size()][];
+        childIndexes = new int[persons.size()][];
+        List<List<Integer>> children = new ArrayList<>(persons.size());
+        for (int i = 0; i < persons.size(); i++) {
+            children.add(new ArrayList<>(2));
+        }
+        for (int i = 0; i < persons.size(); i++) {
+            List<Integer> parents = new ArrayList<>(2);
+            for (Person parent : persons.get(i).getParents()) {
+                Integer pi = index.get(parent);
+                if (pi != null && pi < i) {
+                    parents.add(pi);
+                    children.get(pi).add(i);
+                }
+            }
+            parentIndexes[i] = toArray(parents);
+        }
+        for (int i = 0; i < persons.size(); i++) {
+            childIndexes[i] = toArray(children.get(i));
+        }
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /** Number of people in the order. */
+    public int size() {
+        return persons.size();
+    }
+
+    /** The person at a position in the order. */
+    public Person get(int i) {
+        return persons.get(i);
+    }
+
+    /** Everyone, parents before children. */
+    public List<Person> getPersons() {
+        return persons;
+    }
+
+    /** A person's position in the order, or null if they aren't in the data. */
+    public Integer indexOf(Person person) {
+        return person == null ? null : index.get(person);
+    }
+
+    /** Positions of a person's parents — all smaller than {@code i}. */
+    public int[] getParentIndexes(int i) {
+        return parentIndexes[i];
+    }
+
+    /** Positions of a person's children — all larger than {@code i}. */
+    public int[] getChildIndexes(int i) {
+        return childIndexes[i];
+    }
+}
@@ -0,0 +1,316 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summary statistics over a set of people — the whole tree, or one person's ancestors or
+ * descendants: sex ratio, lifespans, births and deaths per decade, parents' ages at a
+ * child's birth (the generation interval), and the most common surnames and birth and
+ * death places.
+ *
+ * <p>Everything is gathered in a single parallel pass over the people (for ancestors or
+ * descendants, once a {@link Collector} has walked out the subset). Each worker fills its
+ * own {@link Accumulator} — plain counters, histograms and count maps, no locking — and
+ * the accumulators are merged pairwise as the workers finish. Distributions are kept as
+ * histograms by whole year, so medians and percentiles are exact without sorting anyone.
+ *
+ * <p>Years are the first four-digit year of the GEDCOM date ("ABT 1890" is 1890).
+ * Lifespans outside 0-{@value #MAX_AGE} and parent ages outside
+ * {@value #MIN_PARENT_AGE}-{@value #MAX_PARENT_AGE} are counted as implausible rather
+ * than distorting the distributions; they are usually data-entry errors.
+ */
+public class TreeStatistics {
+
+    public static final int MAX_AGE = 120;
+    public static final int MIN_PARENT_AGE = 10;
+    public static final int MAX_PARENT_AGE = 80;
+
+    private final Accumulator totals;
+
+    public TreeStatistics(Collection<Person> people) {
+        this.totals = people.parallelStream().collect(Accumulator::new, Accumulator::add, Accumulator::merge);
+    }
+
+    public long getPersonCount() { return totals.persons; }
+    public long getMaleCount() { return totals.males; }
+    public long getFemaleCount() { return totals.females; }
+    public long getUnknownSexCount() { return totals.persons - totals.males - totals.females; }
+
+    /** Males per 100 females, or NaN with no females. */
+    public double getSexRatio() {
+        return totals.females == 0 ? Double.NaN : 100.0 * totals.males / totals.females;
+    }
+
+    /** Age at death, for everyone with both a birth and a death year. */
+    public Distribution getLifespans() { return new Distribution(totals.lifespans); }
+    public Distribution getMaleLifespans() { return new Distribution(totals.maleLifespans); }
+    public Distribution getFemaleLifespans() { return new Distribution(totals.femaleLifespans); }
+
+    /** Fathers' and mothers' ages at each child's birth. */
+    public Distribution getFatherAges() { return new Distribution(totals.fatherAges); }
+    public Distribution getMotherAges() { return new Distribution(totals.motherAges); }
+
+    /** Lifespans and parent ages left out as implausible. */
+    public long getImplausibleCount() { return totals.implausible; }
+
+    /** Births per decade (1890 = the 1890s), in order. */
+    public Map<Integer, Long> getBirthsByDecade() { return new TreeMap<>(totals.birthsByDecade); }
+    public Map<Integer, Long> getDeathsByDecade() { return new TreeMap<>(totals.deathsByDecade); }
+
+    public Map<String, Long> getTopSurnames(int limit) { return top(totals.surnames, limit); }
+    public Map<String, Long> getTopBirthPlaces(int limit) { return top(totals.birthPlaces, limit); }
+    public Map<String, Long> getTopDeathPlaces(int limit) { return top(totals.deathPlaces, limit); }
+
+    private static Map<String, Long> top(Map<String, Long> counts, int limit) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> e : entries.subList(0, Math.min(limit, entries.size()))) {
+            top.put(e.getKey(), e.getValue());
+        }
+        return top;
+    }
+
+    /** Everything, as nested maps and lists ready for JSON. */
+    public Map<String, Object> toMap(int topLimit) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("persons", getPersonCount());
+        Map<String, Object> sex = new LinkedHashMap<>();
+        sex.put("male", getMaleCount());
+        sex.put("female", getFemaleCount());
+        sex.put("unknown", getUnknownSexCount());
+        sex.put("malesPer100Females", Double.isNaN(getSexRatio()) ? null : round(getSexRatio()));
+        map.put("sex", sex);
+        map.put("lifespan", getLifespans().toMap());
+        map.put("maleLifespan", getMaleLifespans().toMap());
+        map.put("femaleLifespan", getFemaleLifespans().toMap());
+        map.put("fatherAgeAtBirth", getFatherAges().toMap());
+        map.put("motherAgeAtBirth", getMotherAges().toMap());
+        map.put("implausible", getImplausibleCount());
+        map.put("birthsByDecade", getBirthsByDecade());
+        map.put("deathsByDecade", getDeathsByDecade());
+        map.put("topSurnames", getTopSurnames(topLimit));
+        map.put("topBirthPlaces", getTopBirthPlaces(topLimit));
+        map.put("topDeathPlaces", getTopDeathPlaces(topLimit));
+        return map;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * Gathers the people reached by a {@link GenerationWalk}, each once (the start person
+     * included) on their first occurrence, so the subset comes out of the same walk as
+     * whatever else is visiting it. The walk itself is serial; the statistics are then
+     * computed from the subset in the usual parallel pass.
+     */
+    public static class Collector implements GenerationWalk.Visitor {
+        private final List<Person> people = new ArrayList<>();
+
+        @Override
+        public void visit(Person person, int generation, boolean first) {
+            if (first) {
+                people.add(person);
+            }
+        }
+
+        public TreeStatistics getStatistics() {
+            return new TreeStatistics(people);
+        }
+    }
+
+    /**
+     * One worker's partial results. Not thread-safe: each worker has its own, and
+     * {@link #merge} folds another (finished) one in.
+     */
+    static final class Accumulator {
+        long persons;
+        long males;
+        long females;
+        long implausible;
+        final long[] lifespans = new long[MAX_AGE + 1];
+        final long[] maleLifespans = new long[MAX_AGE + 1];
+        final long[] femaleLifespans = new long[MAX_AGE + 1];
+        final long[] fatherAges = new long[MAX_PARENT_AGE + 1];
+        final long[] motherAges = new long[MAX_PARENT_AGE + 1];
+        final Map<Integer, Long> birthsByDecade = new HashMap<>();
+        final Map<Integer, Long> deathsByDecade = new HashMap<>();
+        final Map<String, Long> surnames = new HashMap<>();
+        final Map<String, Long> birthPlaces = new HashMap<>();
+        final Map<String, Long> deathPlaces = new HashMap<>();
+
+        void add(Person p) {
+            persons++;
+            if (p.isMale()) {
+                males++;
+            } else if (p.isFemale()) {
+                females++;
+            }
+            Integer born = p.getBirthYear();
+            Integer died = p.getDeathYear();
+            if (born != null) {
+                birthsByDecade.merge(Math.floorDiv(born, 10) * 10, 1L, Long::sum);
+            }
+            if (died != null) {
+                deathsByDecade.merge(Math.floorDiv(died, 10) * 10, 1L, Long::sum);
+            }
+            if (born != null && died != null) {
+                int age = died - born;
+                if (age < 0 || age > MAX_AGE) {
+                    implausible++;
+                } else {
+                    lifespans[age]++;
+                    if (p.isMale()) {
+                        maleLifespans[age]++;
+                    } else if (p.isFemale()) {
+                        femaleLifespans[age]++;
+                    }
+                }
+            }
+            if (born != null) {
+                for (Person parent : p.getParents()) {
+                    Integer parentBorn = parent.getBirthYear();
+                    if (parentBorn == null || !(parent.isMale() || parent.isFemale())) {
+                        continue;
+                    }
+                    int age = born - parentBorn;
+                    if (age < MIN_PARENT_AGE || age > MAX_PARENT_AGE) {
+                        implausible++;
+                    } else if (parent.isMale()) {
+                        fatherAges[age]++;
+                    } else {
+                        motherAges[age]++;
+                    }
+                }
+            }
+            String surname = p.getSurname() == null ? null : p.getSurname().trim();
+            if (surname != null && !surname.isEmpty() && !surname.equalsIgnoreCase("NN")) {
+                surnames.merge(surname, 1L, Long::sum);
+            }
+            String birthPlace = town(p.getBirthPlace());
+            if (birthPlace != null) {
+                birthPlaces.merge(birthPlace, 1L, Long::sum);
+            }
+            String deathPlace = town(p.getDeathPlace());
+            if (deathPlace != null) {
+                deathPlaces.merge(deathPlace, 1L, Long::sum);
+            }
+        }
+
+        void merge(Accumulator other) {
+            persons += other.persons;
+            males += other.males;
+            females += other.females;
+            implausible += other.implausible;
+            addAll(lifespans, other.lifespans);
+            addAll(maleLifespans, other.maleLifespans);
+            addAll(femaleLifespans, other.femaleLifespans);
+            addAll(fatherAges, other.fatherAges);
+            addAll(motherAges, other.motherAges);
+            other.birthsByDecade.forEach((k, v) -> birthsByDecade.merge(k, v, Long::sum));
+            other.deathsByDecade.forEach((k, v) -> deathsByDecade.merge(k, v, Long::sum));
+            other.surnames.forEach((k, v) -> surnames.merge(k, v, Long::sum));
+            other.birthPlaces.forEach((k, v) -> birthPlaces.merge(k, v, Long::sum));
+            other.deathPlaces.forEach((k, v) -> deathPlaces.merge(k, v, Long::sum));
+        }
+
+        private static void addAll(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += from[i];
+            }
+        }
+
+        /** The first comma-separated part of a place: "Vilna, Lithuania" -> "Vilna". */
+        private static String town(String place) {
+            if (place == null) {
+                return null;
+            }
+            String town = place.split(",", 2)[0].trim();
+            return town.isEmpty() ? null : town;
+        }
+    }
+
+    /** A distribution of whole years (ages), from a histogram indexed by year. */
+    public static class Distribution {
+        private final long[] histogram;
+        private final long count;
+
+        Distribution(long[] histogram) {
+            this.histogram = histogram.clone();
+            long n = 0;
+            for (long c : histogram) {
+                n += c;
+            }
+            this.count = n;
+        }
+
+        public long getCount() { return count; }
+
+        /** Mean, or NaN when empty. */
+        public double getMean() {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            double sum = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                sum += (double) i * histogram[i];
+            }
+            return sum / count;
+        }
+
+        /** The value at fraction q (0-1) of the way through, or -1 when empty. */
+        public int getPercentile(double q) {
+            if (count == 0) {
+                return -1;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return i;
+                }
+            }
+            return histogram.length - 1;
+        }
+
+        public int getMedian() { return getPercentile(0.5); }
+
+        public int getMin() { return getPercentile(0); }
+
+        public int getMax() { return getPercentile(1); }
+
+        /** Counts per ten-year band: 0 = ages 0-9, 10 = 10-19, ... */
+        public Map<Integer, Long> getByDecade() {
+            Map<Integer, Long> bands = new TreeMap<>();
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] > 0) {
+                    bands.merge(i / 10 * 10, histogram[i], Long::sum);
+                }
+            }
+            return bands;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", count);
+            if (count > 0) {
+                map.put("mean", round(getMean()));
+                map.put("median", getMedian());
+                map.put("p10", getPercentile(0.1));
+                map.put("p90", getPercentile(0.9));
+                map.put("min", getMin());
+                map.put("max", getMax());
+                map.put("byDecade", getByDecade());
+            }
+            return map;
+        }
+    }
+}
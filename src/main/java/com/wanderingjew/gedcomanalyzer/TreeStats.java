@@ -0,0 +1,268 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * CLI that prints summary statistics — sex ratio, lifespans, births and deaths per
+ * decade, generation intervals, top surnames and places — for the whole tree or for one
+ * person's ancestors or descendants, as text, HTML or JSON. See {@link TreeStatistics}.
+ */
+public class TreeStats {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        String ancestorsOf = null;
+        String descendantsOf = null;
+        String format = "text";
+        String output = null;
+        int top = 15;
+        for (int i = 0; i < args.length; i++) {
+            if ("--ancestors-of".equals(args[i]) && i + 1 < args.length) {
+                ancestorsOf = args[++i];
+            } else if ("--descendants-of".equals(args[i]) && i + 1 < args.length) {
+                descendantsOf = args[++i];
+            } else if ("--format".equals(args[i]) && i + 1 < args.length) {
+                format = args[++i].toLowerCase();
+            } else if ("--output".equals(args[i]) && i + 1 < args.length) {
+                output = args[++i];
+            } else if ("--top".equals(args[i]) && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() != 1 || (ancestorsOf != null && descendantsOf != null)
+                || !(format.equals("text") || format.equals("html") || format.equals("json"))) {
+            System.out.println("Usage: TreeStats <gedcom-files> [--ancestors-of <person>] [--descendants-of <person>]");
+            System.out.println("                 [--format text|html|json] [--output file] [--top N]");
+            System.out.println("  Statistics for the whole tree, or only one person's ancestors or descendants");
+            System.out.println("  (the person included). <person> is an ID or a name.");
+            System.out.println("  --top: how many surnames and places to list (default 15)");
+            System.exit(1);
+        }
+
+        List<String> files = GedcomFamilyAnalyzer.resolveGedcomFiles(positional.get(0));
+        if (files.isEmpty()) {
+            System.out.println("Error: no GEDCOM (.ged) files found for '" + positional.get(0) + "'.");
+            System.exit(1);
+        }
+        GedcomParser parser = new GedcomParser();
+        GedcomData data = files.size() == 1 ? parser.parseFile(files.get(0)) : parser.parseMultipleFiles(files);
+
+        String scope = "everyone in " + positional.get(0);
+        TreeStatistics stats;
+        if (ancestorsOf != null || descendantsOf != null) {
+            Person root = NameIndex.resolvePerson(data, ancestorsOf != null ? ancestorsOf : descendantsOf);
+            if (root == null) {
+                System.exit(1);
+            }
+            TreeStatistics.Collector collector = new TreeStatistics.Collector();
+            (ancestorsOf != null ? GenerationWalk.ancestors(root) : GenerationWalk.descendants(root))
+                    .with(collector).run();
+            stats = collector.getStatistics();
+            scope = (ancestorsOf != null ? "ancestors of " : "descendants of ") + root;
+        } else {
+            stats = new TreeStatistics(data.getPersons().values());
+        }
+
+        PrintWriter out = output != null
+                ? new PrintWriter(new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8))
+                : new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        try {
+            if (format.equals("json")) {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("scope", scope);
+                body.putAll(stats.toMap(top));
+                out.println(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(body));
+            } else if (format.equals("html")) {
+                writeHtml(out, stats, scope, top);
+            } else {
+                writeText(out, stats, scope, top);
+            }
+        } finally {
+            out.flush();
+            if (output != null) {
+                out.close();
+            }
+        }
+        if (output != null) {
+            System.out.println("Statistics for " + scope + " written to: " + output);
+        }
+    }
+
+    private static void writeText(PrintWriter out, TreeStatistics stats, String scope, int top) {
+        out.println("Statistics for " + scope);
+        out.println("==========================================");
+        out.printf("Persons: %d (%d male, %d female, %d unknown)%n", stats.getPersonCount(),
+                stats.getMaleCount(), stats.getFemaleCount(), stats.getUnknownSexCount());
+        if (!Double.isNaN(stats.getSexRatio())) {
+            out.printf("Sex ratio: %.1f males per 100 females%n", stats.getSexRatio());
+        }
+        out.println();
+        out.println("Lifespan (years)          count   mean  median  p10  p90  max");
+        textDistribution(out, "  everyone", stats.getLifespans());
+        textDistribution(out, "  men", stats.getMaleLifespans());
+        textDistribution(out, "  women", stats.getFemaleLifespans());
+        out.println("Age at child's birth");
+        textDistribution(out, "  fathers", stats.getFatherAges());
+        textDistribution(out, "  mothers", stats.getMotherAges());
+        if (stats.getImplausibleCount() > 0) {
+            out.println("  (" + stats.getImplausibleCount() + " implausible ages left out)");
+        }
+        out.println();
+        out.println("Decade   births  deaths");
+        Map<Integer, Long> births = stats.getBirthsByDecade();
+        Map<Integer, Long> deaths = stats.getDeathsByDecade();
+        for (Integer decade : decades(births, deaths)) {
+            out.printf("%ds %7d %7d%n", decade, births.getOrDefault(decade, 0L), deaths.getOrDefault(decade, 0L));
+        }
+        textTop(out, "Top surnames", stats.getTopSurnames(top));
+        textTop(out, "Top birth places", stats.getTopBirthPlaces(top));
+        textTop(out, "Top death places", stats.getTopDeathPlaces(top));
+    }
+
+    private static void textDistribution(PrintWriter out, String label, TreeStatistics.Distribution d) {
+        if (d.getCount() == 0) {
+            out.printf("%-24s %6d%n", label, 0);
+            return;
+        }
+        out.printf("%-24s %6d %6.1f %7d %4d %4d %4d%n", label, d.getCount(), d.getMean(), d.getMedian(),
+                d.getPercentile(0.1), d.getPercentile(0.9), d.getMax());
+    }
+
+    private static void textTop(PrintWriter out, String title, Map<String, Long> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        out.println();
+        out.println(title);
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            out.printf("  %7d  %s%n", e.getValue(), e.getKey());
+        }
+    }
+
+    private static SortedSet<Integer> decades(Map<Integer, Long> births, Map<Integer, Long> deaths) {
+        SortedSet<Integer> decades = new TreeSet<>(births.keySet());
+        decades.addAll(deaths.keySet());
+        return decades;
+    }
+
+    private static void writeHtml(PrintWriter out, TreeStatistics stats, String scope, int top) {
+        out.println("<!DOCTYPE html>");
+        out.println("<html>");
+        out.println("<head>");
+        out.println("    <meta charset=\"UTF-8\">");
+        out.println("    <title>Statistics for " + escapeHtml(scope) + "</title>");
+        out.println("    <style>");
+        out.println("        body { font-family: Arial, sans-serif; margin: 20px; line-height: 1.6; }");
+        out.println("        h1 { color: #2c3e50; font-size: 28px; border-bottom: 3px solid #3498db; padding-bottom: 10px; }");
+        out.println("        h2 { color: #34495e; font-size: 24px; margin-top: 30px; margin-bottom: 15px; border-left: 4px solid #3498db; padding-left: 15px; }");
+        out.println("        .section { margin-bottom: 30px; }");
+        out.println("        .info { background-color: #ecf0f1; padding: 15px; border-radius: 5px; margin-bottom: 20px; }");
+        out.println("        table.stats { border-collapse: collapse; margin-bottom: 20px; }");
+        out.println("        table.stats th, table.stats td { border: 1px solid #bdc3c7; padding: 4px 10px; text-align: right; }");
+        out.println("        table.stats th { background-color: #ecf0f1; }");
+        out.println("        table.stats td.label { text-align: left; }");
+        out.println("        .bar { display: inline-block; height: 10px; background-color: #3498db; }");
+        out.println("    </style>");
+        out.println("</head>");
+        out.println("<body>");
+        out.println("    <h1>Statistics for " + escapeHtml(scope) + "</h1>");
+        out.println("    <div class=\"info\">");
+        out.println("        <strong>Persons:</strong> " + stats.getPersonCount() + " (" + stats.getMaleCount() + " male, "
+                + stats.getFemaleCount() + " female, " + stats.getUnknownSexCount() + " unknown)<br>");
+        if (!Double.isNaN(stats.getSexRatio())) {
+            out.printf("        <strong>Sex ratio:</strong> %.1f males per 100 females%n", stats.getSexRatio());
+        }
+        out.println("    </div>");
+
+        out.println("    <div class=\"section\">");
+        out.println("        <h2>LIFESPANS AND GENERATION INTERVALS</h2>");
+        out.println("        <table class=\"stats\">");
+        out.println("            <tr><th></th><th>Count</th><th>Mean</th><th>Median</th><th>10%</th><th>90%</th><th>Max</th></tr>");
+        htmlDistribution(out, "Lifespan, everyone", stats.getLifespans());
+        htmlDistribution(out, "Lifespan, men", stats.getMaleLifespans());
+        htmlDistribution(out, "Lifespan, women", stats.getFemaleLifespans());
+        htmlDistribution(out, "Father's age at child's birth", stats.getFatherAges());
+        htmlDistribution(out, "Mother's age at child's birth", stats.getMotherAges());
+        out.println("        </table>");
+        if (stats.getImplausibleCount() > 0) {
+            out.println("        <p>" + stats.getImplausibleCount() + " implausible ages left out.</p>");
+        }
+        htmlBars(out, "Age at death", stats.getLifespans().getByDecade(), "s");
+        out.println("    </div>");
+
+        out.println("    <div class=\"section\">");
+        out.println("        <h2>BIRTHS AND DEATHS PER DECADE</h2>");
+        out.println("        <table class=\"stats\">");
+        out.println("            <tr><th>Decade</th><th>Births</th><th>Deaths</th></tr>");
+        Map<Integer, Long> births = stats.getBirthsByDecade();
+        Map<Integer, Long> deaths = stats.getDeathsByDecade();
+        for (Integer decade : decades(births, deaths)) {
+            out.println("            <tr><td class=\"label\">" + decade + "s</td><td>" + births.getOrDefault(decade, 0L)
+                    + "</td><td>" + deaths.getOrDefault(decade, 0L) + "</td></tr>");
+        }
+        out.println("        </table>");
+        out.println("    </div>");
+
+        htmlTop(out, "TOP SURNAMES", stats.getTopSurnames(top));
+        htmlTop(out, "TOP BIRTH PLACES", stats.getTopBirthPlaces(top));
+        htmlTop(out, "TOP DEATH PLACES", stats.getTopDeathPlaces(top));
+        out.println("</body>");
+        out.println("</html>");
+    }
+
+    private static void htmlDistribution(PrintWriter out, String label, TreeStatistics.Distribution d) {
+        if (d.getCount() == 0) {
+            out.println("            <tr><td class=\"label\">" + label + "</td><td>0</td><td></td><td></td><td></td><td></td><td></td></tr>");
+            return;
+        }
+        out.printf("            <tr><td class=\"label\">%s</td><td>%d</td><td>%.1f</td><td>%d</td><td>%d</td><td>%d</td><td>%d</td></tr>%n",
+                label, d.getCount(), d.getMean(), d.getMedian(), d.getPercentile(0.1), d.getPercentile(0.9), d.getMax());
+    }
+
+    private static void htmlBars(PrintWriter out, String title, Map<Integer, Long> counts, String suffix) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        long max = counts.values().stream().mapToLong(Long::longValue).max().orElse(1);
+        out.println("        <h3>" + title + "</h3>");
+        out.println("        <table class=\"stats\">");
+        for (Map.Entry<Integer, Long> e : counts.entrySet()) {
+            out.println("            <tr><td class=\"label\">" + e.getKey() + suffix + "</td><td>" + e.getValue()
+                    + "</td><td class=\"label\"><span class=\"bar\" style=\"width: " + (300 * e.getValue() / max)
+                    + "px\"></span></td></tr>");
+        }
+        out.println("        </table>");
+    }
+
+    private static void htmlTop(PrintWriter out, String title, Map<String, Long> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        out.println("    <div class=\"section\">");
+        out.println("        <h2>" + title + "</h2>");
+        out.println("        <table class=\"stats\">");
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            out.println("            <tr><td class=\"label\">" + escapeHtml(e.getKey()) + "</td><td>" + e.getValue() + "</td></tr>");
+        }
+        out.println("        </table>");
+        out.println("    </div>");
+    }
+
+    private static String escapeHtml(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,87 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Known kinship and inbreeding values on a small pedigree: grandparents G1 and G2; their
+ * children A and B (full siblings); A's son C1 and B's daughter C2 (first cousins, by
+ * unrelated spouses X and Y); and Z, the child of C1 and C2.
+ */
+class KinshipCalculatorTest {
+
+    private static final double EPSILON = 1e-12;
+
+    @TempDir
+    static Path dir;
+
+    private static GedcomData data;
+    private static KinshipCalculator calculator;
+
+    @BeforeAll
+    static void parsePedigree() throws Exception {
+        Path file = dir.resolve("pedigree.ged");
+        Files.write(file, Arrays.asList(
+                "0 HEAD",
+                "0 @G1@ INDI", "1 NAME G1 /Test/", "1 SEX M", "1 FAMS @F1@",
+                "0 @G2@ INDI", "1 NAME G2 /Test/", "1 SEX F", "1 FAMS @F1@",
+                "0 @A@ INDI", "1 NAME A /Test/", "1 SEX M", "1 FAMC @F1@", "1 FAMS @F2@",
+                "0 @B@ INDI", "1 NAME B /Test/", "1 SEX F", "1 FAMC @F1@", "1 FAMS @F3@",
+                "0 @X@ INDI", "1 NAME X /Test/", "1 SEX F", "1 FAMS @F2@",
+                "0 @Y@ INDI", "1 NAME Y /Test/", "1 SEX M", "1 FAMS @F3@",
+                "0 @C1@ INDI", "1 NAME C1 /Test/", "1 SEX M", "1 FAMC @F2@", "1 FAMS @F4@",
+                "0 @C2@ INDI", "1 NAME C2 /Test/", "1 SEX F", "1 FAMC @F3@", "1 FAMS @F4@",
+                "0 @Z@ INDI", "1 NAME Z /Test/", "1 SEX M", "1 FAMC @F4@",
+                "0 @F1@ FAM", "1 HUSB @G1@", "1 WIFE @G2@", "1 CHIL @A@", "1 CHIL @B@",
+                "0 @F2@ FAM", "1 HUSB @A@", "1 WIFE @X@", "1 CHIL @C1@",
+                "0 @F3@ FAM", "1 HUSB @Y@", "1 WIFE @B@", "1 CHIL @C2@",
+                "0 @F4@ FAM", "1 HUSB @C1@", "1 WIFE @C2@", "1 CHIL @Z@",
+                "0 TRLR"), StandardCharsets.UTF_8);
+        data = new GedcomParser().parseFile(file.toString());
+        calculator = new KinshipCalculator(data);
+    }
+
+    private static double kinship(String a, String b) {
+        return calculator.kinship(data.getPerson(a), data.getPerson(b));
+    }
+
+    @Test
+    void fullSiblingsAndParentChildHaveKinshipOneQuarter() {
+        assertEquals(0.25, kinship("A", "B"), EPSILON);
+        assertEquals(0.25, kinship("A", "G1"), EPSILON);
+        assertEquals(0.125, kinship("C1", "G2"), EPSILON);
+    }
+
+    @Test
+    void firstCousinsHaveKinshipOneSixteenth() {
+        assertEquals(1.0 / 16, kinship("C1", "C2"), EPSILON);
+        assertEquals(0.0, kinship("X", "Y"), EPSILON);
+    }
+
+    @Test
+    void childOfFirstCousinsHasInbreedingOneSixteenth() {
+        assertEquals(1.0 / 16, calculator.inbreeding(data.getPerson("Z")), EPSILON);
+        assertEquals(0.0, calculator.inbreeding(data.getPerson("C1")), EPSILON);
+        // φ(Z, Z) = ½(1 + F(Z)).
+        assertEquals(0.5 * (1 + 1.0 / 16), kinship("Z", "Z"), EPSILON);
+    }
+
+    @Test
+    void batchMatchesSingleQueries() {
+        Map<Person, Double> all = new FamilyRelationshipAnalyzer(data).getInbreedingForAll();
+        assertEquals(data.getPersonCount(), all.size());
+        for (Person person : data.getPersons().values()) {
+            double expected = person.getId().equals("Z") ? 1.0 / 16 : 0.0;
+            assertEquals(expected, all.get(person), EPSILON, person.getId());
+        }
+    }
+}
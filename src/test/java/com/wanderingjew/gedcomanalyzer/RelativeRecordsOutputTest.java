@@ -0,0 +1,85 @@
+package com.wanderingjew.gedcomanalyzer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@code --format ndjson} to stdout, from a folder of several GEDCOM files: stdout must hold
+ * the records and nothing else, since other tools read it line by line.
+ */
+class RelativeRecordsOutputTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void multiFileNdjsonStdoutIsOnlyRecords() throws Exception {
+        Files.write(dir.resolve("a.ged"), Arrays.asList(
+                "0 HEAD",
+                "0 @I1@ INDI",
+                "1 NAME Moshe /Katz/",
+                "1 SEX M",
+                "1 FAMC @F1@",
+                "1 FAMS @F2@",
+                "0 @I2@ INDI",
+                "1 NAME Avraham /Katz/",
+                "1 SEX M",
+                "1 FAMS @F1@",
+                "0 @I3@ INDI",
+                "1 NAME Rivka /Levi/",
+                "1 SEX F",
+                "1 FAMS @F1@",
+                "0 @F1@ FAM",
+                "1 HUSB @I2@",
+                "1 WIFE @I3@",
+                "1 CHIL @I1@",
+                "0 TRLR"), StandardCharsets.UTF_8);
+        Files.write(dir.resolve("b.ged"), Arrays.asList(
+                "0 HEAD",
+                "0 @I4@ INDI",
+                "1 NAME Yosef /Katz/",
+                "1 SEX M",
+                "1 FAMC @F2@",
+                "0 @F2@ FAM",
+                "1 HUSB @I1@",
+                "1 CHIL @I4@",
+                "0 TRLR"), StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        System.setOut(new PrintStream(stdout, true, "UTF-8"));
+        System.setErr(new PrintStream(stderr, true, "UTF-8"));
+        try {
+            new GedcomFamilyAnalyzer().writeRelativeRecords(dir.toString(), "Moshe Katz", null, true);
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> types = new ArrayList<>();
+        for (String line : stdout.toString("UTF-8").split("\n")) {
+            JsonNode record = mapper.readTree(line);
+            assertTrue(record.isObject(), "not a record: " + line);
+            types.add(record.get("type").asText());
+        }
+        assertEquals(Arrays.asList("self", "ancestor", "ancestor", "descendant"), types);
+        assertTrue(stderr.toString("UTF-8").contains("Parsing file:"));
+    }
+}